@@ -0,0 +1,280 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile.app;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.ads.doubleclick.PublisherAdRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.BannerAdUnit;
+import org.prebid.mobile.Host;
+import org.prebid.mobile.OnCompleteListener;
+import org.prebid.mobile.PrebidMobile;
+import org.prebid.mobile.ResultCode;
+import org.prebid.mobile.testutils.LoadTestDispatcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getArguments;
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs many auto refreshing ad units against a local mock Prebid Server and logs throughput, auction latency
+ * percentiles, thread counts, heap growth and the HandlerThreads left behind after all ad units were stopped.
+ * <p>
+ * The load can be changed with instrumentation arguments, e.g.
+ * {@code -Pandroid.testInstrumentationRunnerArguments.loadAdUnits=500}:
+ * loadAdUnits (200), loadRefreshMillis (30000) and loadDurationMillis (95000).
+ * Refresh auctions are timed from their scheduled start, so queueing inside the SDK counts as latency.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class AuctionLoadTest {
+
+    private static final String TAG = "AuctionLoadTest";
+    private static final int SDK_TIMEOUT_MILLIS = 2000;
+    private static final int THREAD_SAMPLING_PERIOD_MILLIS = 500;
+    private static final int SETTLE_MILLIS = 2000;
+
+    private MockWebServer server;
+    private int adUnitCount;
+    private int refreshMillis;
+    private int durationMillis;
+
+    @Before
+    public void setUp() {
+        Bundle arguments = getArguments();
+        adUnitCount = Integer.parseInt(arguments.getString("loadAdUnits", "200"));
+        refreshMillis = Integer.parseInt(arguments.getString("loadRefreshMillis", "30000"));
+        durationMillis = Integer.parseInt(arguments.getString("loadDurationMillis", "95000"));
+
+        server = new MockWebServer();
+        try {
+            server.start();
+        } catch (IOException e) {
+            fail("Mock server start failed.");
+        }
+        PrebidMobile.setApplicationContext(getInstrumentation().getTargetContext().getApplicationContext());
+        PrebidMobile.setPrebidServerAccountId("bfa84af2-bd16-4d35-96ad-31c6bb888df0");
+        Host.CUSTOM.setHostUrl(server.url("/").toString());
+        PrebidMobile.setPrebidServerHost(Host.CUSTOM);
+        PrebidMobile.setTimeoutMillis(SDK_TIMEOUT_MILLIS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server = null;
+    }
+
+    @Test
+    public void testFastServer() throws Exception {
+        runLoad("fast server", new LoadTestDispatcher().setLatency(20, 100));
+    }
+
+    @Test
+    public void testSlowAndFailingServer() throws Exception {
+        runLoad("slow and failing server", new LoadTestDispatcher().setLatency(200, 1500).setErrorRate(0.1));
+    }
+
+    @Test
+    public void testTimeouts() throws Exception {
+        runLoad("timeouts", new LoadTestDispatcher().setLatency(20, 100).setTimeoutRate(0.2, SDK_TIMEOUT_MILLIS + 1000));
+    }
+
+    @Test
+    public void testLargeResponses() throws Exception {
+        runLoad("large responses", new LoadTestDispatcher().setLatency(20, 100).setCreativeSize(256 * 1024));
+    }
+
+    private void runLoad(String scenario, LoadTestDispatcher dispatcher) throws Exception {
+        server.setDispatcher(dispatcher);
+
+        final ThreadSampler threadSampler = new ThreadSampler();
+        final List<SimulatedAdUnit> adUnits = new ArrayList<>(adUnitCount);
+        long heapBefore = usedHeap();
+        int handlerThreadsBefore = threadSampler.countHandlerThreads();
+
+        threadSampler.start();
+        final long startTime = SystemClock.elapsedRealtime();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < adUnitCount; i++) {
+                    SimulatedAdUnit adUnit = new SimulatedAdUnit(refreshMillis);
+                    adUnits.add(adUnit);
+                    adUnit.start();
+                }
+            }
+        });
+
+        Thread.sleep(durationMillis);
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (SimulatedAdUnit adUnit : adUnits) {
+                    adUnit.stop();
+                }
+            }
+        });
+        long elapsed = SystemClock.elapsedRealtime() - startTime;
+        threadSampler.stop();
+
+        Thread.sleep(SETTLE_MILLIS);
+        long heapAfter = usedHeap();
+        int leakedHandlerThreads = threadSampler.countHandlerThreads() - handlerThreadsBefore;
+
+        final List<Long> latencies = new ArrayList<>();
+        final Map<ResultCode, Integer> results = new EnumMap<>(ResultCode.class);
+        final int[] adUnitsWithoutResult = {0};
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (SimulatedAdUnit adUnit : adUnits) {
+                    latencies.addAll(adUnit.latencies);
+                    for (ResultCode resultCode : adUnit.resultCodes) {
+                        Integer count = results.get(resultCode);
+                        results.put(resultCode, count == null ? 1 : count + 1);
+                    }
+                    if (adUnit.resultCodes.isEmpty()) {
+                        adUnitsWithoutResult[0]++;
+                    }
+                }
+            }
+        });
+        Collections.sort(latencies);
+
+        Log.i(TAG, "---- " + scenario + " ----");
+        Log.i(TAG, "ad units: " + adUnitCount + ", refresh: " + refreshMillis + "ms, duration: " + elapsed + "ms");
+        Log.i(TAG, "server: " + dispatcher.getRequestCount() + " requests, " + dispatcher.getErrorCount() + " errors, " + dispatcher.getTimeoutCount() + " late responses");
+        Log.i(TAG, "auctions: " + latencies.size() + ", throughput: " + String.format("%.2f", latencies.size() * 1000.0 / elapsed) + "/s, results: " + results);
+        Log.i(TAG, "latency ms p50: " + percentile(latencies, 50) + ", p95: " + percentile(latencies, 95) + ", p99: " + percentile(latencies, 99) + ", max: " + percentile(latencies, 100));
+        Log.i(TAG, "threads peak: " + threadSampler.peakThreads + ", peak HandlerThreads: " + threadSampler.peakHandlerThreads);
+        Log.i(TAG, "heap before: " + heapBefore / 1024 + "KB, after: " + heapAfter / 1024 + "KB, growth: " + (heapAfter - heapBefore) / 1024 + "KB");
+        Log.i(TAG, "leaked HandlerThreads: " + leakedHandlerThreads);
+
+        assertEquals("Ad units without any result", 0, adUnitsWithoutResult[0]);
+    }
+
+    private static long percentile(List<Long> sortedValues, int percentile) {
+        if (sortedValues.isEmpty()) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.size());
+        return sortedValues.get(Math.max(0, rank - 1));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        runtime.runFinalization();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * An auto refreshing banner ad unit, only touched on the main thread.
+     */
+    private static class SimulatedAdUnit implements OnCompleteListener {
+        private final BannerAdUnit adUnit = new BannerAdUnit("6ace8c7d-88c0-4623-8117-75bc3f0a2e45", 300, 250);
+        private final PublisherAdRequest adRequest = new PublisherAdRequest.Builder().build();
+        private final int refreshMillis;
+        private final List<Long> latencies = new ArrayList<>();
+        private final List<ResultCode> resultCodes = new ArrayList<>();
+        private long startTime;
+
+        SimulatedAdUnit(int refreshMillis) {
+            this.refreshMillis = refreshMillis;
+        }
+
+        void start() {
+            startTime = SystemClock.elapsedRealtime();
+            adUnit.setAutoRefreshPeriodMillis(refreshMillis);
+            adUnit.fetchDemand(adRequest, this);
+        }
+
+        void stop() {
+            adUnit.stopAutoRefresh();
+        }
+
+        @Override
+        public void onComplete(ResultCode resultCode) {
+            long scheduledStart = startTime + (long) resultCodes.size() * refreshMillis;
+            latencies.add(SystemClock.elapsedRealtime() - scheduledStart);
+            resultCodes.add(resultCode);
+        }
+    }
+
+    /**
+     * Samples the live threads of the process.
+     */
+    private static class ThreadSampler implements Runnable {
+        private ScheduledExecutorService executor;
+        private volatile int peakThreads;
+        private volatile int peakHandlerThreads;
+
+        void start() {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleAtFixedRate(this, 0, THREAD_SAMPLING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination(THREAD_SAMPLING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            peakThreads = Math.max(peakThreads, Thread.getAllStackTraces().size());
+            peakHandlerThreads = Math.max(peakHandlerThreads, countHandlerThreads());
+        }
+
+        /**
+         * @return the number of live fetcher and demand threads of the SDK
+         */
+        int countHandlerThreads() {
+            int count = 0;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.isAlive() && ("FetcherThread".equals(thread.getName()) || "DemandThread".equals(thread.getName()))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile.testutils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Mock Prebid Server for load tests.
+ * <p>
+ * Every request is answered with a single top bid after a random latency. A configurable share of the requests
+ * fails with HTTP 500 or is answered only after the SDK timeout. The creative markup can be padded to simulate
+ * large responses. MockWebServer serves every connection on its own thread, so the delays don't block each other.
+ */
+public class LoadTestDispatcher extends Dispatcher {
+
+    private static final String BID_RESPONSE = "{\"id\":\"3dc76667-a500-4e01-a43b-368e36d6c7cc\",\"seatbid\":[{\"bid\":[{\"id\":\"1\",\"impid\":\"Banner_300x250\",\"price\":0.5,\"adm\":\"%s\",\"adid\":\"1\",\"crid\":\"1\",\"w\":300,\"h\":250,\"ext\":{\"prebid\":{\"targeting\":{\"hb_bidder\":\"appnexus\",\"hb_bidder_appnexus\":\"appnexus\",\"hb_cache_id\":\"df4aba04-5e69-44b8-8608-058ab21600b8\",\"hb_cache_id_appnexus\":\"df4aba04-5e69-44b8-8608-058ab21600b8\",\"hb_env\":\"mobile-app\",\"hb_env_appnexus\":\"mobile-app\",\"hb_pb\":\"0.50\",\"hb_pb_appnexus\":\"0.50\",\"hb_size\":\"300x250\",\"hb_size_appnexus\":\"300x250\"},\"type\":\"banner\"}}}],\"seat\":\"appnexus\"}]}";
+
+    private final Random random = new Random(42);
+
+    private int minLatencyMillis = 0;
+    private int maxLatencyMillis = 0;
+    private double errorRate = 0;
+    private double timeoutRate = 0;
+    private int timeoutDelayMillis = 0;
+    private String body = String.format(BID_RESPONSE, "");
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger timeoutCount = new AtomicInteger();
+
+    public LoadTestDispatcher setLatency(int minLatencyMillis, int maxLatencyMillis) {
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = Math.max(minLatencyMillis, maxLatencyMillis);
+        return this;
+    }
+
+    /**
+     * @param errorRate share of the requests answered with HTTP 500, between 0 and 1
+     */
+    public LoadTestDispatcher setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param timeoutRate        share of the requests answered too late, between 0 and 1
+     * @param timeoutDelayMillis delay of these responses, should be larger than the SDK timeout
+     */
+    public LoadTestDispatcher setTimeoutRate(double timeoutRate, int timeoutDelayMillis) {
+        this.timeoutRate = timeoutRate;
+        this.timeoutDelayMillis = timeoutDelayMillis;
+        return this;
+    }
+
+    /**
+     * @param creativeBytes size of the creative markup of the bid
+     */
+    public LoadTestDispatcher setCreativeSize(int creativeBytes) {
+        StringBuilder creative = new StringBuilder(creativeBytes);
+        while (creative.length() < creativeBytes) {
+            creative.append("<div>prebid</div>");
+        }
+        creative.setLength(creativeBytes);
+        this.body = String.format(BID_RESPONSE, creative.toString());
+        return this;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        requestCount.incrementAndGet();
+
+        double roll;
+        int latency;
+        synchronized (random) {
+            roll = random.nextDouble();
+            latency = minLatencyMillis + random.nextInt(maxLatencyMillis - minLatencyMillis + 1);
+        }
+
+        if (roll < timeoutRate) {
+            timeoutCount.incrementAndGet();
+            Thread.sleep(timeoutDelayMillis);
+            return new MockResponse().setResponseCode(200).setBody(body);
+        }
+
+        Thread.sleep(latency);
+
+        if (roll < timeoutRate + errorRate) {
+            errorCount.incrementAndGet();
+            return new MockResponse().setResponseCode(500);
+        }
+
+        return new MockResponse().setResponseCode(200).setBody(body);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getTimeoutCount() {
+        return timeoutCount.get();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixtures shared by the benchmarks. Responses are the JSON files of the SDK unit tests.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    public static String readResource(String name) {
+        InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IllegalArgumentException("Missing fixture " + name);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                builder.append(line).append('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creative markup of roughly {@code length} characters, with the Prebid Universal Creative
+     * size object at the end, the worst case for the size lookup.
+     */
+    public static String creative(int length) {
+        StringBuilder html = new StringBuilder(length + 128);
+        html.append("<html><body><div id=\"creative\">");
+        int i = 0;
+        while (html.length() < length) {
+            html.append("<div class=\"hb_size-like\" style=\"width:").append(i).append("px\">row ").append(i).append("x").append(i).append("</div>");
+            i++;
+        }
+        html.append("<script type=\"text/javascript\">var pbjs = {\"hb_size_rubicon\":[\"1x1\"],\"hb_size\":[\"300x250\"]};</script>");
+        html.append("</div></body></html>");
+        return html.toString();
+    }
+
+    public static Set<String> keywords(String prefix, int count) {
+        Set<String> keywords = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            keywords.add(prefix + i);
+        }
+        return keywords;
+    }
+
+    public static Map<String, Set<String>> data(String prefix, int count) {
+        Map<String, Set<String>> data = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            data.put(prefix + i, keywords(prefix + "value", 3));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.prebid.mobile;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request building: {@link PostDataBuilder#build(RequestParams)} and the empty value clean up it runs.
+ * No application context is set, so the device values read from the context are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+
+    /**
+     * Number of context and user keywords and data keys
+     */
+    @Param({"0", "10", "100"})
+    public int targetingSize;
+
+    private RequestParams requestParams;
+    private JSONObject postData;
+
+    @Setup
+    public void setup() throws Exception {
+        PrebidMobile.setPrebidServerAccountId("bfa84af2-bd16-4d35-96ad-31c6bb888df0");
+        TargetingParams.setYearOfBirth(1989);
+        TargetingParams.setGender(TargetingParams.GENDER.FEMALE);
+
+        TargetingParams.clearContextData();
+        TargetingParams.clearContextKeywords();
+        TargetingParams.clearUserData();
+        TargetingParams.clearUserKeywords();
+        for (Map.Entry<String, Set<String>> entry : BenchmarkFixtures.data("context", targetingSize).entrySet()) {
+            TargetingParams.updateContextData(entry.getKey(), entry.getValue());
+        }
+        TargetingParams.addContextKeywords(BenchmarkFixtures.keywords("context", targetingSize));
+        for (Map.Entry<String, Set<String>> entry : BenchmarkFixtures.data("user", targetingSize).entrySet()) {
+            TargetingParams.updateUserData(entry.getKey(), entry.getValue());
+        }
+        TargetingParams.addUserKeywords(BenchmarkFixtures.keywords("user", targetingSize));
+
+        Set<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        sizes.add(new AdSize(320, 50));
+        requestParams = new RequestParams("6ace8c7d-88c0-4623-8117-75bc3f0a2e45", AdType.BANNER, sizes,
+                BenchmarkFixtures.data("adunit", targetingSize), BenchmarkFixtures.keywords("adunit", targetingSize), null);
+        postData = PostDataBuilder.build(requestParams);
+    }
+
+    @Benchmark
+    public String buildPostData() throws PostDataBuilder.NoContextException {
+        return PostDataBuilder.build(requestParams).toString();
+    }
+
+    @Benchmark
+    public JSONObject getObjectWithoutEmptyValues() {
+        return Util.getObjectWithoutEmptyValues(postData);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.prebid.mobile;
+
+import com.google.android.gms.ads.doubleclick.PublisherAdRequest;
+import com.mopub.mobileads.MoPubView;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response handling: parsing, keyword extraction and applying the keywords to the ad objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+    @Param({
+            "PrebidServerOneBidFromAppNexusResponse.json",
+            "PrebidServerOneBidFromAppNexusOneBidFromRubicon.json",
+            "PrebidServerValidBidResponseTwoBidsOnTheSameSeat.json"
+    })
+    public String response;
+
+    private String responseBody;
+    private JSONObject responseObject;
+    private HashMap<String, String> keywords;
+    private MoPubView moPubView;
+    private PublisherAdRequest publisherAdRequest;
+
+    @Setup
+    public void setup() throws JSONException {
+        responseBody = BenchmarkFixtures.readResource(response);
+        responseObject = new JSONObject(responseBody);
+        keywords = Util.getTopBidKeywords(responseObject);
+        if (keywords == null) {
+            throw new IllegalStateException(response + " doesn't contain a top bid");
+        }
+
+        moPubView = new MoPubView();
+        moPubView.setKeywords("publisher:keyword,another:keyword");
+        publisherAdRequest = new PublisherAdRequest();
+    }
+
+    @Benchmark
+    public HashMap<String, String> parseAndExtractKeywords() throws JSONException {
+        return Util.getTopBidKeywords(new JSONObject(responseBody));
+    }
+
+    @Benchmark
+    public HashMap<String, String> extractKeywords() {
+        return Util.getTopBidKeywords(responseObject);
+    }
+
+    @Benchmark
+    public String applyToMoPub() {
+        Util.apply(keywords, moPubView);
+        return moPubView.getKeywords();
+    }
+
+    @Benchmark
+    public int applyToDFP() {
+        Util.apply(keywords, publisherAdRequest);
+        return publisherAdRequest.getCustomTargeting().size();
+    }
+}
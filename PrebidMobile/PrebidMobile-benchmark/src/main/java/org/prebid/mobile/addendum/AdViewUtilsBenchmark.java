@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.prebid.mobile.addendum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.prebid.mobile.BenchmarkFixtures;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creative size lookup on creatives of different sizes, the size object is at the very end.
+ * {@link #regexScan()} is the previous two regex implementation, kept as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdViewUtilsBenchmark {
+
+    /**
+     * Length of the creative markup in characters
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int creativeLength;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        html = BenchmarkFixtures.creative(creativeLength);
+        Pair<Pair<Integer, Integer>, PbFindSizeError> result = AdViewUtils.findSizeInHtml(html);
+        if (result.first == null || result.first.first != 300 || result.first.second != 250) {
+            throw new IllegalStateException("Size not found in the creative");
+        }
+    }
+
+    @Benchmark
+    public Pair<Pair<Integer, Integer>, PbFindSizeError> findSizeInHtml() {
+        return AdViewUtils.findSizeInHtml(html);
+    }
+
+    @Benchmark
+    public Pair<Integer, Integer> regexScan() {
+        String hbSizeObject = AdViewUtils.matches("hb_size\\W+[0-9]+x[0-9]+", html)[0];
+        String hbSizeValue = AdViewUtils.matches("[0-9]+x[0-9]+", hbSizeObject)[0];
+        return AdViewUtils.stringToSize(hbSizeValue);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package android.location;
+
+import android.os.Looper;
+import java.util.List;
+
+/**
+ * JVM stub of the Android framework class, only what the benchmarked SDK code uses.
+ */
+public abstract class LocationManager {
+    public static final String PASSIVE_PROVIDER = "passive";
+
+    public abstract List<String> getProviders(boolean enabledOnly);
+
+    public abstract Location getLastKnownLocation(String provider);
+
+    public abstract LocationProvider getProvider(String name);
+
+    public abstract void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener, Looper looper);
+
+    public abstract void removeUpdates(LocationListener listener);
+}
@@ -0,0 +1,47 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package android.webkit;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/**
+ * JVM stub of the Android framework class, only what the benchmarked SDK code uses.
+ * Scripts are answered synchronously with a preset value.
+ */
+public class WebView extends ViewGroup {
+
+    private final WebSettings settings = new WebSettings();
+    private String scriptResult = "null";
+
+    public WebView(Context context) {
+    }
+
+    public void setScriptResult(String scriptResult) {
+        this.scriptResult = scriptResult;
+    }
+
+    public void evaluateJavascript(String script, ValueCallback<String> resultCallback) {
+        if (resultCallback != null) {
+            resultCallback.onReceiveValue(scriptResult);
+        }
+    }
+
+    public WebSettings getSettings() {
+        return settings;
+    }
+}
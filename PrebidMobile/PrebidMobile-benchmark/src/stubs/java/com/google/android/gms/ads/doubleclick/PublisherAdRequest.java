@@ -0,0 +1,31 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.google.android.gms.ads.doubleclick;
+
+import android.os.Bundle;
+
+/**
+ * JVM stub of the Google Ad Manager ad request, Util.apply() updates the custom targeting via reflection.
+ */
+public final class PublisherAdRequest {
+
+    private final Bundle customTargeting = new Bundle();
+
+    public Bundle getCustomTargeting() {
+        return customTargeting;
+    }
+}
@@ -20,8 +20,8 @@ package org.prebid.mobile;
  * AdSize class defines the size of the ad slot to be made available for auction.
  */
 class AdSize {
-    private int width;
-    private int height;
+    private final int width;
+    private final int height;
 
     /**
      * Creates an ad size object with width and height as specified
@@ -65,7 +65,6 @@ class AdSize {
 
     @Override
     public int hashCode() {
-        String size = width + "x" + height;
-        return size.hashCode();
+        return 31 * width + height;
     }
 }
@@ -16,13 +16,13 @@
 
 package org.prebid.mobile;
 
+import android.app.Activity;
 import android.content.Context;
-import android.content.pm.PackageManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.support.annotation.IntRange;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
+import android.view.View;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -38,6 +38,11 @@ public abstract class AdUnit {
 
     private DemandFetcher fetcher;
     private int periodMillis;
+    // paused if either the app or the lifecycle binding holds a pause
+    private boolean autoRefreshPaused;
+    private boolean pausedByApp;
+    private boolean pausedByBinding;
+    private LifecycleBinding lifecycleBinding;
 
     private final Map<String, Set<String>> contextDataDictionary;
     private final Set<String> contextKeywordsSet;
@@ -71,6 +76,90 @@ public abstract class AdUnit {
         }
     }
 
+    /**
+     * Pauses the auto refresh. Once {@link #resumeAutoRefresh()} is called the next auction runs a full refresh
+     * period after the last one, or right away if that time has already passed.
+     */
+    @MainThread
+    public void pauseAutoRefresh() {
+        pausedByApp = true;
+        updateAutoRefresh();
+    }
+
+    /**
+     * Resumes the auto refresh, unless a binding of {@link #bindToLifecycle(Activity)} or {@link #bindToView(View)}
+     * still holds it paused.
+     */
+    @MainThread
+    public void resumeAutoRefresh() {
+        pausedByApp = false;
+        updateAutoRefresh();
+    }
+
+    @MainThread
+    void setPausedByBinding(boolean paused) {
+        pausedByBinding = paused;
+        updateAutoRefresh();
+    }
+
+    private void updateAutoRefresh() {
+        autoRefreshPaused = pausedByApp || pausedByBinding;
+        if (fetcher != null) {
+            if (autoRefreshPaused) {
+                fetcher.pause();
+            } else {
+                fetcher.resume();
+            }
+        }
+    }
+
+    /**
+     * Pauses the auto refresh while the activity is paused and stops it when the activity is destroyed.
+     * An activity recreated for a configuration change has to be bound again, the auto refresh stays paused until then.
+     * Fragments are covered by binding to their hosting activity together with {@link #bindToView(View)}.
+     */
+    @MainThread
+    public void bindToLifecycle(@NonNull Activity activity) {
+        getLifecycleBinding().bindActivity(activity);
+    }
+
+    /**
+     * Pauses the auto refresh while the ad view is detached from its window.
+     */
+    @MainThread
+    public void bindToView(@NonNull View adView) {
+        getLifecycleBinding().bindView(adView, 0);
+    }
+
+    /**
+     * Pauses the auto refresh while less than {@code minVisiblePercent} of the ad view is on screen,
+     * e.g. while it is scrolled out of a feed. Refreshes that became due in the meantime run as soon as
+     * the ad view is visible again.
+     */
+    @MainThread
+    public void bindToView(@NonNull View adView, @IntRange(from = 1, to = 100) int minVisiblePercent) {
+        getLifecycleBinding().bindView(adView, Math.max(1, Math.min(100, minVisiblePercent)));
+    }
+
+    /**
+     * Removes the bindings of {@link #bindToLifecycle(Activity)} and {@link #bindToView(View)} and resumes the auto refresh,
+     * unless it was paused with {@link #pauseAutoRefresh()}.
+     */
+    @MainThread
+    public void unbind() {
+        if (lifecycleBinding != null) {
+            lifecycleBinding.unbind();
+            lifecycleBinding = null;
+        }
+    }
+
+    private LifecycleBinding getLifecycleBinding() {
+        if (lifecycleBinding == null) {
+            lifecycleBinding = new LifecycleBinding(this);
+        }
+        return lifecycleBinding;
+    }
+
     public void fetchDemand(@NonNull Object adObj, @NonNull OnCompleteListener listener) {
         if (TextUtils.isEmpty(PrebidMobile.getPrebidServerAccountId())) {
             LogUtil.e("Empty account id.");
@@ -89,41 +178,38 @@ public abstract class AdUnit {
                 return;
             }
         }
-        HashSet<AdSize> sizes = null;
         if (adType == AdType.BANNER) {
-            sizes = ((BannerAdUnit) this).getSizes();
-            for (AdSize size : sizes) {
+            for (AdSize size : ((BannerAdUnit) this).getSizes()) {
                 if (size.getWidth() < 0 || size.getHeight() < 0) {
                     listener.onComplete(ResultCode.INVALID_SIZE);
                     return;
                 }
             }
         }
-        AdSize minSizePerc = null;
-        if (this instanceof InterstitialAdUnit) {
-            InterstitialAdUnit interstitialAdUnit = (InterstitialAdUnit) this;
-
-            minSizePerc = interstitialAdUnit.getMinSizePerc();
-        }
 
         Context context = PrebidMobile.getApplicationContext();
         if (context != null) {
-            ConnectivityManager conMgr = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            if (conMgr != null && context.checkCallingOrSelfPermission("android.permission.ACCESS_NETWORK_STATE") == PackageManager.PERMISSION_GRANTED) {
-                NetworkInfo activeNetworkInfo = conMgr.getActiveNetworkInfo();
-                if (activeNetworkInfo == null || !activeNetworkInfo.isConnected()) {
-                    listener.onComplete(ResultCode.NETWORK_ERROR);
-                    return;
-                }
+            if (!NetworkStateMonitor.getNetworkState(context).isConnected()) {
+                AuctionLog.record(configId, ResultCode.NETWORK_ERROR, 0);
+                listener.onComplete(ResultCode.NETWORK_ERROR);
+                return;
             }
         } else {
             listener.onComplete(ResultCode.INVALID_CONTEXT);
             return;
         }
         if (Util.supportedAdObject(adObj)) {
+            RequestParams requestParams = createRequestParams();
+            if (fetcher != null) {
+                if (fetcher.join(adObj, requestParams, periodMillis, listener)) {
+                    LogUtil.v("Sharing the auction in flight for the same ad object and parameters.");
+                    return;
+                }
+                // superseded, otherwise it would keep running next to the new one
+                fetcher.destroy();
+            }
             fetcher = new DemandFetcher(adObj);
 
-            RequestParams requestParams = new RequestParams(configId, adType, sizes, contextDataDictionary, contextKeywordsSet, minSizePerc);
             fetcher.setPeriodMillis(periodMillis);
             fetcher.setRequestParams(requestParams);
             fetcher.setListener(listener);
@@ -132,13 +218,40 @@ public abstract class AdUnit {
             } else {
                 LogUtil.v("Start a single fetching.");
             }
-            fetcher.start();
+            if (periodMillis > 0 && autoRefreshPaused) {
+                LogUtil.v("Auto refresh is paused, fetching starts on resume.");
+            } else {
+                fetcher.start();
+            }
         } else {
             listener.onComplete(ResultCode.INVALID_AD_OBJECT);
         }
 
     }
 
+    @NonNull
+    private RequestParams createRequestParams() {
+        HashSet<AdSize> sizes = null;
+        if (adType == AdType.BANNER) {
+            sizes = ((BannerAdUnit) this).getSizes();
+        }
+        AdSize minSizePerc = null;
+        if (this instanceof InterstitialAdUnit) {
+            minSizePerc = ((InterstitialAdUnit) this).getMinSizePerc();
+        }
+
+        return new RequestParams(configId, adType, sizes, contextDataDictionary, contextKeywordsSet, minSizePerc);
+    }
+
+    /**
+     * Hands a new snapshot of the request parameters to a running auto refresh.
+     */
+    void onRequestParamsChanged() {
+        if (fetcher != null) {
+            fetcher.setRequestParams(createRequestParams());
+        }
+    }
+
 
     /**
      *@deprecated Please migrate to - TargetingParams.addUserKeyword(String)
@@ -192,6 +305,7 @@ public abstract class AdUnit {
      */
     public void addContextData(String key, String value) {
         Util.addValue(contextDataDictionary, key, value);
+        onRequestParamsChanged();
     }
 
     /**
@@ -200,6 +314,7 @@ public abstract class AdUnit {
      */
     public void updateContextData(String key, Set<String> value) {
         contextDataDictionary.put(key, value);
+        onRequestParamsChanged();
     }
 
     /**
@@ -207,6 +322,7 @@ public abstract class AdUnit {
      */
     public void removeContextData(String key) {
         contextDataDictionary.remove(key);
+        onRequestParamsChanged();
     }
 
     /**
@@ -214,6 +330,7 @@ public abstract class AdUnit {
      */
     public void clearContextData() {
         contextDataDictionary.clear();
+        onRequestParamsChanged();
     }
 
     Map<String, Set<String>> getContextDataDictionary() {
@@ -228,6 +345,7 @@ public abstract class AdUnit {
      */
     public void addContextKeyword(String keyword) {
         contextKeywordsSet.add(keyword);
+        onRequestParamsChanged();
     }
 
     /**
@@ -236,6 +354,7 @@ public abstract class AdUnit {
      */
     public void addContextKeywords(Set<String> keywords) {
         contextKeywordsSet.addAll(keywords);
+        onRequestParamsChanged();
     }
 
     /**
@@ -243,6 +362,7 @@ public abstract class AdUnit {
      */
     public void removeContextKeyword(String keyword) {
         contextKeywordsSet.remove(keyword);
+        onRequestParamsChanged();
     }
 
     /**
@@ -250,6 +370,7 @@ public abstract class AdUnit {
      */
     public void clearContextKeywords() {
         contextKeywordsSet.clear();
+        onRequestParamsChanged();
     }
 
     Set<String>  getContextKeywordsSet() {
@@ -0,0 +1,193 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request and response buffers reused by all auctions of a worker thread.
+ * <p>
+ * The buffers grow with the largest request and response seen. {@link #trim()} drops them back to
+ * their initial size once they grew beyond {@link #MAX_RETAINED_BYTES}, so a single large response
+ * doesn't stay pinned by an idle worker.
+ */
+@WorkerThread
+final class AuctionBuffers {
+
+    static final int INITIAL_BYTES = 8 * 1024;
+    static final int MAX_RETAINED_BYTES = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ThreadLocal<AuctionBuffers> buffers = new ThreadLocal<AuctionBuffers>() {
+        @Override
+        protected AuctionBuffers initialValue() {
+            return new AuctionBuffers();
+        }
+    };
+
+    // replaces malformed input like OutputStreamWriter does
+    private final CharsetEncoder encoder = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer requestBuffer = ByteBuffer.allocate(INITIAL_BYTES);
+    private byte[] responseBuffer = new byte[INITIAL_BYTES];
+    private final ByteBufferOutputStream compressedBuffer = new ByteBufferOutputStream();
+
+    private AuctionBuffers() {
+    }
+
+    @NonNull
+    static AuctionBuffers get() {
+        return buffers.get();
+    }
+
+    /**
+     * Encodes the request body as UTF-8. The returned buffer is only valid until the next call
+     * on this thread, its content is between 0 and {@link ByteBuffer#limit()} of the backing array.
+     */
+    @NonNull
+    ByteBuffer encode(@NonNull String text) throws CharacterCodingException {
+        CharBuffer input = CharBuffer.wrap(text);
+        encoder.reset();
+        requestBuffer.clear();
+        CoderResult result;
+        do {
+            result = encoder.encode(input, requestBuffer, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(requestBuffer);
+            }
+            if (result.isOverflow()) {
+                requestBuffer = grow(requestBuffer, (int) (input.remaining() * encoder.averageBytesPerChar()) + 16);
+            } else if (result.isError()) {
+                result.throwException();
+            }
+        } while (!result.isUnderflow());
+        requestBuffer.flip();
+        return requestBuffer;
+    }
+
+    /**
+     * Compresses an encoded request body with gzip. The returned buffer is only valid until the next call
+     * on this thread, its content is between 0 and {@link ByteBuffer#limit()} of the backing array.
+     */
+    @NonNull
+    ByteBuffer gzip(@NonNull ByteBuffer body) throws IOException {
+        compressedBuffer.reset();
+        GZIPOutputStream gzip = new GZIPOutputStream(compressedBuffer, INITIAL_BYTES);
+        try {
+            gzip.write(body.array(), body.position(), body.remaining());
+        } finally {
+            // also releases the native deflater
+            gzip.close();
+        }
+        return compressedBuffer.asByteBuffer();
+    }
+
+    /**
+     * Reads the stream to the end and decodes it as UTF-8, the stream is not closed.
+     */
+    @NonNull
+    String readFully(@NonNull InputStream is) throws IOException {
+        int length = 0;
+        int read;
+        while ((read = is.read(responseBuffer, length, responseBuffer.length - length)) != -1) {
+            length += read;
+            if (length == responseBuffer.length) {
+                byte[] larger = new byte[responseBuffer.length * 2];
+                System.arraycopy(responseBuffer, 0, larger, 0, length);
+                responseBuffer = larger;
+            }
+        }
+        return new String(responseBuffer, 0, length, UTF_8);
+    }
+
+    /**
+     * Called at the end of an auction.
+     */
+    void trim() {
+        if (requestBuffer.capacity() > MAX_RETAINED_BYTES) {
+            requestBuffer = ByteBuffer.allocate(INITIAL_BYTES);
+        }
+        if (responseBuffer.length > MAX_RETAINED_BYTES) {
+            responseBuffer = new byte[INITIAL_BYTES];
+        }
+        if (compressedBuffer.buffer.length > MAX_RETAINED_BYTES) {
+            compressedBuffer.buffer = new byte[INITIAL_BYTES];
+        }
+    }
+
+    @VisibleForTesting
+    int getRetainedBytes() {
+        return requestBuffer.capacity() + responseBuffer.length + compressedBuffer.buffer.length;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int minAdditional) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() + Math.max(buffer.capacity(), minAdditional));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private static final class ByteBufferOutputStream extends OutputStream {
+        private byte[] buffer = new byte[INITIAL_BYTES];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, buffer, length, len);
+            length += len;
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buffer, 0, length);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > buffer.length) {
+                byte[] larger = new byte[Math.max(buffer.length * 2, length + additional)];
+                System.arraycopy(buffer, 0, larger, 0, length);
+                buffer = larger;
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+import android.text.TextUtils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only on-device log of auction outcomes, uploaded in batches to {@link PrebidMobile#getAuctionLogUrl()}.
+ * <p>
+ * Every record holds the time, config id, {@link ResultCode} and latency of one auction, so failed auctions
+ * (e.g. {@link ResultCode#NETWORK_ERROR} or {@link ResultCode#TIMEOUT}) are counted as well.
+ * Result codes are stored by name, records with a name that is no longer known are skipped.
+ * Records are appended to a small binary file which is rotated once it reaches half of {@link #MAX_LOG_BYTES},
+ * so at most the current and the previous file are kept on disk. The log is uploaded and cleared once it holds
+ * {@link #UPLOAD_THRESHOLD_BYTES} and the device is connected to an unmetered network or charging.
+ * All file and network access happens on a single background thread.
+ */
+final class AuctionLog {
+
+    static final int MAX_LOG_BYTES = 64 * 1024;
+    static final int UPLOAD_THRESHOLD_BYTES = 4 * 1024;
+    static final long MIN_UPLOAD_INTERVAL_MILLIS = 15 * 60 * 1000;
+
+    // 2 stores result codes by name instead of by ordinal
+    private static final int FORMAT_VERSION = 2;
+    private static final int UPLOAD_TIMEOUT_MILLIS = 10_000;
+    private static final String LOG_DIR = "prebid_auction_log";
+    private static final String CURRENT_FILE = "current";
+    private static final String PREVIOUS_FILE = "previous";
+
+    @Nullable
+    private static ExecutorService executor;
+    // only accessed on the executor thread
+    private static long lastUploadAttempt = -1;
+    private static boolean formatChecked;
+
+    private AuctionLog() {
+    }
+
+    /**
+     * Records the outcome of an auction. Does nothing unless the publisher has set an upload url.
+     */
+    static void record(@Nullable String configId, @NonNull ResultCode resultCode, long latencyMillis) {
+        final String uploadUrl = PrebidMobile.getAuctionLogUrl();
+        final Context context = PrebidMobile.getApplicationContext();
+        if (TextUtils.isEmpty(uploadUrl) || context == null) {
+            return;
+        }
+
+        final Record record = new Record(System.currentTimeMillis(), configId == null ? "" : configId, resultCode, latencyMillis);
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                File dir = getLogDir(context);
+                try {
+                    append(dir, record);
+                } catch (IOException e) {
+                    LogUtil.w("Unable to write the auction log: " + e.getMessage());
+                    return;
+                }
+                if (shouldUpload(context, dir)) {
+                    lastUploadAttempt = System.currentTimeMillis();
+                    upload(dir, uploadUrl);
+                }
+            }
+        });
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor();
+        }
+        return executor;
+    }
+
+    @NonNull
+    static File getLogDir(@NonNull Context context) {
+        return new File(context.getFilesDir(), LOG_DIR);
+    }
+
+    @WorkerThread
+    @VisibleForTesting
+    static void append(@NonNull File dir, @NonNull Record record) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+
+        File current = new File(dir, CURRENT_FILE);
+        if (!formatChecked) {
+            // records can't be appended to a file of an earlier format, they would not be readable
+            if (current.length() > 0 && readFormatVersion(current) != FORMAT_VERSION && !current.delete()) {
+                throw new IOException("Unable to replace " + current);
+            }
+            formatChecked = true;
+        }
+        if (current.length() >= MAX_LOG_BYTES / 2) {
+            File previous = new File(dir, PREVIOUS_FILE);
+            if ((previous.exists() && !previous.delete()) || !current.renameTo(previous)) {
+                throw new IOException("Unable to rotate " + current);
+            }
+        }
+
+        boolean newFile = current.length() == 0;
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(current, true));
+        try {
+            if (newFile) {
+                out.writeByte(FORMAT_VERSION);
+            }
+            out.writeLong(record.timestamp);
+            out.writeUTF(record.configId);
+            out.writeUTF(record.resultCode.name());
+            out.writeInt((int) Math.min(Integer.MAX_VALUE, Math.max(0, record.latencyMillis)));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static int readFormatVersion(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return in.read();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the logged records, oldest first. A record torn by a crash ends the file it belongs to.
+     */
+    @WorkerThread
+    @NonNull
+    @VisibleForTesting
+    static List<Record> read(@NonNull File dir) {
+        List<Record> records = new ArrayList<>();
+        read(new File(dir, PREVIOUS_FILE), records);
+        read(new File(dir, CURRENT_FILE), records);
+        return records;
+    }
+
+    private static void read(File file, List<Record> records) {
+        if (!file.exists()) {
+            return;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readByte() != FORMAT_VERSION) {
+                return;
+            }
+            while (true) {
+                long timestamp = in.readLong();
+                String configId = in.readUTF();
+                String resultCodeName = in.readUTF();
+                int latencyMillis = in.readInt();
+                ResultCode resultCode = toResultCode(resultCodeName);
+                if (resultCode != null) {
+                    records.add(new Record(timestamp, configId, resultCode, latencyMillis));
+                }
+            }
+        } catch (EOFException e) {
+            // end of the file
+        } catch (IOException e) {
+            LogUtil.w("Unable to read the auction log: " + e.getMessage());
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * @return null for a name the SDK doesn't know, e.g. one written by another SDK version
+     */
+    @Nullable
+    private static ResultCode toResultCode(String name) {
+        try {
+            return ResultCode.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @WorkerThread
+    static void clear(@NonNull File dir) {
+        new File(dir, PREVIOUS_FILE).delete();
+        new File(dir, CURRENT_FILE).delete();
+    }
+
+    @WorkerThread
+    private static boolean shouldUpload(Context context, File dir) {
+        long size = new File(dir, CURRENT_FILE).length() + new File(dir, PREVIOUS_FILE).length();
+        if (size < UPLOAD_THRESHOLD_BYTES) {
+            return false;
+        }
+        if (lastUploadAttempt != -1 && System.currentTimeMillis() - lastUploadAttempt < MIN_UPLOAD_INTERVAL_MILLIS) {
+            return false;
+        }
+
+        NetworkStateMonitor.NetworkState networkState = NetworkStateMonitor.getNetworkState(context);
+        if (!networkState.isConnectivityKnown() || !networkState.isConnected()) {
+            return false;
+        }
+        return !networkState.isMetered() || isCharging(context);
+    }
+
+    private static boolean isCharging(Context context) {
+        Intent batteryStatus = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return batteryStatus != null && batteryStatus.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+
+    @WorkerThread
+    private static void upload(File dir, String uploadUrl) {
+        List<Record> records = read(dir);
+        if (records.isEmpty()) {
+            clear(dir);
+            return;
+        }
+
+        HttpURLConnection conn = null;
+        try {
+            byte[] body = toJson(records).toString().getBytes("UTF-8");
+
+            conn = (HttpURLConnection) new URL(uploadUrl).openConnection();
+            conn.setDoOutput(true);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            conn.setConnectTimeout(UPLOAD_TIMEOUT_MILLIS);
+            conn.setReadTimeout(UPLOAD_TIMEOUT_MILLIS);
+            conn.setFixedLengthStreamingMode(body.length);
+
+            OutputStream out = conn.getOutputStream();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+
+            int httpResult = conn.getResponseCode();
+            if (httpResult >= 200 && httpResult < 300) {
+                LogUtil.d("Uploaded " + records.size() + " auction log records");
+                clear(dir);
+            } else {
+                LogUtil.w("Auction log upload failed with HTTP " + httpResult);
+            }
+        } catch (IOException | JSONException e) {
+            LogUtil.w("Auction log upload failed: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static JSONObject toJson(@NonNull List<Record> records) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (Record record : records) {
+            JSONObject object = new JSONObject();
+            object.put("ts", record.timestamp);
+            object.put("configid", record.configId);
+            object.put("result", record.resultCode.name());
+            object.put("latency", record.latencyMillis);
+            array.put(object);
+        }
+
+        JSONObject root = new JSONObject();
+        root.put("records", array);
+        return root;
+    }
+
+    static final class Record {
+        private final long timestamp;
+        @NonNull
+        private final String configId;
+        @NonNull
+        private final ResultCode resultCode;
+        private final long latencyMillis;
+
+        Record(long timestamp, @NonNull String configId, @NonNull ResultCode resultCode, long latencyMillis) {
+            this.timestamp = timestamp;
+            this.configId = configId;
+            this.resultCode = resultCode;
+            this.latencyMillis = latencyMillis;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        @NonNull
+        String getConfigId() {
+            return configId;
+        }
+
+        @NonNull
+        ResultCode getResultCode() {
+            return resultCode;
+        }
+
+        long getLatencyMillis() {
+            return latencyMillis;
+        }
+    }
+}
@@ -32,6 +32,7 @@ public class BannerAdUnit extends AdUnit {
 
     public void addAdditionalSize(int width, int height) {
         sizes.add(new AdSize(width, height));
+        onRequestParamsChanged();
     }
 
     HashSet<AdSize> getSizes() {
@@ -22,26 +22,35 @@ import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 class DemandFetcher {
 
+    // auction ids only have to be unique within the process, a counter is cheaper than a random UUID
+    private static final AtomicLong auctionCounter = new AtomicLong();
+
     enum STATE {
         STOPPED,
         RUNNING,
         DESTROYED
     }
 
-    private STATE state;
+    private volatile STATE state;
     private int periodMillis;
     private Object adObject;
     private OnCompleteListener listener;
+    // listeners of superseded fetchDemand calls that joined the auction in flight, notified once
+    private final ArrayList<OnCompleteListener> sharedListeners = new ArrayList<>(1);
+    // from scheduling an immediate auction until its listeners are notified
+    private volatile boolean auctionInFlight;
     private Handler fetcherHandler;
     private RequestRunnable requestRunnable;
     private long lastFetchTime = -1;
     private long timePausedAt = -1;
-    private RequestParams requestParams;
+    // replaced on the main thread, read by the fetcher thread
+    private volatile RequestParams requestParams;
 
     DemandFetcher(@NonNull Object adObj) {
         this.state = STATE.STOPPED;
@@ -57,7 +66,32 @@ class DemandFetcher {
         this.listener = listener;
     }
 
+    /**
+     * Lets a repeated fetchDemand call share the auction in flight instead of starting another one.
+     * The given listener receives the result and replaces the current listener,
+     * which is still notified once about the auction in flight.
+     *
+     * @return false if nothing equivalent is in flight and a new fetcher is needed
+     */
+    @MainThread
+    boolean join(@NonNull Object adObj, @NonNull RequestParams requestParams, int periodMillis, @NonNull OnCompleteListener listener) {
+        if (state != STATE.RUNNING || !auctionInFlight || adObject != adObj
+                || this.periodMillis != periodMillis || !requestParams.equals(this.requestParams)) {
+            return false;
+        }
+
+        if (this.listener != null && this.listener != listener) {
+            sharedListeners.add(this.listener);
+        }
+        this.listener = listener;
+        return true;
+    }
+
     void setRequestParams(RequestParams requestParams) {
+        // keep an equal snapshot, its JSON is already built
+        if (requestParams != null && requestParams.equals(this.requestParams)) {
+            return;
+        }
         this.requestParams = requestParams;
     }
 
@@ -79,11 +113,33 @@ class DemandFetcher {
         state = STATE.STOPPED;
     }
 
-    void start() {
+    /**
+     * Stops the auto refresh. {@link #resume()} schedules the next auction a full period after the last one,
+     * right away if that time has passed while paused.
+     * An auction in flight is not cancelled.
+     */
+    synchronized void pause() {
+        if (state == STATE.RUNNING && periodMillis > 0) {
+            fetcherHandler.removeCallbacks(requestRunnable);
+            timePausedAt = System.currentTimeMillis();
+            state = STATE.STOPPED;
+        }
+    }
+
+    synchronized void resume() {
+        if (state == STATE.STOPPED) {
+            start();
+        }
+    }
+
+    synchronized void start() {
         switch (state) {
             case STOPPED:
+                // set first, the fetcher thread checks it before scheduling the next refresh
+                state = STATE.RUNNING;
                 if (this.periodMillis <= 0) {
                     // start a single request
+                    auctionInFlight = true;
                     fetcherHandler.post(requestRunnable);
                 } else {
                     // Start recurring ad requests
@@ -91,18 +147,19 @@ class DemandFetcher {
                     final long stall; // delay millis for the initial request
                     if (timePausedAt != -1 && lastFetchTime != -1) {
                         //Clamp the stall between 0 and the periodMillis. Ads should never be requested on
-                        //a delay longer than the periodMillis
-                        stall = Math.min(msPeriod, Math.max(0, msPeriod - (timePausedAt - lastFetchTime)));
+                        //a delay longer than the periodMillis. Measured up to now, a refresh that came due
+                        //while paused runs right away
+                        stall = Math.min(msPeriod, Math.max(0, msPeriod - (System.currentTimeMillis() - lastFetchTime)));
                     } else {
                         stall = 0;
                     }
-                    fetcherHandler.postDelayed(requestRunnable, stall * 1000);
+                    fetcherHandler.postDelayed(requestRunnable, stall);
                 }
-                state = STATE.RUNNING;
                 break;
             case RUNNING:
                 if (this.periodMillis <= 0) {
                     // start a single request
+                    auctionInFlight = true;
                     fetcherHandler.post(requestRunnable);
                 }
                 break;
@@ -115,19 +172,37 @@ class DemandFetcher {
         if (state != STATE.DESTROYED) {
             this.adObject = null;
             this.listener = null;
+            this.sharedListeners.clear();
+            this.auctionInFlight = false;
             this.requestRunnable.cancelRequest();
             this.fetcherHandler.removeCallbacks(requestRunnable);
+            // release both threads, a destroyed fetcher is never restarted
+            this.fetcherHandler.getLooper().quit();
+            this.requestRunnable.demandHandler.getLooper().quit();
             this.requestRunnable = null;
             state = STATE.DESTROYED;
         }
     }
 
+    private static String nextAuctionId() {
+        return Long.toString(auctionCounter.incrementAndGet());
+    }
+
     @MainThread
-    private void notifyListener(final ResultCode resultCode) {
+    private void notifyListener(final ResultCode resultCode, long auctionStartTime) {
         LogUtil.d("notifyListener:" + resultCode);
+        AuctionLog.record(requestParams.getConfigId(), resultCode, System.currentTimeMillis() - auctionStartTime);
 
-        if (listener != null) {
-            listener.onComplete(resultCode);
+        auctionInFlight = false;
+        // listeners may call fetchDemand again, which destroys this fetcher
+        OnCompleteListener currentListener = listener;
+        OnCompleteListener[] joinedListeners = sharedListeners.toArray(new OnCompleteListener[sharedListeners.size()]);
+        sharedListeners.clear();
+        for (OnCompleteListener joinedListener : joinedListeners) {
+            joinedListener.onComplete(resultCode);
+        }
+        if (currentListener != null) {
+            currentListener.onComplete(resultCode);
         }
         // for single request, if done, finish current fetcher,
         // let ad unit create a new fetcher for next request
@@ -147,7 +222,7 @@ class DemandFetcher {
             demandThread.start();
             this.demandHandler = new Handler(demandThread.getLooper());
             this.demandAdapter = new PrebidServerAdapter();
-            auctionId = UUID.randomUUID().toString();
+            auctionId = nextAuctionId();
         }
 
         void cancelRequest() {
@@ -157,8 +232,10 @@ class DemandFetcher {
         @Override
         public void run() {
             // reset state
-            auctionId = UUID.randomUUID().toString();
+            auctionId = nextAuctionId();
+            auctionInFlight = true;
             lastFetchTime = System.currentTimeMillis();
+            final long auctionStartTime = lastFetchTime;
             // check input values
             demandHandler.post(new Runnable() {
 
@@ -171,7 +248,7 @@ class DemandFetcher {
                             if (RequestRunnable.this.auctionId.equals(auctionId)) {
                                 Util.apply(demand, DemandFetcher.this.adObject);
                                 LogUtil.i("Successfully set the following keywords: " + demand.toString());
-                                notifyListener(ResultCode.SUCCESS);
+                                notifyListener(ResultCode.SUCCESS, auctionStartTime);
                             }
                         }
 
@@ -181,14 +258,17 @@ class DemandFetcher {
                             if (RequestRunnable.this.auctionId.equals(auctionId)) {
                                 Util.apply(null, DemandFetcher.this.adObject);
                                 LogUtil.i("Removed all used keywords from the ad object");
-                                notifyListener(resultCode);
+                                notifyListener(resultCode, auctionStartTime);
                             }
                         }
                     }, auctionId);
                 }
             });
-            if (periodMillis > 0) {
-                fetcherHandler.postDelayed(this, periodMillis);
+            // synchronized with pause() so a refresh can't be scheduled after the pause
+            synchronized (DemandFetcher.this) {
+                if (periodMillis > 0 && state == STATE.RUNNING) {
+                    fetcherHandler.postDelayed(this, periodMillis);
+                }
             }
         }
     }
@@ -0,0 +1,192 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Pauses the auto refresh of an {@link AdUnit} while its activity is paused, its ad view is detached
+ * or less than the requested part of the ad view is on screen, and stops it when the activity is destroyed
+ * other than for a configuration change. A pause of the app itself is kept, see {@link AdUnit#setPausedByBinding(boolean)}.
+ */
+@MainThread
+final class LifecycleBinding implements Application.ActivityLifecycleCallbacks, View.OnAttachStateChangeListener, VisibilityTracker.Listener {
+
+    private final AdUnit adUnit;
+
+    @Nullable
+    private WeakReference<Activity> activityReference;
+    @Nullable
+    private WeakReference<View> viewReference;
+    private boolean activityResumed = true;
+    private boolean viewAttached = true;
+    private int minVisiblePercent;
+    private boolean viewVisible = true;
+
+    LifecycleBinding(@NonNull AdUnit adUnit) {
+        this.adUnit = adUnit;
+    }
+
+    void bindActivity(@NonNull Activity activity) {
+        unbindActivity();
+
+        activityReference = new WeakReference<>(activity);
+        // usually bound in onCreate or onResume, onPause follows anyway
+        activityResumed = true;
+        activity.getApplication().registerActivityLifecycleCallbacks(this);
+        update();
+    }
+
+    /**
+     * @param minVisiblePercent 0 to only track the attach state
+     */
+    void bindView(@NonNull View adView, int minVisiblePercent) {
+        unbindView();
+
+        viewReference = new WeakReference<>(adView);
+        this.minVisiblePercent = minVisiblePercent;
+        viewAttached = adView.getWindowToken() != null;
+        adView.addOnAttachStateChangeListener(this);
+        if (viewAttached && minVisiblePercent > 0) {
+            // reports the current visibility right away
+            VisibilityTracker.track(adView, minVisiblePercent, this);
+        } else {
+            viewVisible = minVisiblePercent <= 0;
+        }
+        update();
+    }
+
+    void unbind() {
+        unbindActivity();
+        unbindView();
+        update();
+    }
+
+    boolean isActive() {
+        return activityResumed && viewAttached && viewVisible;
+    }
+
+    private void unbindActivity() {
+        Activity activity = activityReference != null ? activityReference.get() : null;
+        if (activity != null) {
+            activity.getApplication().unregisterActivityLifecycleCallbacks(this);
+        }
+        activityReference = null;
+        activityResumed = true;
+    }
+
+    private void unbindView() {
+        View adView = viewReference != null ? viewReference.get() : null;
+        if (adView != null) {
+            adView.removeOnAttachStateChangeListener(this);
+            VisibilityTracker.untrack(adView);
+        }
+        viewReference = null;
+        viewAttached = true;
+        minVisiblePercent = 0;
+        viewVisible = true;
+    }
+
+    private boolean isBound(Activity activity) {
+        return activityReference != null && activityReference.get() == activity;
+    }
+
+    private void update() {
+        adUnit.setPausedByBinding(!isActive());
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        if (isBound(activity)) {
+            activityResumed = true;
+            update();
+        }
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        if (isBound(activity)) {
+            activityResumed = false;
+            update();
+        }
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        if (isBound(activity)) {
+            unbindActivity();
+            unbindView();
+            // an ad unit kept across the configuration change is bound again by the new activity
+            if (!activity.isChangingConfigurations()) {
+                adUnit.stopAutoRefresh();
+                // released, a later fetchDemand() of the same ad unit refreshes again
+                update();
+            }
+        }
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        viewAttached = true;
+        if (minVisiblePercent > 0) {
+            // the view may have moved to another window
+            VisibilityTracker.track(v, minVisiblePercent, this);
+        } else {
+            update();
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        viewAttached = false;
+        if (minVisiblePercent > 0) {
+            VisibilityTracker.untrack(v);
+            viewVisible = false;
+        }
+        update();
+    }
+
+    @Override
+    public void onVisibilityChanged(boolean visible) {
+        viewVisible = visible;
+        update();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+
+/**
+ * Keeps the last known device location so that request building doesn't have to query
+ * the LocationManager on every auction.
+ * <p>
+ * The snapshot is refreshed at most once per {@link PrebidMobile#getLocationRefreshPeriodMillis()}
+ * and additionally listens to the passive provider, so fixes obtained by other apps are picked up for free.
+ * Coordinates are rounded to {@link #LOCATION_DECIMAL_PLACES} decimal places before they are stored.
+ */
+class LocationSnapshot {
+
+    static final int LOCATION_DECIMAL_PLACES = 4;
+    private static final double LOCATION_ROUNDING_FACTOR = Math.pow(10, LOCATION_DECIMAL_PLACES);
+
+    @Nullable
+    private static volatile Fix lastFix;
+
+    private static long lastSampleTime = -1;
+    private static boolean sampling = false;
+    @Nullable
+    private static PassiveLocationListener passiveListener;
+
+    private LocationSnapshot() {
+    }
+
+    @Nullable
+    static Fix getLastFix() {
+        return lastFix;
+    }
+
+    /**
+     * Samples the enabled providers if the snapshot is older than the refresh period.
+     * The very first sample is taken on the calling thread so that the first auction carries a location,
+     * subsequent samples run in the background and the caller keeps using the current snapshot.
+     */
+    static void refreshIfNeeded(@Nullable final Context context) {
+        if (context == null || !PrebidMobile.isShareGeoLocation()) {
+            return;
+        }
+
+        if (!hasLocationPermission(context)) {
+            LogUtil.w("Location permissions ACCESS_COARSE_LOCATION and/or ACCESS_FINE_LOCATION aren\\'t set in the host app. This may affect demand.");
+            return;
+        }
+
+        registerPassiveListener(context);
+
+        final boolean firstSample;
+        synchronized (LocationSnapshot.class) {
+            long now = System.currentTimeMillis();
+            if (sampling || (lastSampleTime != -1 && now - lastSampleTime < PrebidMobile.getLocationRefreshPeriodMillis())) {
+                return;
+            }
+            sampling = true;
+            firstSample = lastSampleTime == -1;
+        }
+
+        if (firstSample) {
+            sample(context);
+        } else {
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    sample(context);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the stored fix and stops listening to passive location updates.
+     * Without a context the listener stays registered until a later reset with a context, it ignores fixes meanwhile.
+     */
+    static void reset(@Nullable Context context) {
+        PassiveLocationListener listener = null;
+        synchronized (LocationSnapshot.class) {
+            if (context != null) {
+                listener = passiveListener;
+                passiveListener = null;
+            }
+            lastSampleTime = -1;
+            lastFix = null;
+        }
+
+        if (listener != null) {
+            LocationManager lm = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+            if (lm != null) {
+                lm.removeUpdates(listener);
+            }
+        }
+    }
+
+    @WorkerThread
+    private static void sample(Context context) {
+        try {
+            LocationManager lm = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+            if (lm == null) {
+                return;
+            }
+
+            Location lastLocation = null;
+            for (String provider_name : lm.getProviders(true)) {
+                Location l = lm.getLastKnownLocation(provider_name);
+                if (l == null) {
+                    continue;
+                }
+
+                if (lastLocation == null) {
+                    lastLocation = l;
+                } else {
+                    if (l.getTime() > 0 && lastLocation.getTime() > 0) {
+                        if (l.getTime() > lastLocation.getTime()) {
+                            lastLocation = l;
+                        }
+                    }
+                }
+            }
+
+            onLocation(lastLocation);
+        } catch (SecurityException e) {
+            LogUtil.w("Unable to read the last known location: " + e.getMessage());
+        } finally {
+            synchronized (LocationSnapshot.class) {
+                lastSampleTime = System.currentTimeMillis();
+                sampling = false;
+            }
+        }
+    }
+
+    private static void registerPassiveListener(Context context) {
+        PassiveLocationListener listener;
+        synchronized (LocationSnapshot.class) {
+            if (passiveListener != null) {
+                return;
+            }
+            listener = new PassiveLocationListener();
+            passiveListener = listener;
+        }
+
+        try {
+            LocationManager lm = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+            if (lm != null && lm.getProvider(LocationManager.PASSIVE_PROVIDER) != null) {
+                lm.requestLocationUpdates(LocationManager.PASSIVE_PROVIDER, PrebidMobile.getLocationRefreshPeriodMillis(), 0, listener, Looper.getMainLooper());
+            }
+        } catch (SecurityException e) {
+            // the passive provider requires ACCESS_FINE_LOCATION, periodic sampling still works with the coarse one
+            LogUtil.d("Passive location updates are not available: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            LogUtil.d("Passive location updates are not available: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasLocationPermission(Context context) {
+        return context.checkCallingOrSelfPermission("android.permission.ACCESS_FINE_LOCATION") == PackageManager.PERMISSION_GRANTED
+                || context.checkCallingOrSelfPermission("android.permission.ACCESS_COARSE_LOCATION") == PackageManager.PERMISSION_GRANTED;
+    }
+
+    @VisibleForTesting
+    static void onLocation(@Nullable Location location) {
+        // a passive update can still arrive after sharing was turned off
+        if (location == null || !PrebidMobile.isShareGeoLocation()) {
+            return;
+        }
+
+        Fix current = lastFix;
+        if (current != null && current.getTime() > 0 && location.getTime() > 0 && location.getTime() < current.getTime()) {
+            return;
+        }
+
+        lastFix = new Fix(round(location.getLatitude()), round(location.getLongitude()), Math.round(location.getAccuracy()), location.getTime());
+    }
+
+    static double round(double coordinate) {
+        return Math.round(coordinate * LOCATION_ROUNDING_FACTOR) / LOCATION_ROUNDING_FACTOR;
+    }
+
+    static final class Fix {
+        private final double latitude;
+        private final double longitude;
+        private final int accuracy;
+        private final long time;
+
+        Fix(double latitude, double longitude, int accuracy, long time) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.accuracy = accuracy;
+            this.time = time;
+        }
+
+        double getLatitude() {
+            return latitude;
+        }
+
+        double getLongitude() {
+            return longitude;
+        }
+
+        int getAccuracy() {
+            return accuracy;
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        /**
+         * @return age of the fix in milliseconds, never negative so that fixes from the future are not reported
+         */
+        int getAge() {
+            return (int) Math.max(0, (System.currentTimeMillis() - time));
+        }
+    }
+
+    private static class PassiveLocationListener implements LocationListener {
+
+        @Override
+        public void onLocationChanged(Location location) {
+            onLocation(location);
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {
+        }
+
+        @Override
+        public void onProviderEnabled(String provider) {
+        }
+
+        @Override
+        public void onProviderDisabled(String provider) {
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.telephony.TelephonyManager;
+import android.text.TextUtils;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Keeps an immutable snapshot of the carrier and connectivity state.
+ * <p>
+ * The snapshot is taken once per application context and then kept up to date by network callbacks,
+ * so the pre-flight check in {@link AdUnit} and the request {@code device} object don't have to
+ * call TelephonyManager and ConnectivityManager on every auction.
+ */
+class NetworkStateMonitor {
+
+    static final int CONNECTION_TYPE_UNKNOWN = 0;
+    static final int CONNECTION_TYPE_WIFI = 1;
+    static final int CONNECTION_TYPE_CELLULAR = 2;
+
+    @Nullable
+    private static volatile NetworkState current;
+    @Nullable
+    private static WeakReference<Context> monitoredContext;
+
+    private NetworkStateMonitor() {
+    }
+
+    /**
+     * Returns the current snapshot. The first call for a context queries the system services
+     * and subscribes to network changes, later calls are served from memory.
+     * A disconnected snapshot is always re-checked so that a missed callback can't block auctions.
+     */
+    @NonNull
+    static NetworkState getNetworkState(@NonNull Context context) {
+        Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+
+        NetworkState state = current;
+        if (state != null && state.isConnected() && isMonitoring(applicationContext)) {
+            return state;
+        }
+
+        synchronized (NetworkStateMonitor.class) {
+            if (!isMonitoring(applicationContext)) {
+                monitoredContext = new WeakReference<>(applicationContext);
+                startListening(applicationContext);
+            }
+            state = query(applicationContext);
+            current = state;
+        }
+        return state;
+    }
+
+    private static boolean isMonitoring(Context applicationContext) {
+        return monitoredContext != null && monitoredContext.get() == applicationContext;
+    }
+
+    private static void update(Context applicationContext) {
+        synchronized (NetworkStateMonitor.class) {
+            if (isMonitoring(applicationContext)) {
+                current = query(applicationContext);
+            }
+        }
+    }
+
+    private static void startListening(final Context applicationContext) {
+        if (applicationContext.checkCallingOrSelfPermission("android.permission.ACCESS_NETWORK_STATE") != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                registerNetworkCallback(applicationContext);
+            } else {
+                registerConnectivityReceiver(applicationContext);
+            }
+        } catch (RuntimeException e) {
+            // SecurityException and the "too many requests" exceptions of some vendors, the snapshot is re-queried while disconnected anyway
+            LogUtil.w("Unable to subscribe to network changes: " + e.getMessage());
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void registerNetworkCallback(final Context applicationContext) {
+        ConnectivityManager cm = (ConnectivityManager) applicationContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) {
+            return;
+        }
+
+        cm.registerNetworkCallback(new NetworkRequest.Builder().build(), new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                update(applicationContext);
+            }
+
+            @Override
+            public void onLost(Network network) {
+                update(applicationContext);
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+                update(applicationContext);
+            }
+        });
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void registerConnectivityReceiver(final Context applicationContext) {
+        applicationContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                update(applicationContext);
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    @NonNull
+    private static NetworkState query(Context context) {
+        boolean connectivityKnown = false;
+        boolean connected = false;
+        boolean metered = false;
+        int connectionType = CONNECTION_TYPE_UNKNOWN;
+
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm != null && context.checkCallingOrSelfPermission("android.permission.ACCESS_NETWORK_STATE") == PackageManager.PERMISSION_GRANTED) {
+            connectivityKnown = true;
+            NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+            if (activeNetwork != null && activeNetwork.isConnected()) {
+                connected = true;
+                metered = cm.isActiveNetworkMetered();
+                NetworkInfo wifi = cm.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
+                if (wifi != null) {
+                    connectionType = wifi.isConnected() ? CONNECTION_TYPE_WIFI : CONNECTION_TYPE_CELLULAR;
+                }
+            }
+        }
+
+        int mcc = -1;
+        int mnc = -1;
+        String carrierName = "";
+        TelephonyManager telephonyManager = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+        if (telephonyManager != null) {
+            // Get mobile country codes
+            String networkOperator = telephonyManager.getNetworkOperator();
+            if (!TextUtils.isEmpty(networkOperator)) {
+                try {
+                    mcc = Integer.parseInt(networkOperator.substring(0, 3));
+                    mnc = Integer.parseInt(networkOperator.substring(3));
+                } catch (Exception e) {
+                    // Catches NumberFormatException and StringIndexOutOfBoundsException
+                    mcc = -1;
+                    mnc = -1;
+                }
+            }
+
+            // Get carrier
+            try {
+                carrierName = telephonyManager.getNetworkOperatorName();
+            } catch (SecurityException ex) {
+                // Some phones require READ_PHONE_STATE permission just ignore name
+                carrierName = "";
+            }
+        }
+
+        return new NetworkState(connectivityKnown, connected, metered, connectionType, carrierName, mcc, mnc);
+    }
+
+    static final class NetworkState {
+        private final boolean connectivityKnown;
+        private final boolean connected;
+        private final boolean metered;
+        private final int connectionType;
+        @Nullable
+        private final String carrierName;
+        private final int mcc;
+        private final int mnc;
+
+        NetworkState(boolean connectivityKnown, boolean connected, boolean metered, int connectionType, @Nullable String carrierName, int mcc, int mnc) {
+            this.connectivityKnown = connectivityKnown;
+            this.connected = connected;
+            this.metered = metered;
+            this.connectionType = connectionType;
+            this.carrierName = carrierName;
+            this.mcc = mcc;
+            this.mnc = mnc;
+        }
+
+        /**
+         * @return false if the host app doesn't have the ACCESS_NETWORK_STATE permission
+         */
+        boolean isConnectivityKnown() {
+            return connectivityKnown;
+        }
+
+        /**
+         * @return true if connected or if the connectivity can't be checked
+         */
+        boolean isConnected() {
+            return connected || !connectivityKnown;
+        }
+
+        boolean isMetered() {
+            return metered;
+        }
+
+        int getConnectionType() {
+            return connectionType;
+        }
+
+        @Nullable
+        String getCarrierName() {
+            return carrierName;
+        }
+
+        int getMCC() {
+            return mcc;
+        }
+
+        int getMNC() {
+            return mnc;
+        }
+    }
+}
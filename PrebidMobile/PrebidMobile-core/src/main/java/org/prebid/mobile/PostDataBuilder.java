@@ -0,0 +1,408 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.content.Context;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Builds the OpenRTB request of an auction from the ad unit parameters and the global settings.
+ */
+final class PostDataBuilder {
+
+    private PostDataBuilder() { }
+
+    /**
+     * Settings that are refreshed from the context, e.g. by {@link PrebidServerSettings#update(Context)},
+     * are only read here, the caller refreshes them first.
+     */
+    @NonNull
+    static JSONObject build(@NonNull RequestParams requestParams) throws NoContextException {
+        JSONObject postData = new JSONObject();
+        try {
+            TargetingJson targeting = TargetingJson.get(TargetingParams.getSnapshot());
+            String id = UUID.randomUUID().toString();
+            postData.put("id", id);
+            JSONObject source = new JSONObject();
+            source.put("tid", id);
+            postData.put("source", source);
+            // add ad units
+            JSONArray imp = getImp(requestParams);
+            if (imp != null && imp.length() > 0) {
+                postData.put("imp", imp);
+            }
+            // add device
+            JSONObject device = getDeviceObject(requestParams);
+            if (device != null && device.length() > 0) {
+                postData.put(PrebidServerSettings.REQUEST_DEVICE, device);
+            }
+            // add app
+            JSONObject app = getAppObject(targeting);
+            if (device != null && device.length() > 0) {
+                postData.put(PrebidServerSettings.REQUEST_APP, app);
+            }
+            // add user
+            JSONObject user = getUserObject(targeting);
+            if (user != null && user.length() > 0) {
+                postData.put(PrebidServerSettings.REQUEST_USER, user);
+            }
+            // add regs
+            JSONObject regs = getRegsObject();
+            if (regs != null && regs.length() > 0) {
+                postData.put("regs", regs);
+            }
+            // add targeting keywords request
+            JSONObject ext = getRequestExtData(targeting);
+            if (ext != null && ext.length() > 0) {
+                postData.put("ext", ext);
+            }
+
+            JSONObject objectWithoutEmptyValues = Util.getObjectWithoutEmptyValues(postData);
+
+            if (objectWithoutEmptyValues != null) {
+                postData = objectWithoutEmptyValues;
+
+                JSONObject prebid = postData.getJSONObject("ext").getJSONObject("prebid");
+
+                JSONObject cache = new JSONObject();
+                JSONObject bids = new JSONObject();
+                cache.put("bids", bids);
+                prebid.put("cache", cache);
+
+                JSONObject targetingEmpty = new JSONObject();
+                prebid.put("targeting", targetingEmpty);
+            }
+
+        } catch (JSONException e) {
+        }
+
+        return postData;
+    }
+
+    private static JSONObject getRequestExtData(TargetingJson targeting) {
+        JSONObject ext = new JSONObject();
+        JSONObject prebid = new JSONObject();
+        try {
+            JSONObject storedRequest = new JSONObject();
+            storedRequest.put("id", PrebidMobile.getPrebidServerAccountId());
+            prebid.put("storedrequest", storedRequest);
+
+            JSONObject data = new JSONObject().put("bidders", targeting.bidders);
+            prebid.put("data", data);
+            ext.put("prebid", prebid);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return ext;
+    }
+
+    private static JSONArray getImp(RequestParams requestParams) throws NoContextException {
+        JSONArray impConfigs = new JSONArray();
+        // takes information from the ad units
+        // look up the configuration of the ad unit
+        try {
+            JSONObject imp = new JSONObject();
+            JSONObject ext = new JSONObject();
+            imp.put("id", "PrebidMobile");
+            imp.put("secure", 1);
+            if (requestParams.getAdType().equals(AdType.INTERSTITIAL)) {
+                imp.put("instl", 1);
+                JSONObject banner = new JSONObject();
+                JSONArray format = new JSONArray();
+                Context context = PrebidMobile.getApplicationContext();
+                if (context != null) {
+                    format.put(new JSONObject().put("w", context.getResources().getConfiguration().screenWidthDp).put("h", context.getResources().getConfiguration().screenHeightDp));
+                } else {
+                    // Unlikely this is being called, if so, please check if you've set up the SDK properly
+                    throw new NoContextException();
+                }
+                banner.put("format", format);
+                imp.put("banner", banner);
+            } else {
+                JSONObject banner = new JSONObject();
+                banner.put("format", requestParams.getBannerFormatJson());
+                imp.put("banner", banner);
+            }
+
+            JSONObject prebid = new JSONObject();
+            ext.put("prebid", prebid);
+            ext.put("context", requestParams.getContextJson());
+            JSONObject storedrequest = new JSONObject();
+            prebid.put("storedrequest", storedrequest);
+            storedrequest.put("id", requestParams.getConfigId());
+
+            if (!TextUtils.isEmpty(PrebidMobile.getStoredAuctionResponse())) {
+                JSONObject storedAuctionResponse = new JSONObject();
+                prebid.put("storedauctionresponse", storedAuctionResponse);
+                storedAuctionResponse.put("id", PrebidMobile.getStoredAuctionResponse());
+            }
+
+            if (!PrebidMobile.getStoredBidResponses().isEmpty()) {
+                JSONArray bidResponseArray = new JSONArray();
+                prebid.put("storedbidresponse", bidResponseArray);
+
+                for (String bidder : PrebidMobile.getStoredBidResponses().keySet()) {
+                    String bidId = PrebidMobile.getStoredBidResponses().get(bidder);
+                    if (!TextUtils.isEmpty(bidder) && !TextUtils.isEmpty(bidId)) {
+                        JSONObject storedBid = new JSONObject();
+                        storedBid.put("bidder", bidder);
+                        storedBid.put("id", bidId);
+                        bidResponseArray.put(storedBid);
+                    }
+                }
+            }
+
+            imp.put("ext", ext);
+
+            impConfigs.put(imp);
+        } catch (JSONException e) {
+        }
+
+        return impConfigs;
+    }
+
+    private static JSONObject getDeviceObject(RequestParams requestParams) {
+        JSONObject device = new JSONObject();
+        try {
+            // Device make
+            if (!TextUtils.isEmpty(PrebidServerSettings.deviceMake))
+                device.put(PrebidServerSettings.REQUEST_DEVICE_MAKE, PrebidServerSettings.deviceMake);
+            // Device model
+            if (!TextUtils.isEmpty(PrebidServerSettings.deviceModel))
+                device.put(PrebidServerSettings.REQUEST_DEVICE_MODEL, PrebidServerSettings.deviceModel);
+            // Default User Agent
+            if (!TextUtils.isEmpty(PrebidServerSettings.userAgent)) {
+                device.put(PrebidServerSettings.REQUEST_USERAGENT, PrebidServerSettings.userAgent);
+            }
+            // limited ad tracking
+            device.put(PrebidServerSettings.REQUEST_LMT, AdvertisingIDUtil.isLimitAdTracking() ? 1 : 0);
+            if (!AdvertisingIDUtil.isLimitAdTracking() && !TextUtils.isEmpty(AdvertisingIDUtil.getAAID())) {
+                // put ifa
+                device.put(PrebidServerSettings.REQUEST_IFA, AdvertisingIDUtil.getAAID());
+            }
+
+            // os
+            device.put(PrebidServerSettings.REQUEST_OS, PrebidServerSettings.os);
+            device.put(PrebidServerSettings.REQUEST_OS_VERSION, String.valueOf(Build.VERSION.SDK_INT));
+            // language
+            if (!TextUtils.isEmpty(Locale.getDefault().getLanguage())) {
+                device.put(PrebidServerSettings.REQUEST_LANGUAGE, Locale.getDefault().getLanguage());
+            }
+
+            if (requestParams.getAdType().equals(AdType.INTERSTITIAL)) {
+
+                Integer minSizePercWidth = null;
+                Integer minSizePercHeight = null;
+
+                AdSize minSizePerc = requestParams.getMinSizePerc();
+                if (minSizePerc != null) {
+
+                    minSizePercWidth = minSizePerc.getWidth();
+                    minSizePercHeight = minSizePerc.getHeight();
+                }
+
+                JSONObject deviceExt = new JSONObject();
+                JSONObject deviceExtPrebid = new JSONObject();
+                JSONObject deviceExtPrebidInstl = new JSONObject();
+
+                device.put("ext", deviceExt);
+                deviceExt.put("prebid", deviceExtPrebid);
+                deviceExtPrebid.put("interstitial", deviceExtPrebidInstl);
+                deviceExtPrebidInstl.put("minwidthperc", minSizePercWidth);
+                deviceExtPrebidInstl.put("minheightperc", minSizePercHeight);
+
+                device.put("ext", deviceExt);
+            }
+
+            // POST data that requires context
+            Context context = PrebidMobile.getApplicationContext();
+            if (context != null) {
+                device.put(PrebidServerSettings.REQUEST_DEVICE_WIDTH, context.getResources().getConfiguration().screenWidthDp);
+                device.put(PrebidServerSettings.REQUEST_DEVICE_HEIGHT, context.getResources().getConfiguration().screenHeightDp);
+
+                device.put(PrebidServerSettings.REQUEST_DEVICE_PIXEL_RATIO, context.getResources().getDisplayMetrics().density);
+
+                NetworkStateMonitor.NetworkState networkState = NetworkStateMonitor.getNetworkState(context);
+                if (networkState.getMCC() > 0 && networkState.getMNC() > 0) {
+                    device.put(PrebidServerSettings.REQUEST_MCC_MNC, String.format(Locale.ENGLISH, "%d-%d", networkState.getMCC(), networkState.getMNC()));
+                }
+
+                if (!TextUtils.isEmpty(networkState.getCarrierName()))
+                    device.put(PrebidServerSettings.REQUEST_CARRIER, networkState.getCarrierName());
+
+                device.put(PrebidServerSettings.REQUEST_CONNECTION_TYPE, networkState.getConnectionType());
+
+                // get location
+                // the snapshot is refreshed in getPostData(), here we only read the cached fix
+                if (PrebidMobile.isShareGeoLocation()) {
+                    LocationSnapshot.Fix lastFix = LocationSnapshot.getLastFix();
+                    if (lastFix != null) {
+                        JSONObject geo = new JSONObject();
+                        geo.put(PrebidServerSettings.REQEUST_GEO_LAT, lastFix.getLatitude());
+                        geo.put(PrebidServerSettings.REQUEST_GEO_LON, lastFix.getLongitude());
+                        geo.put(PrebidServerSettings.REQUEST_GEO_AGE, lastFix.getAge());
+                        geo.put(PrebidServerSettings.REQUEST_GEO_ACCURACY, lastFix.getAccuracy());
+                        device.put(PrebidServerSettings.REQUEST_GEO, geo);
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            LogUtil.d("PostDataBuilder getDeviceObject() " + e.getMessage());
+        }
+        return device;
+    }
+
+    private static JSONObject getAppObject(TargetingJson targeting) {
+        JSONObject app = new JSONObject();
+        try {
+            if (!TextUtils.isEmpty(TargetingParams.getBundleName())) {
+                app.put("bundle", TargetingParams.getBundleName());
+            }
+            if (!TextUtils.isEmpty(PrebidServerSettings.pkgVersion)) {
+                app.put("ver", PrebidServerSettings.pkgVersion);
+            }
+            if (!TextUtils.isEmpty(PrebidServerSettings.appName)) {
+                app.put("name", PrebidServerSettings.appName);
+            }
+            if (!TextUtils.isEmpty(TargetingParams.getDomain())) {
+                app.put("domain", TargetingParams.getDomain());
+            }
+            if (!TextUtils.isEmpty(TargetingParams.getStoreUrl())) {
+                app.put("storeurl", TargetingParams.getStoreUrl());
+            }
+            JSONObject publisher = new JSONObject();
+            publisher.put("id", PrebidMobile.getPrebidServerAccountId());
+            app.put("publisher", publisher);
+            JSONObject prebid = new JSONObject();
+            prebid.put("source", "prebid-mobile");
+            prebid.put("version", PrebidServerSettings.sdk_version);
+            JSONObject ext = new JSONObject();
+            ext.put("prebid", prebid);
+            ext.put("data", targeting.contextData);
+            app.put("ext", ext);
+            app.put("keywords", targeting.contextKeywords);
+        } catch (JSONException e) {
+            LogUtil.d("PostDataBuilder getAppObject() " + e.getMessage());
+        }
+        return app;
+
+    }
+
+    private static JSONObject getUserObject(TargetingJson targeting) {
+        JSONObject user = new JSONObject();
+        try {
+            if (TargetingParams.getYearOfBirth() > 0) {
+                user.put("yob", TargetingParams.getYearOfBirth());
+            }
+            TargetingParams.GENDER gender = TargetingParams.getGender();
+            String g = "O";
+            switch (gender) {
+                case FEMALE:
+                    g = "F";
+                    break;
+                case MALE:
+                    g = "M";
+                    break;
+                case UNKNOWN:
+                    g = "O";
+                    break;
+            }
+            user.put("gender", g);
+
+            user.put("keywords", targeting.userKeywords);
+
+            JSONObject ext = new JSONObject();
+            ext.put("consent", TargetingParams.getGDPRConsentString());
+            ext.put("data", targeting.userData);
+            user.put("ext", ext);
+
+        } catch (JSONException e) {
+            LogUtil.d("PostDataBuilder getUserObject() " + e.getMessage());
+        }
+        return user;
+    }
+
+    private static JSONObject getRegsObject() {
+        JSONObject regs = new JSONObject();
+        try {
+            JSONObject ext = new JSONObject();
+            Boolean isSubjectToGDPR = TargetingParams.isSubjectToGDPR();
+
+            if (isSubjectToGDPR != null && isSubjectToGDPR) {
+                ext.put("gdpr", 1);
+                regs.put("ext", ext);
+            }
+
+            if (TargetingParams.isSubjectToCOPPA()) {
+                regs.put("coppa", 1);
+            }
+
+        } catch (JSONException e) {
+            LogUtil.d("PostDataBuilder getRegsObject() " + e.getMessage());
+        }
+        return regs;
+    }
+
+    static class NoContextException extends Exception {
+    }
+
+    /**
+     * JSON of the global targeting collections, rebuilt only when the TargetingParams version changes.
+     * The objects are shared by all requests and must not be modified.
+     */
+    private static final class TargetingJson {
+
+        @Nullable
+        private static volatile TargetingJson cached;
+
+        private final long version;
+        private final JSONArray bidders;
+        private final JSONObject userData;
+        private final String userKeywords;
+        private final JSONObject contextData;
+        private final String contextKeywords;
+
+        private TargetingJson(TargetingParams.Snapshot snapshot) throws JSONException {
+            version = snapshot.getVersion();
+            bidders = new JSONArray(snapshot.getAccessControlList());
+            userData = Util.toJson(snapshot.getUserDataDictionary());
+            userKeywords = TextUtils.join(",", snapshot.getUserKeywordsSet());
+            contextData = Util.toJson(snapshot.getContextDataDictionary());
+            contextKeywords = TextUtils.join(",", snapshot.getContextKeywordsSet());
+        }
+
+        @NonNull
+        static TargetingJson get(@NonNull TargetingParams.Snapshot snapshot) throws JSONException {
+            TargetingJson targetingJson = cached;
+            if (targetingJson == null || targetingJson.version != snapshot.getVersion()) {
+                targetingJson = new TargetingJson(snapshot);
+                cached = targetingJson;
+            }
+            return targetingJson;
+        }
+    }
+}
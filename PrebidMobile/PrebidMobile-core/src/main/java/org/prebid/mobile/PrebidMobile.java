@@ -27,6 +27,7 @@ import java.util.Map;
 public class PrebidMobile {
 
     private static final int TIMEOUT_MILLIS = 2_000;
+    private static final int LOCATION_REFRESH_PERIOD_MILLIS = 60_000;
 
     private static int timeoutMillis = TIMEOUT_MILLIS; // by default use 2000 milliseconds as timeout
     static boolean timeoutMillisUpdated = false;
@@ -74,12 +75,60 @@ public class PrebidMobile {
 
     public static void setShareGeoLocation(boolean share) {
         PrebidMobile.shareGeoLocation = share;
+        if (!share) {
+            LocationSnapshot.reset(getApplicationContext());
+        }
     }
 
     public static boolean isShareGeoLocation() {
         return shareGeoLocation;
     }
 
+    private static int locationRefreshPeriodMillis = LOCATION_REFRESH_PERIOD_MILLIS;
+
+    /**
+     * Sets how often the SDK samples the device location when geo location sharing is enabled.
+     * Requests in between reuse the last sampled location.
+     */
+    public static void setLocationRefreshPeriodMillis(int locationRefreshPeriodMillis) {
+        PrebidMobile.locationRefreshPeriodMillis = locationRefreshPeriodMillis;
+    }
+
+    public static int getLocationRefreshPeriodMillis() {
+        return locationRefreshPeriodMillis;
+    }
+
+    private static boolean requestCompressionEnabled = false;
+
+    /**
+     * Enables gzip compression of the bid request body. Only enable this if the Prebid Server host
+     * accepts requests with {@code Content-Encoding: gzip}. Small requests are always sent uncompressed.
+     */
+    public static void setRequestCompressionEnabled(boolean enabled) {
+        PrebidMobile.requestCompressionEnabled = enabled;
+    }
+
+    public static boolean isRequestCompressionEnabled() {
+        return requestCompressionEnabled;
+    }
+
+    @Nullable
+    private static String auctionLogUrl = null;
+
+    /**
+     * Sets the endpoint that receives batched auction outcomes (time, config id, result code and latency),
+     * e.g. for fill and latency monitoring. Outcomes are only logged while an endpoint is set.
+     * Batches are uploaded as a JSON POST when the device is on an unmetered network or charging.
+     */
+    public static void setAuctionLogUrl(@Nullable String auctionLogUrl) {
+        PrebidMobile.auctionLogUrl = auctionLogUrl;
+    }
+
+    @Nullable
+    public static String getAuctionLogUrl() {
+        return auctionLogUrl;
+    }
+
     private static WeakReference<Context> applicationContextWeak;
 
     public static void setApplicationContext(Context context) {
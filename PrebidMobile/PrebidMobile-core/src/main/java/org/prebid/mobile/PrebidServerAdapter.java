@@ -17,11 +17,6 @@
 package org.prebid.mobile;
 
 import android.content.Context;
-import android.content.pm.PackageManager;
-import android.location.Location;
-import android.location.LocationManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.os.AsyncTask;
 import android.os.Build;
 import android.os.CountDownTimer;
@@ -30,33 +25,27 @@ import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.WorkerThread;
-import android.telephony.TelephonyManager;
 import android.text.TextUtils;
 import android.webkit.CookieManager;
 import android.webkit.CookieSyncManager;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -89,6 +78,8 @@ class PrebidServerAdapter implements DemandAdapter {
     static class ServerConnector extends AsyncTask<Object, Object, ServerConnector.AsyncTaskResult<JSONObject>> {
 
         private static final int TIMEOUT_COUNT_DOWN_INTERVAL = 500;
+        // below this size the gzip header and trailer eat most of the savings
+        static final int MIN_COMPRESSED_BYTES = 1024;
 
         private final WeakReference<PrebidServerAdapter> prebidServerAdapter;
         private final TimeoutCountDownTimer timeoutCountDownTimer;
@@ -117,6 +108,7 @@ class PrebidServerAdapter implements DemandAdapter {
         @Override
         @WorkerThread
         protected AsyncTaskResult<JSONObject> doInBackground(Object... objects) {
+            AuctionBuffers buffers = AuctionBuffers.get();
             try {
                 long demandFetchStartTime = System.currentTimeMillis();
 
@@ -139,12 +131,18 @@ class PrebidServerAdapter implements DemandAdapter {
                 conn.setConnectTimeout(PrebidMobile.getTimeoutMillis());
 
                 // Add post data
-                OutputStreamWriter wr = new OutputStreamWriter(conn.getOutputStream(), "UTF-8");
                 JSONObject postData = getPostData();
                 String postString = postData.toString();
                 LogUtil.d("Sending request for auction " + auctionId + " with post data: " + postString);
-                wr.write(postString);
-                wr.flush();
+                ByteBuffer postBytes = buffers.encode(postString);
+                if (PrebidMobile.isRequestCompressionEnabled() && postBytes.limit() >= MIN_COMPRESSED_BYTES) {
+                    postBytes = buffers.gzip(postBytes);
+                    conn.setRequestProperty("Content-Encoding", "gzip");
+                }
+                conn.setFixedLengthStreamingMode(postBytes.limit());
+                OutputStream os = conn.getOutputStream();
+                os.write(postBytes.array(), 0, postBytes.limit());
+                os.flush();
 
                 entry.setRequestBody(postString);
 
@@ -158,16 +156,9 @@ class PrebidServerAdapter implements DemandAdapter {
                 entry.setResponseCode(httpResult);
 
                 if (httpResult == HttpURLConnection.HTTP_OK) {
-                    StringBuilder builder = new StringBuilder();
                     InputStream is = conn.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is, "utf-8"));
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        builder.append(line);
-                    }
-                    reader.close();
+                    String result = buffers.readFully(is);
                     is.close();
-                    String result = builder.toString();
                     entry.setResponse(result);
                     JSONObject response = new JSONObject(result);
                     httpCookieSync(conn.getHeaderFields());
@@ -189,16 +180,9 @@ class PrebidServerAdapter implements DemandAdapter {
 
                     return new AsyncTaskResult<>(response);
                 } else if (httpResult == HttpURLConnection.HTTP_BAD_REQUEST) {
-                    StringBuilder builder = new StringBuilder();
                     InputStream is = conn.getErrorStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is, "utf-8"));
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        builder.append(line);
-                    }
-                    reader.close();
+                    String result = buffers.readFully(is);
                     is.close();
-                    String result = builder.toString();
                     entry.setResponse(result);
                     LogUtil.d("Getting response for auction " + getAuctionId() + ": " + result);
                     Pattern storedRequestNotFound = Pattern.compile("^Invalid request: Stored Request with ID=\".*\" not found.");
@@ -233,10 +217,12 @@ class PrebidServerAdapter implements DemandAdapter {
                 return new AsyncTaskResult<>(e);
             } catch (JSONException e) {
                 return new AsyncTaskResult<>(e);
-            } catch (NoContextException ex) {
+            } catch (PostDataBuilder.NoContextException ex) {
                 return new AsyncTaskResult<>(ResultCode.INVALID_CONTEXT);
             } catch (Exception e) {
                 return new AsyncTaskResult<>(e);
+            } finally {
+                buffers.trim();
             }
             return new AsyncTaskResult<>(new RuntimeException("ServerConnector exception"));
         }
@@ -265,55 +251,13 @@ class PrebidServerAdapter implements DemandAdapter {
 
             JSONObject jsonObject = asyncTaskResult.getResult();
 
-            HashMap<String, String> keywords = new HashMap<>();
-            boolean containTopBid = false;
+            HashMap<String, String> keywords = null;
             if (jsonObject != null) {
                 LogUtil.d("Getting response for auction " + getAuctionId() + ": " + jsonObject.toString());
-                try {
-                    JSONArray seatbid = jsonObject.getJSONArray("seatbid");
-                    if (seatbid != null) {
-                        for (int i = 0; i < seatbid.length(); i++) {
-                            JSONObject seat = seatbid.getJSONObject(i);
-                            JSONArray bids = seat.getJSONArray("bid");
-                            if (bids != null) {
-                                for (int j = 0; j < bids.length(); j++) {
-                                    JSONObject bid = bids.getJSONObject(j);
-                                    JSONObject hb_key_values = null;
-                                    try {
-                                        hb_key_values = bid.getJSONObject("ext").getJSONObject("prebid").getJSONObject("targeting");
-                                    } catch (JSONException e) {
-                                        // this can happen if lower bids exist on the same seat
-                                    }
-                                    if (hb_key_values != null) {
-                                        Iterator it = hb_key_values.keys();
-                                        boolean containBids = false;
-                                        while (it.hasNext()) {
-                                            String key = (String) it.next();
-                                            if (key.equals("hb_cache_id")) {
-                                                containTopBid = true;
-                                            }
-                                            if (key.startsWith("hb_cache_id")) {
-                                                containBids = true;
-                                            }
-                                        }
-                                        it = hb_key_values.keys();
-                                        if (containBids) {
-                                            while (it.hasNext()) {
-                                                String key = (String) it.next();
-                                                keywords.put(key, hb_key_values.getString(key));
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                } catch (JSONException e) {
-                    LogUtil.e("Error processing JSON response.");
-                }
+                keywords = Util.getTopBidKeywords(jsonObject);
             }
 
-            if (!keywords.isEmpty() && containTopBid) {
+            if (keywords != null) {
                 notifyContainsTopBid(true);
                 notifyDemandReady(keywords);
             } else {
@@ -455,410 +399,14 @@ class PrebidServerAdapter implements DemandAdapter {
         }
 
 
-        private JSONObject getPostData() throws NoContextException {
+        private JSONObject getPostData() throws PostDataBuilder.NoContextException {
             Context context = PrebidMobile.getApplicationContext();
             if (context != null) {
                 AdvertisingIDUtil.retrieveAndSetAAID(context);
                 PrebidServerSettings.update(context);
+                LocationSnapshot.refreshIfNeeded(context);
             }
-            JSONObject postData = new JSONObject();
-            try {
-                String id = UUID.randomUUID().toString();
-                postData.put("id", id);
-                JSONObject source = new JSONObject();
-                source.put("tid", id);
-                postData.put("source", source);
-                // add ad units
-                JSONArray imp = getImp();
-                if (imp != null && imp.length() > 0) {
-                    postData.put("imp", imp);
-                }
-                // add device
-                JSONObject device = getDeviceObject();
-                if (device != null && device.length() > 0) {
-                    postData.put(PrebidServerSettings.REQUEST_DEVICE, device);
-                }
-                // add app
-                JSONObject app = getAppObject();
-                if (device != null && device.length() > 0) {
-                    postData.put(PrebidServerSettings.REQUEST_APP, app);
-                }
-                // add user
-                JSONObject user = getUserObject();
-                if (user != null && user.length() > 0) {
-                    postData.put(PrebidServerSettings.REQUEST_USER, user);
-                }
-                // add regs
-                JSONObject regs = getRegsObject();
-                if (regs != null && regs.length() > 0) {
-                    postData.put("regs", regs);
-                }
-                // add targeting keywords request
-                JSONObject ext = getRequestExtData();
-                if (ext != null && ext.length() > 0) {
-                    postData.put("ext", ext);
-                }
-
-                JSONObject objectWithoutEmptyValues = Util.getObjectWithoutEmptyValues(postData);
-
-                if (objectWithoutEmptyValues != null) {
-                    postData = objectWithoutEmptyValues;
-
-                    JSONObject prebid = postData.getJSONObject("ext").getJSONObject("prebid");
-
-                    JSONObject cache = new JSONObject();
-                    JSONObject bids = new JSONObject();
-                    cache.put("bids", bids);
-                    prebid.put("cache", cache);
-
-                    JSONObject targetingEmpty = new JSONObject();
-                    prebid.put("targeting", targetingEmpty);
-                }
-
-            } catch (JSONException e) {
-            }
-
-            return postData;
-        }
-
-        private JSONObject getRequestExtData() {
-            JSONObject ext = new JSONObject();
-            JSONObject prebid = new JSONObject();
-            try {
-                JSONObject storedRequest = new JSONObject();
-                storedRequest.put("id", PrebidMobile.getPrebidServerAccountId());
-                prebid.put("storedrequest", storedRequest);
-
-                JSONObject data = new JSONObject().put("bidders", new JSONArray(TargetingParams.getAccessControlList()));
-                prebid.put("data", data);
-                ext.put("prebid", prebid);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-            return ext;
-        }
-
-        private JSONArray getImp() throws NoContextException {
-            JSONArray impConfigs = new JSONArray();
-            // takes information from the ad units
-            // look up the configuration of the ad unit
-            try {
-                JSONObject imp = new JSONObject();
-                JSONObject ext = new JSONObject();
-                imp.put("id", "PrebidMobile");
-                imp.put("secure", 1);
-                if (requestParams.getAdType().equals(AdType.INTERSTITIAL)) {
-                    imp.put("instl", 1);
-                    JSONObject banner = new JSONObject();
-                    JSONArray format = new JSONArray();
-                    Context context = PrebidMobile.getApplicationContext();
-                    if (context != null) {
-                        format.put(new JSONObject().put("w", context.getResources().getConfiguration().screenWidthDp).put("h", context.getResources().getConfiguration().screenHeightDp));
-                    } else {
-                        // Unlikely this is being called, if so, please check if you've set up the SDK properly
-                        throw new NoContextException();
-                    }
-                    banner.put("format", format);
-                    imp.put("banner", banner);
-                } else {
-                    JSONObject banner = new JSONObject();
-                    JSONArray format = new JSONArray();
-                    for (AdSize size : requestParams.getAdSizes()) {
-                        format.put(new JSONObject().put("w", size.getWidth()).put("h", size.getHeight()));
-                    }
-                    banner.put("format", format);
-                    imp.put("banner", banner);
-                }
-
-                JSONObject prebid = new JSONObject();
-                ext.put("prebid", prebid);
-                JSONObject context = new JSONObject();
-                context.put("data", Util.toJson(requestParams.getContextDataDictionary()));
-                context.put("keywords", TextUtils.join(",", requestParams.getContextKeywordsSet()));
-                ext.put("context", context);
-                JSONObject storedrequest = new JSONObject();
-                prebid.put("storedrequest", storedrequest);
-                storedrequest.put("id", requestParams.getConfigId());
-
-                if (!TextUtils.isEmpty(PrebidMobile.getStoredAuctionResponse())) {
-                    JSONObject storedAuctionResponse = new JSONObject();
-                    prebid.put("storedauctionresponse", storedAuctionResponse);
-                    storedAuctionResponse.put("id", PrebidMobile.getStoredAuctionResponse());
-                }
-
-                if (!PrebidMobile.getStoredBidResponses().isEmpty()) {
-                    JSONArray bidResponseArray = new JSONArray();
-                    prebid.put("storedbidresponse", bidResponseArray);
-
-                    for (String bidder : PrebidMobile.getStoredBidResponses().keySet()) {
-                        String bidId = PrebidMobile.getStoredBidResponses().get(bidder);
-                        if (!TextUtils.isEmpty(bidder) && !TextUtils.isEmpty(bidId)) {
-                            JSONObject storedBid = new JSONObject();
-                            storedBid.put("bidder", bidder);
-                            storedBid.put("id", bidId);
-                            bidResponseArray.put(storedBid);
-                        }
-                    }
-                }
-
-                imp.put("ext", ext);
-
-                impConfigs.put(imp);
-            } catch (JSONException e) {
-            }
-
-            return impConfigs;
-        }
-
-        private JSONObject getDeviceObject() {
-            JSONObject device = new JSONObject();
-            try {
-                // Device make
-                if (!TextUtils.isEmpty(PrebidServerSettings.deviceMake))
-                    device.put(PrebidServerSettings.REQUEST_DEVICE_MAKE, PrebidServerSettings.deviceMake);
-                // Device model
-                if (!TextUtils.isEmpty(PrebidServerSettings.deviceModel))
-                    device.put(PrebidServerSettings.REQUEST_DEVICE_MODEL, PrebidServerSettings.deviceModel);
-                // Default User Agent
-                if (!TextUtils.isEmpty(PrebidServerSettings.userAgent)) {
-                    device.put(PrebidServerSettings.REQUEST_USERAGENT, PrebidServerSettings.userAgent);
-                }
-                // limited ad tracking
-                device.put(PrebidServerSettings.REQUEST_LMT, AdvertisingIDUtil.isLimitAdTracking() ? 1 : 0);
-                if (!AdvertisingIDUtil.isLimitAdTracking() && !TextUtils.isEmpty(AdvertisingIDUtil.getAAID())) {
-                    // put ifa
-                    device.put(PrebidServerSettings.REQUEST_IFA, AdvertisingIDUtil.getAAID());
-                }
-
-                // os
-                device.put(PrebidServerSettings.REQUEST_OS, PrebidServerSettings.os);
-                device.put(PrebidServerSettings.REQUEST_OS_VERSION, String.valueOf(Build.VERSION.SDK_INT));
-                // language
-                if (!TextUtils.isEmpty(Locale.getDefault().getLanguage())) {
-                    device.put(PrebidServerSettings.REQUEST_LANGUAGE, Locale.getDefault().getLanguage());
-                }
-
-                if (requestParams.getAdType().equals(AdType.INTERSTITIAL)) {
-
-                    Integer minSizePercWidth = null;
-                    Integer minSizePercHeight = null;
-
-                    AdSize minSizePerc = requestParams.getMinSizePerc();
-                    if (minSizePerc != null) {
-
-                        minSizePercWidth = minSizePerc.getWidth();
-                        minSizePercHeight = minSizePerc.getHeight();
-                    }
-
-                    JSONObject deviceExt = new JSONObject();
-                    JSONObject deviceExtPrebid = new JSONObject();
-                    JSONObject deviceExtPrebidInstl = new JSONObject();
-
-                    device.put("ext", deviceExt);
-                    deviceExt.put("prebid", deviceExtPrebid);
-                    deviceExtPrebid.put("interstitial", deviceExtPrebidInstl);
-                    deviceExtPrebidInstl.put("minwidthperc", minSizePercWidth);
-                    deviceExtPrebidInstl.put("minheightperc", minSizePercHeight);
-
-                    device.put("ext", deviceExt);
-                }
-
-                // POST data that requires context
-                Context context = PrebidMobile.getApplicationContext();
-                if (context != null) {
-                    device.put(PrebidServerSettings.REQUEST_DEVICE_WIDTH, context.getResources().getConfiguration().screenWidthDp);
-                    device.put(PrebidServerSettings.REQUEST_DEVICE_HEIGHT, context.getResources().getConfiguration().screenHeightDp);
-
-                    device.put(PrebidServerSettings.REQUEST_DEVICE_PIXEL_RATIO, context.getResources().getDisplayMetrics().density);
-
-                    TelephonyManager telephonyManager = (TelephonyManager) context
-                            .getSystemService(Context.TELEPHONY_SERVICE);
-                    // Get mobile country codes
-                    if (PrebidServerSettings.getMCC() < 0 || PrebidServerSettings.getMNC() < 0) {
-                        String networkOperator = telephonyManager.getNetworkOperator();
-                        if (!TextUtils.isEmpty(networkOperator)) {
-                            try {
-                                PrebidServerSettings.setMCC(Integer.parseInt(networkOperator.substring(0, 3)));
-                                PrebidServerSettings.setMNC(Integer.parseInt(networkOperator.substring(3)));
-                            } catch (Exception e) {
-                                // Catches NumberFormatException and StringIndexOutOfBoundsException
-                                PrebidServerSettings.setMCC(-1);
-                                PrebidServerSettings.setMNC(-1);
-                            }
-                        }
-                    }
-                    if (PrebidServerSettings.getMCC() > 0 && PrebidServerSettings.getMNC() > 0) {
-                        device.put(PrebidServerSettings.REQUEST_MCC_MNC, String.format(Locale.ENGLISH, "%d-%d", PrebidServerSettings.getMCC(), PrebidServerSettings.getMNC()));
-                    }
-
-                    // Get carrier
-                    if (PrebidServerSettings.getCarrierName() == null) {
-                        try {
-                            PrebidServerSettings.setCarrierName(telephonyManager.getNetworkOperatorName());
-                        } catch (SecurityException ex) {
-                            // Some phones require READ_PHONE_STATE permission just ignore name
-                            PrebidServerSettings.setCarrierName("");
-                        }
-                    }
-                    if (!TextUtils.isEmpty(PrebidServerSettings.getCarrierName()))
-                        device.put(PrebidServerSettings.REQUEST_CARRIER, PrebidServerSettings.getCarrierName());
-
-                    // check connection type
-                    int connection_type = 0;
-                    ConnectivityManager cm = (ConnectivityManager) context
-                            .getSystemService(Context.CONNECTIVITY_SERVICE);
-                    NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-                    if (activeNetwork != null && activeNetwork.isConnected()) {
-                        NetworkInfo wifi = cm.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
-                        if (wifi != null) {
-                            connection_type = wifi.isConnected() ? 1 : 2;
-                        }
-                    }
-                    device.put(PrebidServerSettings.REQUEST_CONNECTION_TYPE, connection_type);
-
-                    // get location
-                    // Do we have access to location?
-                    if (PrebidMobile.isShareGeoLocation()) {
-                        // get available location through Android LocationManager
-                        if (context.checkCallingOrSelfPermission("android.permission.ACCESS_FINE_LOCATION") == PackageManager.PERMISSION_GRANTED
-                                || context.checkCallingOrSelfPermission("android.permission.ACCESS_COARSE_LOCATION") == PackageManager.PERMISSION_GRANTED) {
-                            Location lastLocation = null;
-                            LocationManager lm = (LocationManager) context
-                                    .getSystemService(Context.LOCATION_SERVICE);
-
-                            for (String provider_name : lm.getProviders(true)) {
-                                Location l = lm.getLastKnownLocation(provider_name);
-                                if (l == null) {
-                                    continue;
-                                }
-
-                                if (lastLocation == null) {
-                                    lastLocation = l;
-                                } else {
-                                    if (l.getTime() > 0 && lastLocation.getTime() > 0) {
-                                        if (l.getTime() > lastLocation.getTime()) {
-                                            lastLocation = l;
-                                        }
-                                    }
-                                }
-                            }
-                            JSONObject geo = new JSONObject();
-                            if (lastLocation != null) {
-                                Double lat = lastLocation.getLatitude();
-                                Double lon = lastLocation.getLongitude();
-                                geo.put(PrebidServerSettings.REQEUST_GEO_LAT, lat);
-                                geo.put(PrebidServerSettings.REQUEST_GEO_LON, lon);
-                                Integer locDataPrecision = Math.round(lastLocation.getAccuracy());
-                                //Don't report location data from the future
-                                Integer locDataAge = (int) Math.max(0, (System.currentTimeMillis() - lastLocation.getTime()));
-                                geo.put(PrebidServerSettings.REQUEST_GEO_AGE, locDataAge);
-                                geo.put(PrebidServerSettings.REQUEST_GEO_ACCURACY, locDataPrecision);
-                                device.put(PrebidServerSettings.REQUEST_GEO, geo);
-                            }
-                        } else {
-                            LogUtil.w("Location permissions ACCESS_COARSE_LOCATION and/or ACCESS_FINE_LOCATION aren\\'t set in the host app. This may affect demand.");
-                        }
-                    }
-                }
-            } catch (JSONException e) {
-                LogUtil.d("PrebidServerAdapter getDeviceObject() " + e.getMessage());
-            }
-            return device;
-        }
-
-        private JSONObject getAppObject() {
-            JSONObject app = new JSONObject();
-            try {
-                if (!TextUtils.isEmpty(TargetingParams.getBundleName())) {
-                    app.put("bundle", TargetingParams.getBundleName());
-                }
-                if (!TextUtils.isEmpty(PrebidServerSettings.pkgVersion)) {
-                    app.put("ver", PrebidServerSettings.pkgVersion);
-                }
-                if (!TextUtils.isEmpty(PrebidServerSettings.appName)) {
-                    app.put("name", PrebidServerSettings.appName);
-                }
-                if (!TextUtils.isEmpty(TargetingParams.getDomain())) {
-                    app.put("domain", TargetingParams.getDomain());
-                }
-                if (!TextUtils.isEmpty(TargetingParams.getStoreUrl())) {
-                    app.put("storeurl", TargetingParams.getStoreUrl());
-                }
-                JSONObject publisher = new JSONObject();
-                publisher.put("id", PrebidMobile.getPrebidServerAccountId());
-                app.put("publisher", publisher);
-                JSONObject prebid = new JSONObject();
-                prebid.put("source", "prebid-mobile");
-                prebid.put("version", PrebidServerSettings.sdk_version);
-                JSONObject ext = new JSONObject();
-                ext.put("prebid", prebid);
-                ext.put("data", Util.toJson(TargetingParams.getContextDataDictionary()));
-                app.put("ext", ext);
-                app.put("keywords", TextUtils.join(",", TargetingParams.getContextKeywordsSet()));
-            } catch (JSONException e) {
-                LogUtil.d("PrebidServerAdapter getAppObject() " + e.getMessage());
-            }
-            return app;
-
-        }
-
-        private JSONObject getUserObject() {
-            JSONObject user = new JSONObject();
-            try {
-                if (TargetingParams.getYearOfBirth() > 0) {
-                    user.put("yob", TargetingParams.getYearOfBirth());
-                }
-                TargetingParams.GENDER gender = TargetingParams.getGender();
-                String g = "O";
-                switch (gender) {
-                    case FEMALE:
-                        g = "F";
-                        break;
-                    case MALE:
-                        g = "M";
-                        break;
-                    case UNKNOWN:
-                        g = "O";
-                        break;
-                }
-                user.put("gender", g);
-
-                String globalUserKeywordString = TextUtils.join(",", TargetingParams.getUserKeywordsSet());
-                user.put("keywords", globalUserKeywordString);
-
-                JSONObject ext = new JSONObject();
-                ext.put("consent", TargetingParams.getGDPRConsentString());
-                ext.put("data", Util.toJson(TargetingParams.getUserDataDictionary()));
-                user.put("ext", ext);
-
-            } catch (JSONException e) {
-                LogUtil.d("PrebidServerAdapter getUserObject() " + e.getMessage());
-            }
-            return user;
-        }
-
-        private JSONObject getRegsObject() {
-            JSONObject regs = new JSONObject();
-            try {
-                JSONObject ext = new JSONObject();
-                Boolean isSubjectToGDPR = TargetingParams.isSubjectToGDPR();
-
-                if (isSubjectToGDPR != null && isSubjectToGDPR) {
-                    ext.put("gdpr", 1);
-                    regs.put("ext", ext);
-                }
-
-                if (TargetingParams.isSubjectToCOPPA()) {
-                    regs.put("coppa", 1);
-                }
-
-            } catch (JSONException e) {
-                LogUtil.d("PrebidServerAdapter getRegsObject() " + e.getMessage());
-            }
-            return regs;
-        }
-
-        private static class NoContextException extends Exception {
+            return PostDataBuilder.build(requestParams);
         }
 
         private static class AsyncTaskResult<T> {
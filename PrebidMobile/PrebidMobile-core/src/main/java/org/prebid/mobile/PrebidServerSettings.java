@@ -69,9 +69,6 @@ class PrebidServerSettings {
     static String sdk_version = "1.2";
     static String pkgVersion = "";
     static String appName = "";
-    private static int mnc = -1;
-    private static int mcc = -1;
-    private static String carrierName = null;
 
 
     static synchronized void update(final Context context) {
@@ -110,31 +107,4 @@ class PrebidServerSettings {
             }
         }
     }
-
-
-    static synchronized int getMCC() {
-        return mcc;
-    }
-
-    static synchronized void setMCC(int mcc) {
-        PrebidServerSettings.mcc = mcc;
-    }
-
-    static synchronized int getMNC() {
-        return mnc;
-    }
-
-    static synchronized void setMNC(int mnc) {
-        PrebidServerSettings.mnc = mnc;
-    }
-
-    static synchronized String getCarrierName() {
-        return carrierName;
-    }
-
-    static synchronized void setCarrierName(String carrierName) {
-        PrebidServerSettings.carrierName = carrierName;
-    }
-
 }
-
@@ -18,37 +18,71 @@ package org.prebid.mobile;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.text.TextUtils;
 
-import java.util.HashMap;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
-class RequestParams {
+/**
+ * Immutable snapshot of an ad unit's request parameters.
+ * <p>
+ * The collections passed in are copied, so the ad unit can keep changing its targeting while a request is built
+ * on a worker thread. Sizes are packed as width/height pairs and the hash is computed once.
+ * The JSON of the ad unit's banner formats and context targeting is built on first use and reused by all
+ * auctions of the snapshot, e.g. the refreshes of an ad unit whose targeting doesn't change.
+ */
+final class RequestParams {
 
-    private String configId = "";
-    private AdType adType = AdType.BANNER;
-    private HashSet<AdSize> sizes = new HashSet<>();
+    private final String configId;
+    private final AdType adType;
 
+    // width0, height0, width1, height1, ... or null for Interstitial
     @Nullable
-    private Map<String, Set<String>> contextDataDictionary;
+    private final int[] sizes;
+
+    @NonNull
+    private final Map<String, Set<String>> contextDataDictionary;
+    @NonNull
+    private final Set<String> contextKeywordsSet;
+
     @Nullable
-    private Set<String> contextKeywordsSet;
+    private final AdSize minSizePerc; //non null only for InterstitialAdUnit(String, int, int)
 
+    private final int hash;
+
+    @Nullable
+    private volatile JSONArray bannerFormatJson;
     @Nullable
-    private AdSize minSizePerc; //non null only for InterstitialAdUnit(String, int, int)
+    private volatile JSONObject contextJson;
 
     RequestParams(String configId, AdType adType, HashSet<AdSize> sizes) {
-        this.configId = configId;
-        this.adType = adType;
-        this.sizes = sizes; // for Interstitial this will be null, will use screen width & height in the request
+        this(configId, adType, sizes, null, null, null);
     }
 
-    RequestParams(String configId, AdType adType, HashSet<AdSize> sizes, @Nullable Map<String, Set<String>> contextDataDictionary, @Nullable Set<String> contextKeywordsSet, @Nullable AdSize minSizePerc) {
-        this(configId, adType, sizes);
-        this.contextDataDictionary = contextDataDictionary;
-        this.contextKeywordsSet = contextKeywordsSet;
+    RequestParams(String configId, AdType adType, Set<AdSize> sizes, @Nullable Map<String, Set<String>> contextDataDictionary, @Nullable Set<String> contextKeywordsSet, @Nullable AdSize minSizePerc) {
+        this.configId = configId;
+        this.adType = adType;
+        this.sizes = pack(sizes); // for Interstitial this will be null, will use screen width & height in the request
+        this.contextDataDictionary = copy(contextDataDictionary);
+        this.contextKeywordsSet = copy(contextKeywordsSet);
         this.minSizePerc = minSizePerc;
+
+        int result = configId != null ? configId.hashCode() : 0;
+        result = 31 * result + (adType != null ? adType.hashCode() : 0);
+        result = 31 * result + Arrays.hashCode(this.sizes);
+        result = 31 * result + this.contextDataDictionary.hashCode();
+        result = 31 * result + this.contextKeywordsSet.hashCode();
+        result = 31 * result + (minSizePerc != null ? minSizePerc.hashCode() : 0);
+        this.hash = result;
     }
 
     String getConfigId() {
@@ -59,22 +93,121 @@ class RequestParams {
         return this.adType;
     }
 
-    HashSet<AdSize> getAdSizes() {
-        return this.sizes;
+    int getSizeCount() {
+        return sizes != null ? sizes.length / 2 : 0;
+    }
+
+    int getWidth(int index) {
+        return sizes[2 * index];
+    }
+
+    int getHeight(int index) {
+        return sizes[2 * index + 1];
     }
 
     @NonNull
     public Map<String, Set<String>> getContextDataDictionary() {
-        return contextDataDictionary != null ? contextDataDictionary : new HashMap<String, Set<String>>();
+        return contextDataDictionary;
     }
 
     @NonNull
     public Set<String> getContextKeywordsSet() {
-        return contextKeywordsSet != null ? contextKeywordsSet : new HashSet<String>();
+        return contextKeywordsSet;
     }
 
     @Nullable
     AdSize getMinSizePerc() {
         return minSizePerc;
     }
+
+    /**
+     * @return the banner.format array of the sizes, must not be modified
+     */
+    @NonNull
+    JSONArray getBannerFormatJson() throws JSONException {
+        JSONArray format = bannerFormatJson;
+        if (format == null) {
+            format = new JSONArray();
+            for (int i = 0; i < getSizeCount(); i++) {
+                format.put(new JSONObject().put("w", getWidth(i)).put("h", getHeight(i)));
+            }
+            bannerFormatJson = format;
+        }
+        return format;
+    }
+
+    /**
+     * @return the imp.ext.context object, must not be modified
+     */
+    @NonNull
+    JSONObject getContextJson() throws JSONException {
+        JSONObject context = contextJson;
+        if (context == null) {
+            context = new JSONObject();
+            context.put("data", Util.toJson(contextDataDictionary));
+            context.put("keywords", TextUtils.join(",", contextKeywordsSet));
+            contextJson = context;
+        }
+        return context;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        RequestParams that = (RequestParams) o;
+
+        if (hash != that.hash) return false;
+        if (configId != null ? !configId.equals(that.configId) : that.configId != null) return false;
+        if (adType != that.adType) return false;
+        if (!Arrays.equals(sizes, that.sizes)) return false;
+        if (!contextDataDictionary.equals(that.contextDataDictionary)) return false;
+        if (!contextKeywordsSet.equals(that.contextKeywordsSet)) return false;
+        return minSizePerc != null ? minSizePerc.equals(that.minSizePerc) : that.minSizePerc == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Nullable
+    private static int[] pack(@Nullable Set<AdSize> sizes) {
+        if (sizes == null) {
+            return null;
+        }
+
+        int[] packed = new int[sizes.size() * 2];
+        int i = 0;
+        for (AdSize size : sizes) {
+            packed[i++] = size.getWidth();
+            packed[i++] = size.getHeight();
+        }
+        return packed;
+    }
+
+    @NonNull
+    private static Map<String, Set<String>> copy(@Nullable Map<String, Set<String>> map) {
+        if (map == null || map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // keys are interned as the same few keys are used by every ad unit and refresh
+        Map<String, Set<String>> copy = new LinkedHashMap<>(map.size() * 2);
+        for (Map.Entry<String, Set<String>> entry : map.entrySet()) {
+            String key = entry.getKey() != null ? entry.getKey().intern() : null;
+            copy.put(key, copy(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @NonNull
+    private static Set<String> copy(@Nullable Set<String> set) {
+        if (set == null || set.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(new LinkedHashSet<>(set));
+    }
 }
@@ -20,11 +20,13 @@ package org.prebid.mobile;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
+import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,11 +51,9 @@ public class TargetingParams {
     public static final String BIDDER_NAME_APP_NEXUS = "appnexus";
     public static final String BIDDER_NAME_RUBICON_PROJECT = "rubicon";
 
-    private static final Set<String> accessControlList = new HashSet<>();
-    private static final Map<String, Set<String>> userDataMap = new HashMap<>();
-    private static final Set<String> userKeywordsSet = new HashSet<>();
-    private static final Map<String, Set<String>> contextDataDictionary = new HashMap<>();
-    private static final Set<String> contextKeywordsSet = new HashSet<>();
+    // replaced as a whole on every change, readers get a consistent view without locking
+    @NonNull
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
 
     //endregion
 
@@ -249,26 +249,26 @@ public class TargetingParams {
     /**
      * This method obtains a bidder name allowed to receive global targeting
      */
-    public static void addBidderToAccessControlList(String bidderName) {
-        accessControlList.add(bidderName);
+    public static synchronized void addBidderToAccessControlList(String bidderName) {
+        snapshot = snapshot.withAccessControlList(add(snapshot.accessControlList, bidderName));
     }
 
     /**
      * This method allows to remove specific bidder name
      */
-    public static void removeBidderFromAccessControlList(String bidderName) {
-        accessControlList.remove(bidderName);
+    public static synchronized void removeBidderFromAccessControlList(String bidderName) {
+        snapshot = snapshot.withAccessControlList(remove(snapshot.accessControlList, bidderName));
     }
 
     /**
      * This method allows to remove all the bidder name set
      */
-    public static void clearAccessControlList() {
-        accessControlList.clear();
+    public static synchronized void clearAccessControlList() {
+        snapshot = snapshot.withAccessControlList(Collections.<String>emptySet());
     }
 
     static Set<String> getAccessControlList() {
-        return accessControlList;
+        return snapshot.accessControlList;
     }
 
     // MARK: - global user data aka visitor data (user.ext.data)
@@ -277,36 +277,34 @@ public class TargetingParams {
      * This method obtains the user data keyword & value for global user targeting
      * if the key already exists the value will be appended to the list. No duplicates will be added
      */
-    public static void addUserData(String key, String value) {
-
-        Util.addValue(userDataMap, key, value);
-
+    public static synchronized void addUserData(String key, String value) {
+        snapshot = snapshot.withUserData(addValue(snapshot.userDataDictionary, key, value));
     }
 
     /**
      * This method obtains the user data keyword & values set for global user targeting
      * the values if the key already exist will be replaced with the new set of values
      */
-    public static void updateUserData(String key, Set<String> value) {
-        userDataMap.put(key, value);
+    public static synchronized void updateUserData(String key, Set<String> value) {
+        snapshot = snapshot.withUserData(put(snapshot.userDataDictionary, key, value));
     }
 
     /**
      * This method allows to remove specific user data keyword & value set from global user targeting
      */
-    public static void removeUserData(String key) {
-        userDataMap.remove(key);
+    public static synchronized void removeUserData(String key) {
+        snapshot = snapshot.withUserData(remove(snapshot.userDataDictionary, key));
     }
 
     /**
      * This method allows to remove all user data set from global user targeting
      */
-    public static void clearUserData() {
-        userDataMap.clear();
+    public static synchronized void clearUserData() {
+        snapshot = snapshot.withUserData(Collections.<String, Set<String>>emptyMap());
     }
 
     static Map<String, Set<String>> getUserDataDictionary() {
-        return userDataMap;
+        return snapshot.userDataDictionary;
     }
 
     // MARK: - global user keywords (user.keywords)
@@ -315,34 +313,34 @@ public class TargetingParams {
      * This method obtains the user keyword for global user targeting
      * Inserts the given element in the set if it is not already present.
      */
-    public static void addUserKeyword(String keyword) {
-        userKeywordsSet.add(keyword);
+    public static synchronized void addUserKeyword(String keyword) {
+        snapshot = snapshot.withUserKeywords(add(snapshot.userKeywordsSet, keyword));
     }
 
     /**
      * This method obtains the user keyword set for global user targeting
      * Adds the elements of the given set to the set.
      */
-    public static void addUserKeywords(Set<String> keywords) {
-        userKeywordsSet.addAll(keywords);
+    public static synchronized void addUserKeywords(Set<String> keywords) {
+        snapshot = snapshot.withUserKeywords(addAll(snapshot.userKeywordsSet, keywords));
     }
 
     /**
      * This method allows to remove specific user keyword from global user targeting
      */
-    public static void removeUserKeyword(String keyword) {
-        userKeywordsSet.remove(keyword);
+    public static synchronized void removeUserKeyword(String keyword) {
+        snapshot = snapshot.withUserKeywords(remove(snapshot.userKeywordsSet, keyword));
     }
 
     /**
      * This method allows to remove all keywords from the set of global user targeting
      */
-    public static void clearUserKeywords() {
-        userKeywordsSet.clear();
+    public static synchronized void clearUserKeywords() {
+        snapshot = snapshot.withUserKeywords(Collections.<String>emptySet());
     }
 
     static Set<String> getUserKeywordsSet() {
-        return userKeywordsSet;
+        return snapshot.userKeywordsSet;
     }
 
     // MARK: - global context data aka inventory data (app.ext.data)
@@ -351,34 +349,34 @@ public class TargetingParams {
      * This method obtains the context data keyword & value context for global context targeting
      * if the key already exists the value will be appended to the list. No duplicates will be added
      */
-    public static void addContextData(String key, String value) {
-        Util.addValue(contextDataDictionary, key, value);
+    public static synchronized void addContextData(String key, String value) {
+        snapshot = snapshot.withContextData(addValue(snapshot.contextDataDictionary, key, value));
     }
 
     /**
      * This method obtains the context data keyword & values set for global context targeting.
      * the values if the key already exist will be replaced with the new set of values
      */
-    public static void updateContextData(String key, Set<String> value) {
-        contextDataDictionary.put(key, value);
+    public static synchronized void updateContextData(String key, Set<String> value) {
+        snapshot = snapshot.withContextData(put(snapshot.contextDataDictionary, key, value));
     }
 
     /**
      * This method allows to remove specific context data keyword & values set from global context targeting
      */
-    public static void removeContextData(String key) {
-        contextDataDictionary.remove(key);
+    public static synchronized void removeContextData(String key) {
+        snapshot = snapshot.withContextData(remove(snapshot.contextDataDictionary, key));
     }
 
     /**
      * This method allows to remove all context data set from global context targeting
      */
-    public static void clearContextData() {
-        contextDataDictionary.clear();
+    public static synchronized void clearContextData() {
+        snapshot = snapshot.withContextData(Collections.<String, Set<String>>emptyMap());
     }
 
     static Map<String, Set<String>> getContextDataDictionary() {
-        return contextDataDictionary;
+        return snapshot.contextDataDictionary;
     }
 
     // MARK: - adunit context keywords (imp[].ext.context.keywords)
@@ -387,35 +385,204 @@ public class TargetingParams {
      * This method obtains the context keyword for adunit context targeting
      * Inserts the given element in the set if it is not already present.
      */
-    public static void addContextKeyword(String keyword) {
-        contextKeywordsSet.add(keyword);
+    public static synchronized void addContextKeyword(String keyword) {
+        snapshot = snapshot.withContextKeywords(add(snapshot.contextKeywordsSet, keyword));
     }
 
     /**
      * This method obtains the context keyword set for adunit context targeting
      * Adds the elements of the given set to the set.
      */
-    public static void addContextKeywords(Set<String> keywords) {
-        contextKeywordsSet.addAll(keywords);
+    public static synchronized void addContextKeywords(Set<String> keywords) {
+        snapshot = snapshot.withContextKeywords(addAll(snapshot.contextKeywordsSet, keywords));
     }
 
     /**
      * This method allows to remove specific context keyword from adunit context targeting
      */
-    public static void removeContextKeyword(String keyword) {
-        contextKeywordsSet.remove(keyword);
+    public static synchronized void removeContextKeyword(String keyword) {
+        snapshot = snapshot.withContextKeywords(remove(snapshot.contextKeywordsSet, keyword));
     }
 
     /**
      * This method allows to remove all keywords from the set of adunit context targeting
      */
-    public static void clearContextKeywords() {
-        contextKeywordsSet.clear();
+    public static synchronized void clearContextKeywords() {
+        snapshot = snapshot.withContextKeywords(Collections.<String>emptySet());
     }
 
     static Set<String> getContextKeywordsSet()  {
-        return contextKeywordsSet;
+        return snapshot.contextKeywordsSet;
     }
 
 //endregion
+
+    //region Snapshot
+
+    /**
+     * @return the current targeting, its collections don't change
+     */
+    @NonNull
+    static Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @NonNull
+    private static Set<String> add(@NonNull Set<String> set, String value) {
+        if (set.contains(value)) {
+            return set;
+        }
+        Set<String> copy = new LinkedHashSet<>(set);
+        copy.add(value);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    @NonNull
+    private static Set<String> addAll(@NonNull Set<String> set, Set<String> values) {
+        if (set.containsAll(values)) {
+            return set;
+        }
+        Set<String> copy = new LinkedHashSet<>(set);
+        copy.addAll(values);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    @NonNull
+    private static Set<String> remove(@NonNull Set<String> set, String value) {
+        if (!set.contains(value)) {
+            return set;
+        }
+        Set<String> copy = new LinkedHashSet<>(set);
+        copy.remove(value);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    @NonNull
+    private static Map<String, Set<String>> addValue(@NonNull Map<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        return put(map, key, values != null ? add(values, value) : Collections.singleton(value));
+    }
+
+    @NonNull
+    private static Map<String, Set<String>> put(@NonNull Map<String, Set<String>> map, String key, Set<String> values) {
+        if (map.containsKey(key)) {
+            Set<String> current = map.get(key);
+            if (current == null ? values == null : current.equals(values)) {
+                return map;
+            }
+        }
+        Map<String, Set<String>> copy = new LinkedHashMap<>(map);
+        // the caller keeps its set, it can't change the snapshot
+        copy.put(key, values != null ? Collections.unmodifiableSet(new LinkedHashSet<>(values)) : null);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @NonNull
+    private static Map<String, Set<String>> remove(@NonNull Map<String, Set<String>> map, String key) {
+        if (!map.containsKey(key)) {
+            return map;
+        }
+        Map<String, Set<String>> copy = new LinkedHashMap<>(map);
+        copy.remove(key);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Immutable, versioned state of the collection based targeting.
+     * <p>
+     * Every change creates a new snapshot with a higher version, so the JSON built from a snapshot
+     * can be kept until the version changes.
+     */
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Collections.<String>emptySet(), Collections.<String, Set<String>>emptyMap(),
+                Collections.<String>emptySet(), Collections.<String, Set<String>>emptyMap(), Collections.<String>emptySet());
+
+        private final long version;
+        @NonNull
+        private final Set<String> accessControlList;
+        @NonNull
+        private final Map<String, Set<String>> userDataDictionary;
+        @NonNull
+        private final Set<String> userKeywordsSet;
+        @NonNull
+        private final Map<String, Set<String>> contextDataDictionary;
+        @NonNull
+        private final Set<String> contextKeywordsSet;
+
+        private Snapshot(long version, @NonNull Set<String> accessControlList, @NonNull Map<String, Set<String>> userDataDictionary, @NonNull Set<String> userKeywordsSet,
+                         @NonNull Map<String, Set<String>> contextDataDictionary, @NonNull Set<String> contextKeywordsSet) {
+            this.version = version;
+            this.accessControlList = accessControlList;
+            this.userDataDictionary = userDataDictionary;
+            this.userKeywordsSet = userKeywordsSet;
+            this.contextDataDictionary = contextDataDictionary;
+            this.contextKeywordsSet = contextKeywordsSet;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        @NonNull
+        Set<String> getAccessControlList() {
+            return accessControlList;
+        }
+
+        @NonNull
+        Map<String, Set<String>> getUserDataDictionary() {
+            return userDataDictionary;
+        }
+
+        @NonNull
+        Set<String> getUserKeywordsSet() {
+            return userKeywordsSet;
+        }
+
+        @NonNull
+        Map<String, Set<String>> getContextDataDictionary() {
+            return contextDataDictionary;
+        }
+
+        @NonNull
+        Set<String> getContextKeywordsSet() {
+            return contextKeywordsSet;
+        }
+
+        private Snapshot withAccessControlList(@NonNull Set<String> accessControlList) {
+            if (accessControlList == this.accessControlList) {
+                return this;
+            }
+            return new Snapshot(version + 1, accessControlList, userDataDictionary, userKeywordsSet, contextDataDictionary, contextKeywordsSet);
+        }
+
+        private Snapshot withUserData(@NonNull Map<String, Set<String>> userDataDictionary) {
+            if (userDataDictionary == this.userDataDictionary) {
+                return this;
+            }
+            return new Snapshot(version + 1, accessControlList, userDataDictionary, userKeywordsSet, contextDataDictionary, contextKeywordsSet);
+        }
+
+        private Snapshot withUserKeywords(@NonNull Set<String> userKeywordsSet) {
+            if (userKeywordsSet == this.userKeywordsSet) {
+                return this;
+            }
+            return new Snapshot(version + 1, accessControlList, userDataDictionary, userKeywordsSet, contextDataDictionary, contextKeywordsSet);
+        }
+
+        private Snapshot withContextData(@NonNull Map<String, Set<String>> contextDataDictionary) {
+            if (contextDataDictionary == this.contextDataDictionary) {
+                return this;
+            }
+            return new Snapshot(version + 1, accessControlList, userDataDictionary, userKeywordsSet, contextDataDictionary, contextKeywordsSet);
+        }
+
+        private Snapshot withContextKeywords(@NonNull Set<String> contextKeywordsSet) {
+            if (contextKeywordsSet == this.contextKeywordsSet) {
+                return this;
+            }
+            return new Snapshot(version + 1, accessControlList, userDataDictionary, userKeywordsSet, contextDataDictionary, contextKeywordsSet);
+        }
+    }
+    //endregion
 }
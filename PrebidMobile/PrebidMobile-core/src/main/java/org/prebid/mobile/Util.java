@@ -190,6 +190,65 @@ public class Util {
         return result;
     }
 
+    /**
+     * Collects the targeting keywords of all bids in a Prebid Server response that have a cache id.
+     *
+     * @param response Prebid Server response
+     * @return the keywords or null if the response doesn't contain the top bid (hb_cache_id)
+     */
+    @Nullable
+    static HashMap<String, String> getTopBidKeywords(@NonNull JSONObject response) {
+        HashMap<String, String> keywords = new HashMap<>();
+        boolean containTopBid = false;
+        try {
+            JSONArray seatbid = response.getJSONArray("seatbid");
+            if (seatbid != null) {
+                for (int i = 0; i < seatbid.length(); i++) {
+                    JSONObject seat = seatbid.getJSONObject(i);
+                    JSONArray bids = seat.getJSONArray("bid");
+                    if (bids != null) {
+                        for (int j = 0; j < bids.length(); j++) {
+                            JSONObject bid = bids.getJSONObject(j);
+                            JSONObject hb_key_values = null;
+                            try {
+                                hb_key_values = bid.getJSONObject("ext").getJSONObject("prebid").getJSONObject("targeting");
+                            } catch (JSONException e) {
+                                // this can happen if lower bids exist on the same seat
+                            }
+                            if (hb_key_values != null) {
+                                Iterator it = hb_key_values.keys();
+                                boolean containBids = false;
+                                while (it.hasNext()) {
+                                    String key = (String) it.next();
+                                    if (key.equals("hb_cache_id")) {
+                                        containTopBid = true;
+                                    }
+                                    if (key.startsWith("hb_cache_id")) {
+                                        containBids = true;
+                                    }
+                                }
+                                it = hb_key_values.keys();
+                                if (containBids) {
+                                    while (it.hasNext()) {
+                                        String key = (String) it.next();
+                                        keywords.put(key, hb_key_values.getString(key));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            LogUtil.e("Error processing JSON response.");
+        }
+
+        if (!keywords.isEmpty() && containTopBid) {
+            return keywords;
+        }
+        return null;
+    }
+
     static Class getClassFromString(String className) {
         try {
             return Class.forName(className);
@@ -0,0 +1,170 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Reports whether ad views are at least a given percentage on screen.
+ * <p>
+ * There is one tracker per window, shared by all ad views of that window. It listens to scroll and layout
+ * changes of the window and re-checks its views at most every {@link #CHECK_INTERVAL_MILLIS},
+ * so a fling through a feed costs a handful of checks instead of one per frame and ad view.
+ */
+@MainThread
+final class VisibilityTracker implements ViewTreeObserver.OnScrollChangedListener, ViewTreeObserver.OnGlobalLayoutListener, Runnable {
+
+    static final int CHECK_INTERVAL_MILLIS = 100;
+
+    interface Listener {
+        void onVisibilityChanged(boolean visible);
+    }
+
+    //root views are weak keys. Ad views are untracked when they are detached and a tracker is dropped
+    //with its last ad view, so neither map keeps a detached view tree alive
+    private static final Map<View, VisibilityTracker> trackers = new WeakHashMap<>();
+
+    private final Map<View, Entry> entries = new WeakHashMap<>();
+    private final ViewTreeObserver viewTreeObserver;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Rect visibleRect = new Rect();
+    private boolean checkScheduled;
+
+    private VisibilityTracker(@NonNull ViewTreeObserver viewTreeObserver) {
+        this.viewTreeObserver = viewTreeObserver;
+        viewTreeObserver.addOnScrollChangedListener(this);
+        viewTreeObserver.addOnGlobalLayoutListener(this);
+    }
+
+    /**
+     * Starts tracking an attached ad view. The listener is called right away with the current visibility
+     * and afterwards on every change.
+     */
+    static void track(@NonNull View adView, int minVisiblePercent, @NonNull Listener listener) {
+        untrack(adView);
+
+        View root = adView.getRootView();
+        VisibilityTracker tracker = trackers.get(root);
+        if (tracker == null || !tracker.viewTreeObserver.isAlive()) {
+            tracker = new VisibilityTracker(root.getViewTreeObserver());
+            trackers.put(root, tracker);
+        }
+
+        Entry entry = new Entry(minVisiblePercent, listener);
+        tracker.entries.put(adView, entry);
+        entry.visible = tracker.isVisible(adView, minVisiblePercent);
+        listener.onVisibilityChanged(entry.visible);
+    }
+
+    static void untrack(@NonNull View adView) {
+        Iterator<VisibilityTracker> iterator = trackers.values().iterator();
+        while (iterator.hasNext()) {
+            VisibilityTracker tracker = iterator.next();
+            if (tracker.entries.remove(adView) != null && tracker.entries.isEmpty()) {
+                tracker.release();
+                iterator.remove();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static int getTrackerCount() {
+        return trackers.size();
+    }
+
+    static int getVisiblePercent(@NonNull Rect visibleRect, int width, int height) {
+        long area = (long) width * height;
+        if (area <= 0) {
+            return 0;
+        }
+        long visibleArea = (long) visibleRect.width() * visibleRect.height();
+        return (int) (visibleArea * 100 / area);
+    }
+
+    private boolean isVisible(View adView, int minVisiblePercent) {
+        if (!adView.isShown() || !adView.getGlobalVisibleRect(visibleRect)) {
+            return false;
+        }
+        return getVisiblePercent(visibleRect, adView.getWidth(), adView.getHeight()) >= minVisiblePercent;
+    }
+
+    private void release() {
+        handler.removeCallbacks(this);
+        checkScheduled = false;
+        if (viewTreeObserver.isAlive()) {
+            viewTreeObserver.removeOnScrollChangedListener(this);
+            viewTreeObserver.removeOnGlobalLayoutListener(this);
+        }
+    }
+
+    private void scheduleCheck() {
+        if (!checkScheduled) {
+            checkScheduled = true;
+            handler.postDelayed(this, CHECK_INTERVAL_MILLIS);
+        }
+    }
+
+    @Override
+    public void onScrollChanged() {
+        scheduleCheck();
+    }
+
+    @Override
+    public void onGlobalLayout() {
+        scheduleCheck();
+    }
+
+    @Override
+    public void run() {
+        checkScheduled = false;
+
+        // listeners may untrack their views
+        List<Map.Entry<View, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        for (Map.Entry<View, Entry> mapEntry : snapshot) {
+            Entry entry = mapEntry.getValue();
+            boolean visible = isVisible(mapEntry.getKey(), entry.minVisiblePercent);
+            if (visible != entry.visible) {
+                entry.visible = visible;
+                entry.listener.onVisibilityChanged(visible);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final int minVisiblePercent;
+        private final Listener listener;
+        private boolean visible;
+
+        Entry(int minVisiblePercent, Listener listener) {
+            this.minVisiblePercent = minVisiblePercent;
+            this.listener = listener;
+        }
+    }
+}
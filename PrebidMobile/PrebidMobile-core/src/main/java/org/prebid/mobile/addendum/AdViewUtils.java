@@ -18,12 +18,12 @@ package org.prebid.mobile.addendum;
 
 import android.annotation.TargetApi;
 import android.os.Build;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.Size;
 import android.text.TextUtils;
 import android.view.View;
-import android.view.ViewGroup;
 import android.webkit.ValueCallback;
 import android.webkit.WebView;
 
@@ -38,9 +38,25 @@ import java.util.regex.Pattern;
 
 public final class AdViewUtils {
 
+    /**
+     * Looks for the size inside the WebView and returns only the value, e.g. "728x90",
+     * an empty string if there is no size object and null if there is no HTML.
+     */
+    private static final String SIZE_PROBE_SCRIPT = "(function() {" +
+            "var body = document.body;" +
+            "if (!body || !body.innerHTML) { return null; }" +
+            "var match = body.innerHTML.match(/hb_size\\W+([0-9]+x[0-9]+)/);" +
+            "return match ? match[1] : '';" +
+            "})()";
+    private static final String PROBE_NO_HTML_RESULT = "null";
     private static final String INNER_HTML_SCRIPT = "document.body.innerHTML";
     private static final String SIZE_VALUE_REGEX_EXPRESSION = "[0-9]+x[0-9]+";
     private static final String SIZE_OBJECT_REGEX_EXPRESSION = "hb_size\\W+" + SIZE_VALUE_REGEX_EXPRESSION; //"hb_size\\W+[0-9]+x[0-9]+"
+    private static final String SIZE_OBJECT_KEY = "hb_size";
+    private static final char SIZE_VALUE_SEPARATOR = 'x';
+
+    private static final Pattern SIZE_VALUE_PATTERN = Pattern.compile(SIZE_VALUE_REGEX_EXPRESSION);
+    private static final Pattern SIZE_OBJECT_PATTERN = Pattern.compile(SIZE_OBJECT_REGEX_EXPRESSION);
 
     private AdViewUtils() { }
 
@@ -52,8 +68,7 @@ public final class AdViewUtils {
             return;
         }
 
-        List<WebView> webViewList = new ArrayList<>(2);
-        recursivelyFindWebViewList(adView, webViewList);
+        List<WebView> webViewList = WebViewFinder.findWebViews(adView);
         if (webViewList.size() == 0) {
             warnAndTriggerFailure(PbFindSizeErrorFactory.NO_WEB_VIEW, handler);
             return;
@@ -90,24 +105,6 @@ public final class AdViewUtils {
         handler.failure(error);
     }
 
-    @Nullable
-    static void recursivelyFindWebViewList(@Nullable View view, List<WebView> webViewList) {
-        if (view instanceof ViewGroup) {
-            //ViewGroup
-            ViewGroup viewGroup = (ViewGroup) view;
-
-            if (viewGroup instanceof WebView) {
-                //WebView
-                final WebView webView = (WebView) viewGroup;
-                webViewList.add(webView);
-            } else {
-                for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                    recursivelyFindWebViewList(viewGroup.getChildAt(i), webViewList);
-                }
-            }
-        }
-    }
-
     static void findSizeInWebViewListAsync(@Size(min = 1) final List<WebView> webViewList, final PbFindSizeListener handler) {
 
         int currentAndroidApi = Build.VERSION.SDK_INT;
@@ -116,9 +113,7 @@ public final class AdViewUtils {
         if (currentAndroidApi >= necessaryAndroidApi) {
             LogUtil.d("webViewList size:" + webViewList.size());
 
-            int lastIndex = webViewList.size() - 1;
-            iterateWebViewListAsync(webViewList, lastIndex, handler);
-
+            probeWebViewListAsync(webViewList, handler);
 
         } else {
             warnAndTriggerFailure(PbFindSizeErrorFactory.getUnsupportedAndroidIpiError(currentAndroidApi, necessaryAndroidApi), handler);
@@ -127,91 +122,174 @@ public final class AdViewUtils {
     }
 
     /**
+     * Runs {@link #SIZE_PROBE_SCRIPT} in all WebViews at the same time, so only the size value crosses the JS bridge
+     * and the time to size is the time of the fastest WebView.
+     * A WebView without a probe result, e.g. because the script failed, falls back to scanning its whole HTML.
+     * <p>
      * {@link PbFindSizeListener} will be called only once.
      * {@link PbFindSizeListener#success(int, int)} when size is found
      * and {@link PbFindSizeListener#failure(PbFindSizeError)} when size is not found inside passed WebView list
      */
     @TargetApi(Build.VERSION_CODES.KITKAT)
-    static void iterateWebViewListAsync(@Size(min = 1) final List<WebView> webViewList, final int index, final PbFindSizeListener handler) {
+    static void probeWebViewListAsync(@Size(min = 1) final List<WebView> webViewList, final PbFindSizeListener handler) {
 
-        final WebView webView = webViewList.get(index);
+        final SizeProbeResults probeResults = new SizeProbeResults(webViewList.size(), handler);
 
-        webView.evaluateJavascript(INNER_HTML_SCRIPT, new ValueCallback<String>() {
+        for (int i = webViewList.size() - 1; i >= 0; i--) {
+            final WebView webView = webViewList.get(i);
 
-            private Set<Pair<WebView, PbFindSizeError>> errorSet = new LinkedHashSet<>();
+            webView.evaluateJavascript(SIZE_PROBE_SCRIPT, new ValueCallback<String>() {
 
-            private void processNextWebViewOrFail(PbFindSizeError error) {
-
-                errorSet.add(new Pair<>(webView, error));
+                @Override
+                public void onReceiveValue(@Nullable String value) {
+                    Pair<Pair<Integer, Integer>, PbFindSizeError> result = findSizeInProbeResult(value);
+                    if (result.second == PbFindSizeErrorFactory.NO_HTML) {
+                        findSizeInHtmlAsync(webView, probeResults);
+                    } else {
+                        probeResults.onResult(webView, result);
+                    }
+                }
+            });
+        }
+    }
 
-                int nextIndex = index - 1;
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static void findSizeInHtmlAsync(final WebView webView, final SizeProbeResults probeResults) {
 
-                if (nextIndex >= 0) {
-                    iterateWebViewListAsync(webViewList, nextIndex, handler);
-                } else {
-                    warnAndTriggerFailure(errorSet, handler);
-                }
-            }
+        webView.evaluateJavascript(INNER_HTML_SCRIPT, new ValueCallback<String>() {
 
             @Override
             public void onReceiveValue(@Nullable String html) {
-
-                Pair<Pair<Integer, Integer>, PbFindSizeError> pair = findSizeInHtml(html);
-
-                @Nullable
-                Pair<Integer, Integer> size = pair.first;
-                @Nullable
-                PbFindSizeError error = pair.second;
-
-                if (size != null) {
-                    triggerSuccess(webView, size, handler);
-                } else {
-                    processNextWebViewOrFail(error);
-                }
+                probeResults.onResult(webView, findSizeInHtml(PROBE_NO_HTML_RESULT.equals(html) ? null : html));
             }
         });
     }
 
+    /**
+     * @param value JSON encoded result of {@link #SIZE_PROBE_SCRIPT}
+     */
     @NonNull
-    static Pair<Pair<Integer, Integer>, PbFindSizeError> findSizeInHtml(@Nullable String html) {
+    static Pair<Pair<Integer, Integer>, PbFindSizeError> findSizeInProbeResult(@Nullable String value) {
 
-        if (TextUtils.isEmpty(html)) {
+        if (TextUtils.isEmpty(value) || PROBE_NO_HTML_RESULT.equals(value)) {
             return new Pair<>(null, PbFindSizeErrorFactory.NO_HTML);
         }
 
-        String hbSizeObject = findHbSizeObject(html);
-        if (hbSizeObject == null) {
-            return new Pair<>(null, PbFindSizeErrorFactory.NO_SIZE_OBJECT);
+        String sizeValue = value;
+        if (sizeValue.length() >= 2 && sizeValue.charAt(0) == '"' && sizeValue.charAt(sizeValue.length() - 1) == '"') {
+            sizeValue = sizeValue.substring(1, sizeValue.length() - 1);
         }
 
-        String hbSizeValue = findHbSizeValue(hbSizeObject);
-        if (hbSizeValue == null) {
-            return new Pair<>(null, PbFindSizeErrorFactory.NO_SIZE_VALUE);
+        if (sizeValue.isEmpty()) {
+            return new Pair<>(null, PbFindSizeErrorFactory.NO_SIZE_OBJECT);
         }
 
-        Pair<Integer, Integer> size = stringToSize(hbSizeValue);
+        Pair<Integer, Integer> size = stringToSize(sizeValue);
         if (size == null) {
             return new Pair<>(null, PbFindSizeErrorFactory.SIZE_UNPARSED);
         } else {
             return new Pair<>(size, null);
         }
+    }
+
+    @NonNull
+    static Pair<Pair<Integer, Integer>, PbFindSizeError> findSizeInHtml(@Nullable String html) {
+
+        if (TextUtils.isEmpty(html)) {
+            return new Pair<>(null, PbFindSizeErrorFactory.NO_HTML);
+        }
+
+        return scanHbSize(html);
+    }
+
+    /**
+     * Single pass equivalent of matching {@link #SIZE_OBJECT_REGEX_EXPRESSION} and parsing the value.
+     * Stops at the first "hb_size" occurrence that is followed by a size value,
+     * width and height are parsed in place without creating intermediate Strings.
+     */
+    @NonNull
+    static Pair<Pair<Integer, Integer>, PbFindSizeError> scanHbSize(@NonNull String html) {
+
+        final int length = html.length();
+        int keyIndex = html.indexOf(SIZE_OBJECT_KEY);
+
+        while (keyIndex != -1) {
+            int index = keyIndex + SIZE_OBJECT_KEY.length();
+
+            // \W+
+            int separatorStart = index;
+            while (index < length && !isWordChar(html.charAt(index))) {
+                index++;
+            }
+
+            if (index > separatorStart) {
+                // [0-9]+
+                int widthStart = index;
+                long width = 0;
+                while (index < length && isDigit(html.charAt(index))) {
+                    width = accumulateDigit(width, html.charAt(index));
+                    index++;
+                }
+
+                // x[0-9]+
+                if (index > widthStart && index < length && html.charAt(index) == SIZE_VALUE_SEPARATOR) {
+                    index++;
+
+                    int heightStart = index;
+                    long height = 0;
+                    while (index < length && isDigit(html.charAt(index))) {
+                        height = accumulateDigit(height, html.charAt(index));
+                        index++;
+                    }
+
+                    if (index > heightStart) {
+                        if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+                            LogUtil.w(html.substring(widthStart, index) + " can not be converted to Size");
+                            return new Pair<>(null, PbFindSizeErrorFactory.SIZE_UNPARSED);
+                        }
+
+                        return new Pair<>(new Pair<>((int) width, (int) height), null);
+                    }
+                }
+            }
+
+            keyIndex = html.indexOf(SIZE_OBJECT_KEY, keyIndex + 1);
+        }
+
+        return new Pair<>(null, PbFindSizeErrorFactory.NO_SIZE_OBJECT);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 
+    //the same set of characters as \w in java.util.regex
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    //saturates above Integer.MAX_VALUE so that long digit sequences can't overflow
+    private static long accumulateDigit(long value, char digit) {
+        if (value > Integer.MAX_VALUE) {
+            return value;
+        }
+        return value * 10 + (digit - '0');
     }
 
     @Nullable
     static String findHbSizeObject(String text) {
-        return matchAndCheck(SIZE_OBJECT_REGEX_EXPRESSION, text);
+        return findFirst(SIZE_OBJECT_PATTERN, text);
     }
 
     @Nullable
     static String findHbSizeValue(String text) {
-        return matchAndCheck(SIZE_VALUE_REGEX_EXPRESSION, text);
+        return findFirst(SIZE_VALUE_PATTERN, text);
     }
 
     @NonNull
     static String[] matches(String regex, String text) {
 
-        Pattern pattern = Pattern.compile(regex);
+        Pattern pattern = getPattern(regex);
         Matcher matcher = pattern.matcher(text);
 
         List<String> allMatches = new ArrayList<>();
@@ -224,15 +302,28 @@ public final class AdViewUtils {
 
     @Nullable
     static String matchAndCheck(String regex, String text) {
+        return findFirst(getPattern(regex), text);
+    }
+
+    @Nullable
+    private static String findFirst(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        if (matcher.find()) {
+            return matcher.group();
+        }
 
-        String[] matched = matches(regex, text);
+        return null;
+    }
 
-        if (matched.length == 0) {
-            return null;
+    @NonNull
+    private static Pattern getPattern(String regex) {
+        if (SIZE_OBJECT_REGEX_EXPRESSION.equals(regex)) {
+            return SIZE_OBJECT_PATTERN;
+        } else if (SIZE_VALUE_REGEX_EXPRESSION.equals(regex)) {
+            return SIZE_VALUE_PATTERN;
         }
 
-        String firstResult = matched[0];
-        return firstResult;
+        return Pattern.compile(regex);
     }
 
     @Nullable
@@ -266,6 +357,45 @@ public final class AdViewUtils {
         return new Pair<>(width, height);
     }
 
+    /**
+     * Collects the probe results of all WebViews, callbacks of evaluateJavascript come on the main thread
+     */
+    private static final class SizeProbeResults {
+
+        private final PbFindSizeListener handler;
+        private final Set<Pair<WebView, PbFindSizeError>> errorSet = new LinkedHashSet<>();
+        private int pendingCount;
+        private boolean completed;
+
+        SizeProbeResults(int webViewCount, PbFindSizeListener handler) {
+            this.pendingCount = webViewCount;
+            this.handler = handler;
+        }
+
+        @MainThread
+        void onResult(WebView webView, Pair<Pair<Integer, Integer>, PbFindSizeError> result) {
+            if (completed) {
+                return;
+            }
+
+            pendingCount--;
+
+            @Nullable
+            Pair<Integer, Integer> size = result.first;
+            if (size != null) {
+                completed = true;
+                triggerSuccess(webView, size, handler);
+                return;
+            }
+
+            errorSet.add(new Pair<>(webView, result.second));
+            if (pendingCount <= 0) {
+                completed = true;
+                warnAndTriggerFailure(errorSet, handler);
+            }
+        }
+    }
+
     public interface PbFindSizeListener {
         void success(int width, int height);
 
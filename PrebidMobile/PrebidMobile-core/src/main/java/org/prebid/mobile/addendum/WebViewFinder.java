@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile.addendum;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Finds the creative WebViews of an ad view.
+ * <p>
+ * The view tree is searched breadth first up to {@link #MAX_SEARCH_DEPTH} levels for all WebViews,
+ * a shallow helper WebView, e.g. an AdChoices view, must not hide the creative below it.
+ * The result is cached per ad view together with the child lists that were searched and is dropped
+ * as soon as one of these child lists changes, e.g. because a creative was added, replaced or moved.
+ * No hierarchy change listener is set, a ViewGroup has a single slot that the ad SDK may use itself.
+ */
+final class WebViewFinder {
+
+    static final int MAX_SEARCH_DEPTH = 16;
+
+    //ad views are weak keys, the values only reference them weakly
+    private static final Map<View, SearchResult> cache = new WeakHashMap<>();
+
+    private WebViewFinder() { }
+
+    @MainThread
+    @NonNull
+    static List<WebView> findWebViews(@NonNull View adView) {
+
+        SearchResult cachedResult = cache.get(adView);
+        if (cachedResult != null) {
+            List<WebView> webViewList = cachedResult.get();
+            if (webViewList != null) {
+                return webViewList;
+            }
+
+            cache.remove(adView);
+        }
+
+        SearchResult searchResult = new SearchResult();
+        List<WebView> webViewList = breadthFirstSearch(adView, MAX_SEARCH_DEPTH, searchResult);
+        if (!webViewList.isEmpty()) {
+            cache.put(adView, searchResult);
+        }
+
+        return webViewList;
+    }
+
+    /**
+     * @param searchResult records the found WebViews and every searched child list
+     * @return all WebViews up to {@code maxDepth}, shallowest first, without looking inside of WebViews
+     */
+    @NonNull
+    private static List<WebView> breadthFirstSearch(@NonNull View root, int maxDepth, @NonNull SearchResult searchResult) {
+        List<WebView> webViewList = new ArrayList<>(2);
+
+        ArrayDeque<View> queue = new ArrayDeque<>();
+        queue.add(root);
+
+        for (int depth = 0; depth <= maxDepth && !queue.isEmpty(); depth++) {
+
+            int levelSize = queue.size();
+            for (int i = 0; i < levelSize; i++) {
+                View view = queue.poll();
+
+                if (view instanceof WebView) {
+                    webViewList.add((WebView) view);
+                } else if (view instanceof ViewGroup && depth < maxDepth) {
+                    ViewGroup viewGroup = (ViewGroup) view;
+                    searchResult.addGroup(viewGroup);
+                    for (int j = 0; j < viewGroup.getChildCount(); j++) {
+                        queue.add(viewGroup.getChildAt(j));
+                    }
+                }
+            }
+        }
+
+        searchResult.setWebViews(webViewList);
+        return webViewList;
+    }
+
+    /**
+     * WebViews found in an ad view and the child lists that were searched for them, all referenced weakly.
+     */
+    private static final class SearchResult {
+
+        private final List<WeakReference<ViewGroup>> groups = new ArrayList<>();
+        private final List<WeakReference<View>> children = new ArrayList<>();
+        private final List<Integer> childCounts = new ArrayList<>();
+        private final List<WeakReference<WebView>> webViews = new ArrayList<>();
+
+        void addGroup(ViewGroup viewGroup) {
+            groups.add(new WeakReference<>(viewGroup));
+            childCounts.add(viewGroup.getChildCount());
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                children.add(new WeakReference<>(viewGroup.getChildAt(i)));
+            }
+        }
+
+        void setWebViews(List<WebView> webViewList) {
+            for (WebView webView : webViewList) {
+                webViews.add(new WeakReference<>(webView));
+            }
+        }
+
+        /**
+         * @return the WebViews or null if one of the searched child lists changed since the search
+         */
+        @Nullable
+        List<WebView> get() {
+            int childIndex = 0;
+            for (int i = 0; i < groups.size(); i++) {
+                ViewGroup viewGroup = groups.get(i).get();
+                int childCount = childCounts.get(i);
+                if (viewGroup == null || viewGroup.getChildCount() != childCount) {
+                    return null;
+                }
+
+                for (int j = 0; j < childCount; j++, childIndex++) {
+                    if (viewGroup.getChildAt(j) != children.get(childIndex).get()) {
+                        return null;
+                    }
+                }
+            }
+
+            List<WebView> webViewList = new ArrayList<>(webViews.size());
+            for (WeakReference<WebView> reference : webViews) {
+                WebView webView = reference.get();
+                if (webView == null) {
+                    return null;
+                }
+                webViewList.add(webView);
+            }
+
+            return webViewList;
+        }
+    }
+}
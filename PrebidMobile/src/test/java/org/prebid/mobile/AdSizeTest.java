@@ -23,6 +23,7 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = BaseSetup.testSDK)
@@ -41,4 +42,10 @@ public class AdSizeTest {
         assertEquals(size1, size2);
         assertEquals(size1.hashCode(), size2.hashCode());
     }
+
+    @Test
+    public void testDifferentSizesHaveDifferentHashCodes() throws Exception {
+        assertFalse(new AdSize(300, 250).hashCode() == new AdSize(320, 50).hashCode());
+        assertFalse(new AdSize(300, 250).hashCode() == new AdSize(250, 300).hashCode());
+    }
 }
@@ -41,12 +41,13 @@ public class AdUnitTest {
         assertEquals(1, keywords.size());
         assertTrue(keywords.contains("value"));
         adUnit.addUserKeyword("key", "value2");
+        keywords = TargetingParams.getUserKeywordsSet();
         assertEquals(2, keywords.size());
         assertTrue(keywords.contains("value") && keywords.contains("value2"));
         adUnit.removeUserKeyword("value");
-        assertEquals(1, keywords.size());
+        assertEquals(1, TargetingParams.getUserKeywordsSet().size());
         adUnit.clearUserKeywords();
-        assertEquals(0, keywords.size());
+        assertEquals(0, TargetingParams.getUserKeywordsSet().size());
     }
 
     @Test
@@ -60,6 +61,7 @@ public class AdUnitTest {
         assertEquals(2, keywords.size());
         assertTrue(keywords.contains("value1") && keywords.contains("value2"));
         adUnit.addUserKeywords("key1", values);
+        keywords = TargetingParams.getUserKeywordsSet();
         assertEquals(2, keywords.size());
         assertTrue(keywords.contains("value1") && keywords.contains("value2"));
     }
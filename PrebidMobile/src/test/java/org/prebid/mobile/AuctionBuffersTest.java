@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class AuctionBuffersTest extends BaseSetup {
+
+    @Test
+    public void testBuffersAreReusedOnTheSameThread() {
+        assertSame(AuctionBuffers.get(), AuctionBuffers.get());
+    }
+
+    @Test
+    public void testEncodeMatchesStringBytes() throws Exception {
+        AuctionBuffers buffers = AuctionBuffers.get();
+
+        String small = "{\"id\":\"\u00e9\u4e2d\ud83d\ude00\"}";
+        assertEncoded(small, buffers.encode(small));
+
+        String large = repeat("{\"keyword\":\"caf\u00e9\"}", AuctionBuffers.INITIAL_BYTES);
+        assertEncoded(large, buffers.encode(large));
+
+        // the buffer is reused for a smaller request
+        assertEncoded(small, buffers.encode(small));
+    }
+
+    @Test
+    public void testReadFully() throws Exception {
+        AuctionBuffers buffers = AuctionBuffers.get();
+
+        String response = repeat("{\"hb_pb\":\"0.50\"}\n", AuctionBuffers.INITIAL_BYTES);
+        assertEquals(response, buffers.readFully(new ByteArrayInputStream(response.getBytes("UTF-8"))));
+        assertEquals("", buffers.readFully(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    public void testGzipRoundTrip() throws Exception {
+        AuctionBuffers buffers = AuctionBuffers.get();
+
+        String request = repeat("{\"keywords\":\"sports,news\"}", 1_000);
+        ByteBuffer compressed = buffers.gzip(buffers.encode(request));
+        assertTrue(compressed.limit() < request.length() / 10);
+
+        GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed.array(), 0, compressed.limit()));
+        assertEquals(request, buffers.readFully(is));
+    }
+
+    @Test
+    public void testTrimReleasesLargeBuffers() throws Exception {
+        AuctionBuffers buffers = AuctionBuffers.get();
+
+        String large = repeat("x", AuctionBuffers.MAX_RETAINED_BYTES + 1);
+        buffers.encode(large);
+        buffers.readFully(new ByteArrayInputStream(large.getBytes("UTF-8")));
+        buffers.trim();
+
+        assertEquals(3 * AuctionBuffers.INITIAL_BYTES, buffers.getRetainedBytes());
+    }
+
+    private static void assertEncoded(String expected, ByteBuffer encoded) throws Exception {
+        byte[] bytes = Arrays.copyOfRange(encoded.array(), 0, encoded.limit());
+        assertEquals(expected, new String(bytes, "UTF-8"));
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class AuctionLogTest extends BaseSetup {
+
+    @Override
+    public void tearDown() {
+        super.tearDown();
+
+        AuctionLog.clear(AuctionLog.getLogDir(activity));
+    }
+
+    @Test
+    public void testRecordsAreReadBackInOrder() throws Exception {
+        File dir = AuctionLog.getLogDir(activity);
+        AuctionLog.append(dir, new AuctionLog.Record(1_000, "config-1", ResultCode.TIMEOUT, 2_000));
+        AuctionLog.append(dir, new AuctionLog.Record(2_000, "config-2", ResultCode.NETWORK_ERROR, 0));
+
+        List<AuctionLog.Record> records = AuctionLog.read(dir);
+
+        assertEquals(2, records.size());
+        assertEquals(1_000, records.get(0).getTimestamp());
+        assertEquals("config-1", records.get(0).getConfigId());
+        assertEquals(ResultCode.TIMEOUT, records.get(0).getResultCode());
+        assertEquals(2_000, records.get(0).getLatencyMillis());
+        assertEquals("config-2", records.get(1).getConfigId());
+        assertEquals(ResultCode.NETWORK_ERROR, records.get(1).getResultCode());
+    }
+
+    @Test
+    public void testUnknownResultCodeIsSkipped() throws Exception {
+        File dir = AuctionLog.getLogDir(activity);
+        AuctionLog.append(dir, new AuctionLog.Record(1_000, "config-1", ResultCode.TIMEOUT, 2_000));
+        // a record of a result code that this SDK version doesn't have
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(dir.listFiles()[0], true));
+        out.writeLong(2_000);
+        out.writeUTF("config-2");
+        out.writeUTF("REMOVED_RESULT_CODE");
+        out.writeInt(0);
+        out.close();
+        AuctionLog.append(dir, new AuctionLog.Record(3_000, "config-3", ResultCode.SUCCESS, 100));
+
+        List<AuctionLog.Record> records = AuctionLog.read(dir);
+
+        assertEquals(2, records.size());
+        assertEquals(ResultCode.TIMEOUT, records.get(0).getResultCode());
+        assertEquals("config-3", records.get(1).getConfigId());
+        assertEquals(ResultCode.SUCCESS, records.get(1).getResultCode());
+    }
+
+    @Test
+    public void testLogSizeIsBounded() throws Exception {
+        File dir = AuctionLog.getLogDir(activity);
+        for (int i = 0; i < 10_000; i++) {
+            AuctionLog.append(dir, new AuctionLog.Record(i, "config-" + i, ResultCode.SUCCESS, i));
+        }
+
+        long size = 0;
+        for (File file : dir.listFiles()) {
+            size += file.length();
+        }
+        assertTrue(size <= AuctionLog.MAX_LOG_BYTES + 64);
+
+        // the newest records survive the rotation
+        List<AuctionLog.Record> records = AuctionLog.read(dir);
+        assertEquals(9_999, records.get(records.size() - 1).getTimestamp());
+    }
+
+    @Test
+    public void testJsonBatch() throws Exception {
+        JSONObject batch = AuctionLog.toJson(Arrays.asList(new AuctionLog.Record(1_000, "config-1", ResultCode.TIMEOUT, 2_000)));
+
+        JSONArray records = batch.getJSONArray("records");
+        assertEquals(1, records.length());
+        assertEquals(1_000, records.getJSONObject(0).getLong("ts"));
+        assertEquals("config-1", records.getJSONObject(0).getString("configid"));
+        assertEquals("TIMEOUT", records.getJSONObject(0).getString("result"));
+        assertEquals(2_000, records.getJSONObject(0).getLong("latency"));
+    }
+}
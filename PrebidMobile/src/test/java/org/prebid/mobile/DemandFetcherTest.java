@@ -40,6 +40,7 @@ import okhttp3.HttpUrl;
 import okhttp3.mockwebserver.MockResponse;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotSame;
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.Assert.fail;
@@ -473,4 +474,46 @@ public class DemandFetcherTest extends BaseSetup {
             assertTrue("Mock server was not started", false);
         }
     }
+
+    @Test
+    public void testJoinSharesAuctionInFlight() throws Exception {
+        if (!successfulMockServerStarted) {
+            fail("Mock server was not started");
+        }
+
+        HttpUrl httpUrl = server.url("/");
+        Host.CUSTOM.setHostUrl(httpUrl.toString());
+        PrebidMobile.setPrebidServerHost(Host.CUSTOM);
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(MockPrebidServerResponses.noBid()));
+        PublisherAdRequest request = new PublisherAdRequest.Builder().build();
+        DemandFetcher demandFetcher = new DemandFetcher(request);
+        PrebidMobile.setTimeoutMillis(Integer.MAX_VALUE);
+        demandFetcher.setPeriodMillis(0);
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        demandFetcher.setRequestParams(new RequestParams("12345", AdType.BANNER, sizes));
+        OnCompleteListener firstListener = mock(OnCompleteListener.class);
+        demandFetcher.setListener(firstListener);
+        OnCompleteListener secondListener = mock(OnCompleteListener.class);
+        demandFetcher.start();
+
+        HashSet<AdSize> otherSizes = new HashSet<>();
+        otherSizes.add(new AdSize(320, 50));
+        assertFalse(demandFetcher.join(request, new RequestParams("12345", AdType.BANNER, otherSizes), 0, secondListener));
+        assertFalse(demandFetcher.join(new PublisherAdRequest.Builder().build(), new RequestParams("12345", AdType.BANNER, sizes), 0, secondListener));
+        assertTrue(demandFetcher.join(request, new RequestParams("12345", AdType.BANNER, sizes), 0, secondListener));
+
+        ShadowLooper fetcherLooper = Shadows.shadowOf(demandFetcher.getHandler().getLooper());
+        fetcherLooper.runOneTask();
+        ShadowLooper demandLooper = Shadows.shadowOf(demandFetcher.getDemandHandler().getLooper());
+        demandLooper.runOneTask();
+        Robolectric.flushBackgroundThreadScheduler();
+        Robolectric.flushForegroundThreadScheduler();
+
+        assertEquals(1, server.getRequestCount());
+        verify(firstListener, Mockito.times(1)).onComplete(ResultCode.NO_BIDS);
+        verify(secondListener, Mockito.times(1)).onComplete(ResultCode.NO_BIDS);
+        assertEquals(DemandFetcher.STATE.DESTROYED, FieldUtils.readField(demandFetcher, "state", true));
+        assertFalse(demandFetcher.join(request, new RequestParams("12345", AdType.BANNER, sizes), 0, secondListener));
+    }
 }
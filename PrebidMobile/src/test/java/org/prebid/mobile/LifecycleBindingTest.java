@@ -0,0 +1,164 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.widget.FrameLayout;
+
+import com.google.android.gms.ads.doubleclick.PublisherAdRequest;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.prebid.mobile.testutils.MockMainActivity;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+import org.robolectric.util.Scheduler;
+
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class LifecycleBindingTest extends BaseSetup {
+
+    @Test
+    public void testActivityLifecyclePausesAndStopsRefresh() throws Exception {
+        ActivityController<MockMainActivity> controller = Robolectric.buildActivity(MockMainActivity.class).create().start().resume();
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 320, 50);
+
+        adUnit.bindToLifecycle(controller.get());
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        controller.pause();
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        controller.resume();
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        controller.pause().stop().destroy();
+        assertNull(FieldUtils.readField(adUnit, "fetcher", true));
+    }
+
+    @Test
+    public void testRefetchAfterActivityIsDestroyedRefreshes() throws Exception {
+        PrebidMobile.setPrebidServerAccountId("123456");
+        PrebidMobile.setPrebidServerHost(Host.APPNEXUS);
+        PrebidMobile.setApplicationContext(activity.getApplicationContext());
+        ActivityController<MockMainActivity> controller = Robolectric.buildActivity(MockMainActivity.class).create().start().resume();
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 320, 50);
+        adUnit.setAutoRefreshPeriodMillis(30_000);
+
+        adUnit.bindToLifecycle(controller.get());
+        controller.pause().stop().destroy();
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        adUnit.fetchDemand(new PublisherAdRequest.Builder().build(), mock(OnCompleteListener.class));
+        DemandFetcher fetcher = (DemandFetcher) FieldUtils.readField(adUnit, "fetcher", true);
+        assertEquals(DemandFetcher.STATE.RUNNING, FieldUtils.readField(fetcher, "state", true));
+
+        adUnit.stopAutoRefresh();
+    }
+
+    @Test
+    public void testDetachedViewPausesRefresh() throws Exception {
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 320, 50);
+        FrameLayout adView = new FrameLayout(activity);
+
+        adUnit.bindToView(adView);
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        adUnit.unbind();
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+    }
+
+    @Test
+    public void testBindingKeepsPauseOfApp() throws Exception {
+        ActivityController<MockMainActivity> controller = Robolectric.buildActivity(MockMainActivity.class).create().start().resume();
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 320, 50);
+
+        adUnit.pauseAutoRefresh();
+        adUnit.bindToLifecycle(controller.get());
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        controller.pause().resume();
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        adUnit.unbind();
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        adUnit.resumeAutoRefresh();
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+    }
+
+    @Test
+    public void testPauseKeepsRemainingPeriod() throws Exception {
+        DemandFetcher demandFetcher = new DemandFetcher(new PublisherAdRequest.Builder().build());
+        demandFetcher.setPeriodMillis(30_000);
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        demandFetcher.setRequestParams(new RequestParams("12345", AdType.BANNER, sizes));
+        FieldUtils.writeField(demandFetcher, "lastFetchTime", System.currentTimeMillis() - 10_000, true);
+        FieldUtils.writeField(demandFetcher, "state", DemandFetcher.STATE.RUNNING, true);
+
+        demandFetcher.pause();
+        assertEquals(DemandFetcher.STATE.STOPPED, FieldUtils.readField(demandFetcher, "state", true));
+
+        demandFetcher.resume();
+        assertEquals(DemandFetcher.STATE.RUNNING, FieldUtils.readField(demandFetcher, "state", true));
+        Scheduler scheduler = Shadows.shadowOf(demandFetcher.getHandler().getLooper()).getScheduler();
+        long remaining = scheduler.getNextScheduledTaskTime() - scheduler.getCurrentTime();
+        assertTrue(remaining > 19_000 && remaining <= 20_000);
+
+        demandFetcher.destroy();
+    }
+
+    @Test
+    public void testRefreshDueWhilePausedRunsOnResume() throws Exception {
+        DemandFetcher demandFetcher = new DemandFetcher(new PublisherAdRequest.Builder().build());
+        demandFetcher.setPeriodMillis(30_000);
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        demandFetcher.setRequestParams(new RequestParams("12345", AdType.BANNER, sizes));
+        FieldUtils.writeField(demandFetcher, "lastFetchTime", System.currentTimeMillis() - 1_000, true);
+        FieldUtils.writeField(demandFetcher, "state", DemandFetcher.STATE.RUNNING, true);
+
+        demandFetcher.pause();
+        // hidden for five minutes, well past the period
+        long lastFetchTime = (Long) FieldUtils.readField(demandFetcher, "lastFetchTime", true);
+        FieldUtils.writeField(demandFetcher, "lastFetchTime", lastFetchTime - 300_000, true);
+        long timePausedAt = (Long) FieldUtils.readField(demandFetcher, "timePausedAt", true);
+        FieldUtils.writeField(demandFetcher, "timePausedAt", timePausedAt - 300_000, true);
+
+        Scheduler scheduler = Shadows.shadowOf(demandFetcher.getHandler().getLooper()).getScheduler();
+        scheduler.pause();
+        demandFetcher.resume();
+        assertEquals(DemandFetcher.STATE.RUNNING, FieldUtils.readField(demandFetcher, "state", true));
+        assertEquals(1, scheduler.size());
+        assertEquals(scheduler.getCurrentTime(), scheduler.getNextScheduledTaskTime());
+
+        demandFetcher.destroy();
+    }
+}
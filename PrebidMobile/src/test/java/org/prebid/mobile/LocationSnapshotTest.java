@@ -0,0 +1,110 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class LocationSnapshotTest extends BaseSetup {
+
+    @Override
+    public void tearDown() {
+        super.tearDown();
+
+        PrebidMobile.setShareGeoLocation(false);
+    }
+
+    @Test
+    public void testCoordinatesAreRounded() {
+        assertEquals(52.5201, LocationSnapshot.round(52.520084), 0);
+        assertEquals(-13.405, LocationSnapshot.round(-13.404954), 0);
+    }
+
+    @Test
+    public void testOlderLocationDoesNotReplaceNewerFix() {
+        LocationSnapshot.reset(null);
+        PrebidMobile.setShareGeoLocation(true);
+        LocationSnapshot.onLocation(createLocation(10.0, 20.0, 2_000));
+        LocationSnapshot.onLocation(createLocation(30.0, 40.0, 1_000));
+
+        LocationSnapshot.Fix fix = LocationSnapshot.getLastFix();
+        assertNotNull(fix);
+        assertEquals(10.0, fix.getLatitude(), 0);
+        assertEquals(20.0, fix.getLongitude(), 0);
+    }
+
+    @Test
+    public void testLocationIsIgnoredWhileSharingIsOff() {
+        PrebidMobile.setShareGeoLocation(true);
+        LocationSnapshot.onLocation(createLocation(10.0, 20.0, 1_000));
+        assertNotNull(LocationSnapshot.getLastFix());
+
+        PrebidMobile.setShareGeoLocation(false);
+        assertNull(LocationSnapshot.getLastFix());
+        LocationSnapshot.onLocation(createLocation(30.0, 40.0, 2_000));
+        assertNull(LocationSnapshot.getLastFix());
+    }
+
+    @Test
+    public void testRefreshReadsLastKnownLocationOnce() {
+        Context context = activity.getApplicationContext();
+        PrebidMobile.setApplicationContext(context);
+        shadowOf(activity.getApplication()).grantPermissions("android.permission.ACCESS_FINE_LOCATION");
+        PrebidMobile.setShareGeoLocation(false);
+        PrebidMobile.setShareGeoLocation(true);
+        assertNull(LocationSnapshot.getLastFix());
+
+        LocationManager lm = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        shadowOf(lm).setProviderEnabled(LocationManager.GPS_PROVIDER, true);
+        shadowOf(lm).setLastKnownLocation(LocationManager.GPS_PROVIDER, createLocation(1.23456, 2.34567, System.currentTimeMillis()));
+
+        LocationSnapshot.refreshIfNeeded(context);
+
+        LocationSnapshot.Fix fix = LocationSnapshot.getLastFix();
+        assertNotNull(fix);
+        assertEquals(1.2346, fix.getLatitude(), 0);
+        assertEquals(2.3457, fix.getLongitude(), 0);
+
+        // within the refresh period the snapshot is reused
+        shadowOf(lm).setLastKnownLocation(LocationManager.GPS_PROVIDER, createLocation(5.0, 6.0, System.currentTimeMillis()));
+        LocationSnapshot.refreshIfNeeded(context);
+        assertEquals(1.2346, LocationSnapshot.getLastFix().getLatitude(), 0);
+    }
+
+    private Location createLocation(double latitude, double longitude, long time) {
+        Location location = new Location(LocationManager.GPS_PROVIDER);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setAccuracy(10);
+        location.setTime(time);
+        return location;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowNetworkInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class NetworkStateMonitorTest extends BaseSetup {
+
+    @Test
+    public void testSnapshotIsReusedWhileConnected() {
+        Context context = activity.getApplicationContext();
+
+        NetworkStateMonitor.NetworkState first = NetworkStateMonitor.getNetworkState(context);
+        NetworkStateMonitor.NetworkState second = NetworkStateMonitor.getNetworkState(context);
+
+        assertTrue(first.isConnectivityKnown());
+        assertTrue(first.isConnected());
+        assertEquals(NetworkStateMonitor.CONNECTION_TYPE_CELLULAR, first.getConnectionType());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDisconnectedSnapshotIsRechecked() {
+        Context context = activity.getApplicationContext();
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        ShadowNetworkInfo shadowOfActiveNetworkInfo = shadowOf(connectivityManager.getActiveNetworkInfo());
+
+        shadowOfActiveNetworkInfo.setConnectionStatus(false);
+        assertFalse(NetworkStateMonitor.getNetworkState(context).isConnected());
+
+        shadowOfActiveNetworkInfo.setConnectionStatus(true);
+        assertTrue(NetworkStateMonitor.getNetworkState(context).isConnected());
+    }
+}
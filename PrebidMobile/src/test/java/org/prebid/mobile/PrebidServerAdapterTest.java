@@ -32,6 +32,7 @@ import org.junit.rules.ErrorCollector;
 import org.junit.runner.RunWith;
 import org.prebid.mobile.testutils.BaseSetup;
 import org.prebid.mobile.testutils.MockPrebidServerResponses;
+import org.prebid.mobile.testutils.RecordedPrebidServer;
 import org.prebid.mobile.testutils.Utils;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
@@ -379,6 +380,52 @@ public class PrebidServerAdapterTest extends BaseSetup {
         }
     }
 
+    @Test
+    public void testRecordedAuctionsReplay() throws Exception {
+        if (!successfulMockServerStarted) {
+            fail("Server failed to start, unable to test.");
+        }
+
+        server.setDispatcher(RecordedPrebidServer.fromResource("PrebidServerRecordedAuctions.json"));
+        Host.CUSTOM.setHostUrl(server.url("/openrtb2/auction").toString());
+        PrebidMobile.setPrebidServerHost(Host.CUSTOM);
+        PrebidMobile.setPrebidServerAccountId("12345");
+        PrebidMobile.setApplicationContext(activity.getApplicationContext());
+        DemandAdapter.DemandAdapterListener mockListener = mock(DemandAdapter.DemandAdapterListener.class);
+        PrebidServerAdapter adapter = new PrebidServerAdapter();
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        RequestParams requestParams = new RequestParams("67890", AdType.BANNER, sizes);
+
+        // first recorded auction, one bid from AppNexus after 183 ms
+        String uuid = UUID.randomUUID().toString();
+        long startTime = System.currentTimeMillis();
+        adapter.requestDemand(requestParams, mockListener, uuid);
+        Robolectric.flushBackgroundThreadScheduler();
+        Robolectric.flushForegroundThreadScheduler();
+        long elapsed = System.currentTimeMillis() - startTime;
+        HashMap<String, String> bids = new HashMap<String, String>();
+        bids.put("hb_bidder", "appnexus");
+        bids.put("hb_bidder_appnexus", "appnexus");
+        bids.put("hb_cache_id", "df4aba04-5e69-44b8-8608-058ab21600b8");
+        bids.put("hb_cache_id_appnexus", "df4aba04-5e69-44b8-8608-058ab21600b8");
+        bids.put("hb_env", "mobile-app");
+        bids.put("hb_env_appnexus", "mobile-app");
+        bids.put("hb_pb", "0.50");
+        bids.put("hb_pb_appnexus", "0.50");
+        bids.put("hb_size", "300x250");
+        bids.put("hb_size_appnexus", "300x250");
+        verify(mockListener).onDemandReady(bids, uuid);
+        assertTrue("Replayed auction took " + elapsed + " ms", elapsed >= 183);
+
+        // second recorded auction, no bids
+        String uuid2 = UUID.randomUUID().toString();
+        adapter.requestDemand(requestParams, mockListener, uuid2);
+        Robolectric.flushBackgroundThreadScheduler();
+        Robolectric.flushForegroundThreadScheduler();
+        verify(mockListener).onDemandFailed(ResultCode.NO_BIDS, uuid2);
+    }
+
     @Test
     public void testSuccessfulBidRubiconResponse() {
         if (!successfulMockServerStarted) {
@@ -16,6 +16,8 @@
 
 package org.prebid.mobile;
 
+import com.google.android.gms.ads.doubleclick.PublisherAdRequest;
+
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,15 +25,22 @@ import org.prebid.mobile.testutils.BaseSetup;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = BaseSetup.testSDK)
-public class RequestParamsTest {
+public class RequestParamsTest extends BaseSetup {
     @Test
     public void testCreation() throws Exception {
         HashSet<AdSize> sizes = new HashSet<>();
@@ -39,11 +48,14 @@ public class RequestParamsTest {
         RequestParams requestParams = new RequestParams("123456", AdType.BANNER, sizes);
         assertEquals("123456", FieldUtils.readField(requestParams, "configId", true));
         assertEquals(AdType.BANNER, FieldUtils.readField(requestParams, "adType", true));
-        assertEquals(sizes, FieldUtils.readField(requestParams, "sizes", true));
+        assertEquals(1, requestParams.getSizeCount());
+        assertEquals(320, requestParams.getWidth(0));
+        assertEquals(50, requestParams.getHeight(0));
         requestParams = new RequestParams("123456", AdType.INTERSTITIAL, null);
         assertEquals("123456", FieldUtils.readField(requestParams, "configId", true));
         assertEquals(AdType.INTERSTITIAL, FieldUtils.readField(requestParams, "adType", true));
         assertEquals(null, FieldUtils.readField(requestParams, "sizes", true));
+        assertEquals(0, requestParams.getSizeCount());
     }
 
     @Test
@@ -60,4 +72,69 @@ public class RequestParamsTest {
 
         assertTrue(minAdSizePerc.getWidth() == 50 && minAdSizePerc.getHeight() == 70);
     }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() throws Exception {
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        Map<String, Set<String>> contextData = new HashMap<>();
+        contextData.put("key", new HashSet<>(Arrays.asList("value")));
+        Set<String> contextKeywords = new HashSet<>(Arrays.asList("keyword"));
+
+        RequestParams requestParams = new RequestParams("123456", AdType.BANNER, sizes, contextData, contextKeywords, null);
+        String contextJson = requestParams.getContextJson().toString();
+
+        sizes.add(new AdSize(320, 50));
+        contextData.get("key").add("value2");
+        contextData.put("key2", new HashSet<>(Arrays.asList("value")));
+        contextKeywords.add("keyword2");
+
+        assertEquals(1, requestParams.getSizeCount());
+        assertEquals(1, requestParams.getContextDataDictionary().size());
+        assertEquals(1, requestParams.getContextDataDictionary().get("key").size());
+        assertEquals(1, requestParams.getContextKeywordsSet().size());
+        assertEquals(contextJson, requestParams.getContextJson().toString());
+        assertSame(requestParams.getContextJson(), requestParams.getContextJson());
+        assertSame(requestParams.getBannerFormatJson(), requestParams.getBannerFormatJson());
+    }
+
+    @Test
+    public void testEqualSnapshots() throws Exception {
+        HashSet<AdSize> sizes = new HashSet<>();
+        sizes.add(new AdSize(300, 250));
+        Map<String, Set<String>> contextData = new HashMap<>();
+        contextData.put("key", new HashSet<>(Arrays.asList("value")));
+
+        RequestParams requestParams1 = new RequestParams("123456", AdType.BANNER, sizes, contextData, null, null);
+        RequestParams requestParams2 = new RequestParams("123456", AdType.BANNER, new HashSet<>(sizes), new HashMap<>(contextData), new HashSet<String>(), null);
+        assertEquals(requestParams1, requestParams2);
+        assertEquals(requestParams1.hashCode(), requestParams2.hashCode());
+
+        sizes.add(new AdSize(320, 50));
+        assertFalse(requestParams1.equals(new RequestParams("123456", AdType.BANNER, sizes, contextData, null, null)));
+    }
+
+    @Test
+    public void testRunningFetcherGetsNewSnapshot() throws Exception {
+        PrebidMobile.setPrebidServerAccountId("123456");
+        PrebidMobile.setPrebidServerHost(Host.APPNEXUS);
+        PrebidMobile.setApplicationContext(activity.getApplicationContext());
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 300, 250);
+        adUnit.setAutoRefreshPeriodMillis(30_000);
+        adUnit.fetchDemand(new PublisherAdRequest.Builder().build(), mock(OnCompleteListener.class));
+
+        DemandFetcher fetcher = (DemandFetcher) FieldUtils.readField(adUnit, "fetcher", true);
+        RequestParams first = (RequestParams) FieldUtils.readField(fetcher, "requestParams", true);
+
+        adUnit.addContextKeyword("keyword");
+        RequestParams second = (RequestParams) FieldUtils.readField(fetcher, "requestParams", true);
+        assertTrue(second.getContextKeywordsSet().contains("keyword"));
+        assertTrue(first.getContextKeywordsSet().isEmpty());
+
+        // an equal snapshot keeps the previous one
+        adUnit.addContextKeyword("keyword");
+        assertSame(second, FieldUtils.readField(fetcher, "requestParams", true));
+
+        adUnit.stopAutoRefresh();
+    }
 }
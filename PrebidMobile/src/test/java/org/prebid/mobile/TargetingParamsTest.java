@@ -24,7 +24,9 @@ import org.prebid.mobile.testutils.BaseSetup;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -188,4 +190,43 @@ public class TargetingParamsTest extends BaseSetup {
         Assert.assertEquals(1, set.size());
         assertThat(set, containsInAnyOrder("value10"));
     }
+
+    @Test
+    public void testSnapshotDoesNotChange() {
+        TargetingParams.addUserKeyword("value10");
+        Set<String> userData = new HashSet<>(Arrays.asList("value20"));
+        TargetingParams.updateUserData("key1", userData);
+
+        TargetingParams.Snapshot snapshot = TargetingParams.getSnapshot();
+
+        TargetingParams.addUserKeyword("value11");
+        userData.add("value21");
+        TargetingParams.addUserData("key2", "value30");
+
+        Assert.assertEquals(1, snapshot.getUserKeywordsSet().size());
+        Assert.assertEquals(1, snapshot.getUserDataDictionary().size());
+        assertThat(snapshot.getUserDataDictionary().get("key1"), containsInAnyOrder("value20"));
+        Assert.assertEquals(2, TargetingParams.getUserKeywordsSet().size());
+        Assert.assertEquals(2, TargetingParams.getUserDataDictionary().size());
+    }
+
+    @Test
+    public void testVersionChangesOnlyWithContent() {
+        long version = TargetingParams.getSnapshot().getVersion();
+
+        TargetingParams.addContextKeyword("value10");
+        long changedVersion = TargetingParams.getSnapshot().getVersion();
+        assertTrue(changedVersion > version);
+
+        TargetingParams.addContextKeyword("value10");
+        TargetingParams.removeContextKeyword("value11");
+        TargetingParams.removeBidderFromAccessControlList(TargetingParams.BIDDER_NAME_APP_NEXUS);
+        assertEquals(changedVersion, TargetingParams.getSnapshot().getVersion());
+
+        TargetingParams.addContextData("key1", "value20");
+        changedVersion = TargetingParams.getSnapshot().getVersion();
+        TargetingParams.addContextData("key1", "value20");
+        TargetingParams.updateContextData("key1", new HashSet<>(Arrays.asList("value20")));
+        assertEquals(changedVersion, TargetingParams.getSnapshot().getVersion());
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile;
+
+import android.graphics.Rect;
+import android.widget.FrameLayout;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class VisibilityTrackerTest extends BaseSetup {
+
+    @Test
+    public void testVisiblePercent() {
+        assertEquals(100, VisibilityTracker.getVisiblePercent(new Rect(0, 0, 320, 50), 320, 50));
+        assertEquals(50, VisibilityTracker.getVisiblePercent(new Rect(0, 25, 320, 50), 320, 50));
+        assertEquals(0, VisibilityTracker.getVisiblePercent(new Rect(), 320, 50));
+        assertEquals(0, VisibilityTracker.getVisiblePercent(new Rect(), 0, 0));
+    }
+
+    @Test
+    public void testTrackerIsSharedAndReleased() {
+        FrameLayout root = new FrameLayout(activity);
+        FrameLayout first = new FrameLayout(activity);
+        FrameLayout second = new FrameLayout(activity);
+        root.addView(first);
+        root.addView(second);
+        VisibilityTracker.Listener listener = mock(VisibilityTracker.Listener.class);
+
+        VisibilityTracker.track(first, 50, listener);
+        VisibilityTracker.track(second, 50, listener);
+        assertEquals(1, VisibilityTracker.getTrackerCount());
+        // not laid out on screen
+        verify(listener, times(2)).onVisibilityChanged(false);
+
+        VisibilityTracker.untrack(first);
+        assertEquals(1, VisibilityTracker.getTrackerCount());
+        VisibilityTracker.untrack(second);
+        assertEquals(0, VisibilityTracker.getTrackerCount());
+    }
+
+    @Test
+    public void testHiddenViewPausesRefreshUntilVisible() throws Exception {
+        BannerAdUnit adUnit = new BannerAdUnit("123456", 320, 50);
+        FrameLayout adView = new FrameLayout(activity);
+
+        adUnit.bindToView(adView, 50);
+        assertTrue((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        LifecycleBinding binding = (LifecycleBinding) FieldUtils.readField(adUnit, "lifecycleBinding", true);
+        binding.onViewAttachedToWindow(adView);
+        assertFalse(binding.isActive());
+
+        binding.onVisibilityChanged(true);
+        assertFalse((Boolean) FieldUtils.readField(adUnit, "autoRefreshPaused", true));
+
+        adUnit.unbind();
+        assertEquals(0, VisibilityTracker.getTrackerCount());
+    }
+}
@@ -16,16 +16,28 @@
 
 package org.prebid.mobile.addendum;
 
+import android.support.annotation.NonNull;
+import android.webkit.ValueCallback;
+import android.webkit.WebView;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.prebid.mobile.testutils.BaseSetup;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.Collections;
+
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = BaseSetup.testSDK)
@@ -117,6 +129,83 @@ public class AdViewUtilsTest {
         findSizeInHtmlSuccessHelper("<script> \n \"hb_size\":[\"728x90\"] \n </script>", 728, 90);
     }
 
+    @Test
+    public void testSuccessFindASizeSkipsBidderSpecificKeys() {
+        findSizeInHtmlSuccessHelper("<script> \n \"hb_size_rubicon\":[\"1x1\"],\"hb_size\":[\"728x90\"] \n </script>", 728, 90);
+    }
+
+    @Test
+    public void testSuccessFindASizeSkipsKeysWithoutValue() {
+        findSizeInHtmlSuccessHelper("<script> \n \"hb_size\":\"1ERROR1\", hb_size:300x250 \n </script>", 300, 250);
+    }
+
+    @Test
+    public void testFailureFindASizeIfItOverflows() {
+        findSizeInHtmlErrorHelper("<script> \n \"hb_size\":[\"72800000000000x90\"] \n </script>", PbFindSizeErrorFactory.SIZE_UNPARSED_CODE);
+    }
+
+    @Test
+    public void testSuccessFindASizeInLargeCreative() {
+        StringBuilder html = new StringBuilder("<html><body><div id=\"creative\">");
+        for (int i = 0; i < 10_000; i++) {
+            html.append("<span class=\"hb_size-like\">size ").append(i).append("x").append(i).append("</span>");
+        }
+        html.append("<script> \n \"hb_size\":[\"320x50\"] \n </script></div></body></html>");
+
+        findSizeInHtmlSuccessHelper(html.toString(), 320, 50);
+    }
+
+    @Test
+    public void testFindSizeInProbeResult() {
+        Pair<Pair<Integer, Integer>, PbFindSizeError> result = AdViewUtils.findSizeInProbeResult("\"728x90\"");
+        assertNotNull(result.first);
+        assertTrue(result.first.first == 728 && result.first.second == 90);
+        assertNull(result.second);
+
+        result = AdViewUtils.findSizeInProbeResult("null");
+        assertNull(result.first);
+        assertEquals(PbFindSizeErrorFactory.NO_HTML_CODE, result.second.getCode());
+
+        result = AdViewUtils.findSizeInProbeResult("\"\"");
+        assertNull(result.first);
+        assertEquals(PbFindSizeErrorFactory.NO_SIZE_OBJECT_CODE, result.second.getCode());
+
+        result = AdViewUtils.findSizeInProbeResult("\"72800000000000x90\"");
+        assertNull(result.first);
+        assertEquals(PbFindSizeErrorFactory.SIZE_UNPARSED_CODE, result.second.getCode());
+    }
+
+    @Test
+    public void testProbeFallsBackToHtmlWithoutProbeResult() {
+        WebView webView = mock(WebView.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                String script = invocation.getArgument(0);
+                ValueCallback<String> callback = invocation.getArgument(1);
+                // the probe fails, the HTML has the size
+                callback.onReceiveValue("document.body.innerHTML".equals(script) ? "\"<div>\\\"hb_size\\\":[\\\"300x250\\\"]</div>\"" : "null");
+                return null;
+            }
+        }).when(webView).evaluateJavascript(anyString(), any(ValueCallback.class));
+
+        final int[] size = new int[2];
+        AdViewUtils.probeWebViewListAsync(Collections.singletonList(webView), new AdViewUtils.PbFindSizeListener() {
+            @Override
+            public void success(int width, int height) {
+                size[0] = width;
+                size[1] = height;
+            }
+
+            @Override
+            public void failure(@NonNull PbFindSizeError error) {
+            }
+        });
+
+        assertEquals(300, size[0]);
+        assertEquals(250, size[1]);
+    }
+
     void findSizeInHtmlErrorHelper(String htmlBody, int expectedErrorCode) {
 
         // given
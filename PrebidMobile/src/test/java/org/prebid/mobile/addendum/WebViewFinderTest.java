@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile.addendum;
+
+import android.webkit.WebView;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.prebid.mobile.testutils.BaseSetup;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = BaseSetup.testSDK)
+public class WebViewFinderTest extends BaseSetup {
+
+    @Test
+    public void testFindsCreativeBelowShallowWebView() {
+        FrameLayout adView = new FrameLayout(activity);
+        FrameLayout container = new FrameLayout(activity);
+        WebView adChoices = new WebView(activity);
+        WebView creative = new WebView(activity);
+        FrameLayout creativeContainer = new FrameLayout(activity);
+
+        adView.addView(container);
+        container.addView(adChoices);
+        container.addView(creativeContainer);
+        creativeContainer.addView(creative);
+
+        List<WebView> webViewList = WebViewFinder.findWebViews(adView);
+
+        assertEquals(2, webViewList.size());
+        assertSame(adChoices, webViewList.get(0));
+        assertSame(creative, webViewList.get(1));
+    }
+
+    @Test
+    public void testSearchIsDepthLimited() {
+        FrameLayout adView = new FrameLayout(activity);
+        FrameLayout parent = adView;
+        for (int i = 0; i < WebViewFinder.MAX_SEARCH_DEPTH; i++) {
+            FrameLayout child = new FrameLayout(activity);
+            parent.addView(child);
+            parent = child;
+        }
+        parent.addView(new WebView(activity));
+
+        assertTrue(WebViewFinder.findWebViews(adView).isEmpty());
+    }
+
+    @Test
+    public void testCacheIsInvalidatedWhenCreativeIsReplaced() {
+        FrameLayout adView = new FrameLayout(activity);
+        WebView oldCreative = new WebView(activity);
+        adView.addView(oldCreative);
+
+        assertSame(oldCreative, WebViewFinder.findWebViews(adView).get(0));
+        assertSame(oldCreative, WebViewFinder.findWebViews(adView).get(0));
+
+        adView.removeView(oldCreative);
+        WebView newCreative = new WebView(activity);
+        adView.addView(newCreative);
+
+        List<WebView> webViewList = WebViewFinder.findWebViews(adView);
+        assertEquals(1, webViewList.size());
+        assertSame(newCreative, webViewList.get(0));
+    }
+
+    @Test
+    public void testCacheIsInvalidatedWhenWebViewIsAdded() {
+        FrameLayout adView = new FrameLayout(activity);
+        FrameLayout container = new FrameLayout(activity);
+        WebView oldCreative = new WebView(activity);
+        adView.addView(container);
+        container.addView(oldCreative);
+
+        assertEquals(1, WebViewFinder.findWebViews(adView).size());
+
+        WebView newCreative = new WebView(activity);
+        container.addView(newCreative);
+
+        List<WebView> webViewList = WebViewFinder.findWebViews(adView);
+        assertEquals(2, webViewList.size());
+        assertSame(newCreative, webViewList.get(1));
+    }
+}
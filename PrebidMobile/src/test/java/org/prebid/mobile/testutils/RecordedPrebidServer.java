@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2018-2019 Prebid.org, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.prebid.mobile.testutils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Replays Prebid Server exchanges recorded with DrPrebid's record mode (files/mock_server_recordings on the device)
+ * from a {@link okhttp3.mockwebserver.MockWebServer}, with the recorded status, body and latency.
+ * <p>
+ * Requests to a path get the recorded exchanges of that path in order, starting over after the last one.
+ */
+public class RecordedPrebidServer extends Dispatcher {
+    private final Map<String, List<MockResponse>> responsesByPath = new HashMap<>();
+    private final Map<String, Integer> nextResponseByPath = new HashMap<>();
+
+    public static RecordedPrebidServer fromResource(String name) throws JSONException {
+        InputStream in = RecordedPrebidServer.class.getClassLoader().getResourceAsStream(name);
+        return new RecordedPrebidServer(new JSONObject(MockPrebidServerResponses.inputStreamToString(in)));
+    }
+
+    private RecordedPrebidServer(JSONObject recording) throws JSONException {
+        JSONArray exchanges = recording.getJSONArray("exchanges");
+        for (int i = 0; i < exchanges.length(); i++) {
+            JSONObject exchange = exchanges.getJSONObject(i);
+            String path = exchange.getString("path");
+
+            List<MockResponse> responses = responsesByPath.get(path);
+            if (responses == null) {
+                responses = new ArrayList<>();
+                responsesByPath.put(path, responses);
+            }
+            responses.add(new MockResponse()
+                    .setResponseCode(exchange.getInt("status"))
+                    .setHeader("Content-Type", exchange.optString("contentType", "application/json"))
+                    .setBody(exchange.getString("body"))
+                    .setBodyDelay(exchange.getLong("latency"), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public synchronized MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath().split("\\?")[0];
+        List<MockResponse> responses = responsesByPath.get(path);
+        if (responses == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+
+        Integer next = nextResponseByPath.get(path);
+        int index = next != null ? next : 0;
+        nextResponseByPath.put(path, (index + 1) % responses.size());
+        return responses.get(index);
+    }
+}
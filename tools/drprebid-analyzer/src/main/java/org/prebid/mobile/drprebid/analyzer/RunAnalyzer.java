@@ -0,0 +1,133 @@
+package org.prebid.mobile.drprebid.analyzer;
+
+import org.prebid.mobile.drprebid.export.RunStatistics;
+import org.prebid.mobile.drprebid.export.SampleFormat;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Reads demand test runs exported by DrPrebid and prints their statistics, one column per run.
+ */
+public class RunAnalyzer {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: RunAnalyzer run.tsv [run.tsv...]");
+            System.exit(1);
+        }
+
+        List<Run> runs = new ArrayList<>();
+        for (String path : args) {
+            runs.add(read(new File(path)));
+        }
+        print(runs, System.out);
+    }
+
+    static Run read(File file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !SampleFormat.isVersion(line)) {
+                throw new IOException(file + " is not a DrPrebid samples file of version " + SampleFormat.VERSION);
+            }
+
+            Run run = new Run(file.getName());
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                if (SampleFormat.isComment(line)) {
+                    run.header.putAll(SampleFormat.parseHeader(line));
+                } else {
+                    try {
+                        run.statistics.add(SampleFormat.parse(line));
+                    } catch (IllegalArgumentException exception) {
+                        throw new IOException(file + ":" + lineNumber + ": " + exception.getMessage(), exception);
+                    }
+                }
+            }
+            return run;
+        }
+    }
+
+    static void print(List<Run> runs, PrintStream out) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(row(runs, "run", run -> run.name));
+        for (String key : new String[]{"server", "config", "requests", "concurrency", "qps"}) {
+            rows.add(row(runs, key, run -> run.header.getOrDefault(key, "")));
+        }
+        rows.add(row(runs, "samples", run -> String.valueOf(run.statistics.getSampleCount())));
+        rows.add(row(runs, "errors", run -> String.valueOf(run.statistics.getErrorCount())));
+        rows.add(row(runs, "with bids", run -> String.valueOf(run.statistics.getBidCount())));
+        rows.add(row(runs, "new connection avg", run -> run.statistics.getAvgColdResponseTime() + " ms"));
+        rows.add(row(runs, "reused connection avg", run -> run.statistics.getAvgWarmResponseTime() + " ms"));
+        rows.add(row(runs, "end to end", run -> formatPercentiles(run.statistics.getResponseTimes())));
+
+        TreeSet<String> bidders = new TreeSet<>();
+        for (Run run : runs) {
+            bidders.addAll(run.statistics.getBidderResponseTimes().keySet());
+        }
+        for (String bidder : bidders) {
+            rows.add(row(runs, bidder, run -> {
+                LatencyHistogram histogram = run.statistics.getBidderResponseTimes().get(bidder);
+                return histogram != null ? formatPercentiles(histogram) : "-";
+            }));
+        }
+
+        int[] widths = new int[runs.size() + 1];
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                widths[i] = Math.max(widths[i], row[i].length());
+            }
+        }
+        for (String[] row : rows) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < row.length; i++) {
+                line.append(String.format(Locale.ENGLISH, "%-" + (widths[i] + 2) + "s", row[i]));
+            }
+            out.println(line.toString().trim());
+        }
+    }
+
+    private static String formatPercentiles(LatencyHistogram histogram) {
+        return String.format(Locale.ENGLISH, "p50 %d p90 %d p99 %d max %d ms", histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99), histogram.getMax());
+    }
+
+    private static String[] row(List<Run> runs, String label, Column column) {
+        String[] row = new String[runs.size() + 1];
+        row[0] = label;
+        for (int i = 0; i < runs.size(); i++) {
+            row[i + 1] = column.value(runs.get(i));
+        }
+        return row;
+    }
+
+    private interface Column {
+        String value(Run run);
+    }
+
+    static class Run {
+        final String name;
+        final Map<String, String> header = new LinkedHashMap<>();
+        final RunStatistics statistics = new RunStatistics();
+
+        Run(String name) {
+            this.name = name;
+        }
+    }
+}
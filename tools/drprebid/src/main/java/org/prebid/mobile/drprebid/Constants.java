@@ -4,6 +4,7 @@ public final class Constants {
     public static final class Preferences {
         public static final String WELCOME_SHOWN = "has_welcome_been_shown";
         public static final String QR_CODE_SCAN_CACHE = "scanned_qr_code_cache";
+        public static final String LINE_ITEM_CACHE_IDS = "line_item_cache_ids";
     }
 
     public static final class Settings {
@@ -16,6 +17,13 @@ public final class Constants {
         public static final String PREBID_SERVER_CUSTOM_URL = "prebid_server_custom_url";
         public static final String ACCOUNT_ID = "account_id";
         public static final String CONFIG_ID = "config_id";
+        public static final String LOAD_TEST_REQUEST_COUNT = "load_test_request_count";
+        public static final String LOAD_TEST_CONCURRENCY = "load_test_concurrency";
+        public static final String LOAD_TEST_TARGET_QPS = "load_test_target_qps";
+        public static final String MOCK_SERVER_MODE = "mock_server_mode";
+        public static final String SWEEP_CONFIGS = "sweep_configs";
+        public static final String SWEEP_REQUESTS_PER_CONFIG = "sweep_requests_per_config";
+        public static final String SWEEP_MAX_QPS = "sweep_max_qps";
 
         public static final class AdFormatCodes {
             public static final int BANNER = 1;
@@ -41,6 +49,12 @@ public final class Constants {
             public static final int APPNEXUS = 2;
             public static final int CUSTOM = 3;
         }
+
+        public static final class MockServerModeCodes {
+            public static final int LIVE = 1;
+            public static final int RECORD = 2;
+            public static final int REPLAY = 3;
+        }
     }
 
     public static final class Params {
@@ -53,6 +67,9 @@ public final class Constants {
         public static final int TYPE_BID_PRICE = 1;
         public static final int TYPE_ACCOUNT_ID = 2;
         public static final int TYPE_CONFIG_ID = 3;
+        public static final int TYPE_LOAD_TEST_REQUEST_COUNT = 4;
+        public static final int TYPE_LOAD_TEST_CONCURRENCY = 5;
+        public static final int TYPE_LOAD_TEST_TARGET_QPS = 6;
 
         public static final int FORMAT_TEXT = 0;
         public static final int FORMAT_INT = 1;
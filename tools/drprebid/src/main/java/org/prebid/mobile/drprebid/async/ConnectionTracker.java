@@ -0,0 +1,28 @@
+package org.prebid.mobile.drprebid.async;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * Tags a request to find out whether its call opened a new connection or reused a pooled one.
+ */
+public class ConnectionTracker extends EventListener {
+    public static final EventListener.Factory FACTORY = call -> {
+        ConnectionTracker tracker = call.request().tag(ConnectionTracker.class);
+        return tracker != null ? tracker : EventListener.NONE;
+    };
+
+    private volatile boolean newConnection = false;
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        newConnection = true;
+    }
+
+    public boolean isNewConnection() {
+        return newConnection;
+    }
+}
@@ -2,12 +2,14 @@ package org.prebid.mobile.drprebid.async;
 
 public class DemandTestResultTask implements Runnable {
     public interface RequestCompletionListener {
-        void onRequestCompleted(String response, int responseCode);
+        void onRequestCompleted(String response, int responseCode, long responseTime, boolean newConnection);
     }
 
     private final RequestCompletionListener listener;
     private String response;
     private int responseCode;
+    private long responseTime;
+    private boolean newConnection;
 
     public DemandTestResultTask(RequestCompletionListener listener) {
         this.listener = listener;
@@ -16,7 +18,7 @@ public class DemandTestResultTask implements Runnable {
     @Override
     public void run() {
         if (listener != null) {
-            listener.onRequestCompleted(response, responseCode);
+            listener.onRequestCompleted(response, responseCode, responseTime, newConnection);
         }
     }
 
@@ -27,4 +29,12 @@ public class DemandTestResultTask implements Runnable {
     public void setResponseCode(int responseCode) {
         this.responseCode = responseCode;
     }
+
+    public void setResponseTime(long responseTime) {
+        this.responseTime = responseTime;
+    }
+
+    public void setNewConnection(boolean newConnection) {
+        this.newConnection = newConnection;
+    }
 }
@@ -6,6 +6,8 @@ import org.prebid.mobile.drprebid.managers.DemandTestManager;
 import org.prebid.mobile.drprebid.util.IOUtil;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -21,47 +23,77 @@ public class DemandTestTask implements Runnable {
     private final String url;
     private final String requestBody;
     private final DemandTestResultTask resultTask;
-
-
-    public DemandTestTask(String hostUrl, String requestBody, DemandTestResultTask resultTask) {
+    private final long scheduledTime;
+    private final Executor resultExecutor;
+    private volatile boolean cancelled;
+
+    /**
+     * @param scheduledTime  {@link System#nanoTime()} at which the request was due, the response time
+     *                       then includes any wait for a free request thread
+     * @param resultExecutor runs the result task
+     */
+    public DemandTestTask(String hostUrl, String requestBody, DemandTestResultTask resultTask, long scheduledTime, Executor resultExecutor) {
         this.url = hostUrl;
         this.requestBody = requestBody;
         this.resultTask = resultTask;
+        this.scheduledTime = scheduledTime;
+        this.resultExecutor = resultExecutor;
+    }
+
+    /**
+     * A cancelled task that has not started yet sends no request and reports no result.
+     */
+    public void cancel() {
+        cancelled = true;
     }
 
     @Override
     public void run() {
+        if (cancelled) {
+            return;
+        }
+
         if (resultTask != null) {
             String responseText = "";
             int responseCode = 0;
+            ConnectionTracker connectionTracker = new ConnectionTracker();
+            long startTime = scheduledTime != -1 ? scheduledTime : System.nanoTime();
 
             try {
-                OkHttpClient client = new OkHttpClient.Builder().build();
+                OkHttpClient client = DemandTestManager.getInstance().getHttpClient();
 
                 RequestBody body = RequestBody.create(MEDIA_TYPE, requestBody);
 
                 Request request = new Request.Builder()
                         .url(url)
                         .post(body)
+                        .tag(ConnectionTracker.class, connectionTracker)
                         .build();
 
                 Response response = client.newCall(request).execute();
 
-                if (response.body() != null) {
-                    InputStream inputStream = response.body().byteStream();
-                    responseText = IOUtil.getStringFromStream(inputStream);
-                    inputStream.close();
+                try {
+                    if (response.body() != null) {
+                        InputStream inputStream = response.body().byteStream();
+                        responseText = IOUtil.getStringFromStream(inputStream);
+                        inputStream.close();
+                    }
+
+                    responseCode = response.code();
+                } finally {
+                    // returns the connection to the pool
+                    response.close();
                 }
 
-                responseCode = response.code();
-
             } catch (Exception exception) {
                 Log.e(TAG, exception.getMessage());
             }
 
             resultTask.setResponse(responseText);
             resultTask.setResponseCode(responseCode);
-            DemandTestManager.getInstance().getMainThreadExecutor().execute(resultTask);
+            resultTask.setResponseTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            resultTask.setNewConnection(connectionTracker.isNewConnection());
+            resultExecutor.execute(resultTask);
         }
     }
 }
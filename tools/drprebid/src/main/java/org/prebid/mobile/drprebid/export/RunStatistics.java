@@ -0,0 +1,89 @@
+package org.prebid.mobile.drprebid.export;
+
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latency statistics of a demand test run, computed the same way on the device and by the desktop analyzer.
+ */
+public class RunStatistics {
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> bidderResponseTimes = new TreeMap<>();
+    private int sampleCount;
+    private int errorCount;
+    private int bidCount;
+    private long coldResponseTimeTotal;
+    private int coldResponseCount;
+    private long warmResponseTimeTotal;
+    private int warmResponseCount;
+
+    public void add(Sample sample) {
+        sampleCount++;
+        if (sample.getResponseCode() != 200) {
+            errorCount++;
+        }
+        if (sample.containsBids()) {
+            bidCount++;
+        }
+
+        responseTimes.record(sample.getResponseTime());
+        if (sample.isNewConnection()) {
+            coldResponseTimeTotal += sample.getResponseTime();
+            coldResponseCount++;
+        } else {
+            warmResponseTimeTotal += sample.getResponseTime();
+            warmResponseCount++;
+        }
+
+        for (Map.Entry<String, Long> entry : sample.getBidderResponseTimes().entrySet()) {
+            LatencyHistogram histogram = bidderResponseTimes.get(entry.getKey());
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                bidderResponseTimes.put(entry.getKey(), histogram);
+            }
+            histogram.record(entry.getValue());
+        }
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return the number of requests that did not get a 200 response
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the number of responses with at least one bid
+     */
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    /**
+     * @return the end to end response times of all requests
+     */
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    /**
+     * @return the server reported response times by bidder name, sorted by name
+     */
+    public Map<String, LatencyHistogram> getBidderResponseTimes() {
+        return bidderResponseTimes;
+    }
+
+    public long getAvgColdResponseTime() {
+        return coldResponseCount > 0 ? coldResponseTimeTotal / coldResponseCount : 0;
+    }
+
+    public long getAvgWarmResponseTime() {
+        return warmResponseCount > 0 ? warmResponseTimeTotal / warmResponseCount : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.prebid.mobile.drprebid.export;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * One request of a demand test run and what came back for it.
+ */
+public class Sample {
+    private final long offsetMillis;
+    private final long responseTime;
+    private final int responseCode;
+    private final boolean newConnection;
+    private final boolean containsBids;
+    private final Map<String, Long> bidderResponseTimes;
+
+    /**
+     * @param offsetMillis        when the response arrived, counted from the start of the run
+     * @param bidderResponseTimes the response time the server reported for each bidder
+     */
+    public Sample(long offsetMillis, long responseTime, int responseCode, boolean newConnection, boolean containsBids, Map<String, Long> bidderResponseTimes) {
+        this.offsetMillis = offsetMillis;
+        this.responseTime = responseTime;
+        this.responseCode = responseCode;
+        this.newConnection = newConnection;
+        this.containsBids = containsBids;
+        this.bidderResponseTimes = Collections.unmodifiableMap(bidderResponseTimes);
+    }
+
+    public long getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    public boolean isNewConnection() {
+        return newConnection;
+    }
+
+    public boolean containsBids() {
+        return containsBids;
+    }
+
+    public Map<String, Long> getBidderResponseTimes() {
+        return bidderResponseTimes;
+    }
+}
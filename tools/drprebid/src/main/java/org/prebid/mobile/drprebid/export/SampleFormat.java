@@ -0,0 +1,113 @@
+package org.prebid.mobile.drprebid.export;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Line format of exported demand test runs, shared by the app and the desktop analyzer.
+ * <pre>
+ * # drprebid samples v1
+ * # started=1565000000000 server=APPNEXUS config=... requests=100 concurrency=5 qps=0
+ * offset ms TAB response time ms TAB http code TAB new connection 0|1 TAB bids 0|1 TAB bidder:ms,bidder:ms
+ * </pre>
+ * Header values must not contain spaces, bidder names no tabs, commas or colons.
+ */
+public final class SampleFormat {
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".tsv";
+
+    private static final String COMMENT_PREFIX = "# ";
+    private static final String VERSION_LINE = COMMENT_PREFIX + "drprebid samples v" + VERSION;
+
+    private SampleFormat() {
+    }
+
+    public static String formatVersion() {
+        return VERSION_LINE;
+    }
+
+    public static boolean isVersion(String line) {
+        return VERSION_LINE.equals(line);
+    }
+
+    public static boolean isComment(String line) {
+        return line.startsWith(COMMENT_PREFIX);
+    }
+
+    public static String formatHeader(Map<String, String> header) {
+        StringBuilder builder = new StringBuilder(COMMENT_PREFIX);
+        for (Map.Entry<String, String> entry : header.entrySet()) {
+            if (builder.length() > COMMENT_PREFIX.length()) {
+                builder.append(' ');
+            }
+            builder.append(entry.getKey()).append('=').append(sanitize(entry.getValue(), " "));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the key=value pairs of a header line, empty for other comments
+     */
+    public static Map<String, String> parseHeader(String line) {
+        Map<String, String> header = new LinkedHashMap<>();
+        for (String token : line.substring(COMMENT_PREFIX.length()).split(" ")) {
+            int separator = token.indexOf('=');
+            if (separator > 0) {
+                header.put(token.substring(0, separator), token.substring(separator + 1));
+            }
+        }
+        return header;
+    }
+
+    public static String format(Sample sample) {
+        StringBuilder builder = new StringBuilder(64);
+        builder.append(sample.getOffsetMillis()).append('\t')
+                .append(sample.getResponseTime()).append('\t')
+                .append(sample.getResponseCode()).append('\t')
+                .append(sample.isNewConnection() ? 1 : 0).append('\t')
+                .append(sample.containsBids() ? 1 : 0).append('\t');
+
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : sample.getBidderResponseTimes().entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            builder.append(sanitize(entry.getKey(), "\t,:")).append(':').append(entry.getValue());
+            first = false;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a sample
+     */
+    public static Sample parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Expected 6 fields: " + line);
+        }
+
+        Map<String, Long> bidderResponseTimes = new LinkedHashMap<>();
+        if (!fields[5].isEmpty()) {
+            for (String bidder : fields[5].split(",")) {
+                int separator = bidder.lastIndexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Malformed bidder response time: " + bidder);
+                }
+                bidderResponseTimes.put(bidder.substring(0, separator), Long.parseLong(bidder.substring(separator + 1)));
+            }
+        }
+
+        return new Sample(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Integer.parseInt(fields[2]),
+                "1".equals(fields[3]), "1".equals(fields[4]), bidderResponseTimes);
+    }
+
+    private static String sanitize(String value, String reserved) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            builder.append(reserved.indexOf(c) >= 0 || c == '\n' || c == '\r' ? '_' : c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package org.prebid.mobile.drprebid.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the samples of one run to its own file while the run is going, so nothing but the write buffer
+ * stays in memory. A run file stops growing at {@link #MAX_RUN_BYTES} and only the newest {@link #MAX_RUNS}
+ * run files are kept.
+ * <p>
+ * Not thread safe, samples are written from the thread that aggregates them.
+ */
+public class SampleWriter {
+    public static final int MAX_RUNS = 10;
+    public static final long MAX_RUN_BYTES = 4 * 1024 * 1024;
+
+    private static final String FILE_PREFIX = "run-";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final BufferedWriter writer;
+    private long writtenBytes;
+    private boolean truncated;
+
+    /**
+     * Removes the oldest runs beyond the limit and starts a new run file.
+     */
+    public SampleWriter(File directory, long startedMillis, Map<String, String> header) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        List<File> runs = listRuns(directory);
+        for (int i = 0; i <= runs.size() - MAX_RUNS; i++) {
+            runs.get(i).delete();
+        }
+
+        file = new File(directory, FILE_PREFIX + startedMillis + SampleFormat.FILE_EXTENSION);
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+        writeLine(SampleFormat.formatVersion());
+        writeLine(SampleFormat.formatHeader(header));
+    }
+
+    /**
+     * @return the run files of the directory, oldest first
+     */
+    public static List<File> listRuns(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(SampleFormat.FILE_EXTENSION));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        List<File> runs = new ArrayList<>(Arrays.asList(files));
+        // names differ only in the start time
+        Collections.sort(runs, (first, second) -> Long.compare(getStartedMillis(first), getStartedMillis(second)));
+        return runs;
+    }
+
+    private static long getStartedMillis(File run) {
+        String name = run.getName();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - SampleFormat.FILE_EXTENSION.length()));
+        } catch (NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void write(Sample sample) throws IOException {
+        if (truncated) {
+            return;
+        }
+
+        String line = SampleFormat.format(sample);
+        if (writtenBytes + line.length() + 1 > MAX_RUN_BYTES) {
+            writeLine("# truncated");
+            truncated = true;
+        } else {
+            writeLine(line);
+        }
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        // length in chars, close enough to bytes for the mostly ASCII lines
+        writtenBytes += line.length() + 1;
+    }
+}
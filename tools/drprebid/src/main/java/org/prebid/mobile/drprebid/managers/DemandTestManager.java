@@ -1,19 +1,37 @@
 package org.prebid.mobile.drprebid.managers;
 
+import org.prebid.mobile.drprebid.async.ConnectionTracker;
 import org.prebid.mobile.drprebid.async.MainThreadExecutor;
+import org.prebid.mobile.drprebid.model.LoadTestSettings;
+import org.prebid.mobile.drprebid.replay.RecordingInterceptor;
 
+import java.util.Arrays;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
 public class DemandTestManager {
     private final ThreadPoolExecutor requestThreadPool;
     private final BlockingQueue<Runnable> requestQueue;
+    private final OkHttpClient httpClient;
+    private final RecordingInterceptor recordingInterceptor;
+    private final ScheduledExecutorService pacingExecutor;
+    private final ExecutorService aggregationExecutor;
 
     private static final int CORE_POOL_SIZE = 5;
     private static final int MAX_POOL_SIZE = 5;
     private static final int KEEP_ALIVE_TIME = 50;
+    private static final int CONNECTION_KEEP_ALIVE_MINUTES = 5;
 
     private static DemandTestManager testManager;
     private static MainThreadExecutor handler;
@@ -26,6 +44,16 @@ public class DemandTestManager {
     private DemandTestManager() {
         requestQueue = new LinkedBlockingQueue<>();
         requestThreadPool = new ThreadPoolExecutor(CORE_POOL_SIZE, MAX_POOL_SIZE, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, requestQueue);
+        // one client for all demand tests, so that requests reuse pooled (HTTP/2 multiplexed) connections like the SDK does
+        recordingInterceptor = new RecordingInterceptor();
+        httpClient = new OkHttpClient.Builder()
+                .addInterceptor(recordingInterceptor)
+                .connectionPool(new ConnectionPool(LoadTestSettings.MAX_CONCURRENCY, CONNECTION_KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .eventListenerFactory(ConnectionTracker.FACTORY)
+                .build();
+        pacingExecutor = Executors.newSingleThreadScheduledExecutor();
+        aggregationExecutor = Executors.newSingleThreadExecutor();
     }
 
     public static DemandTestManager getInstance() {
@@ -36,7 +64,45 @@ public class DemandTestManager {
         return handler;
     }
 
+    /**
+     * Runs one task at a time, so results can be aggregated on it without locking and without blocking the UI.
+     */
+    public Executor getAggregationExecutor() {
+        return aggregationExecutor;
+    }
+
+    /**
+     * Records the exchanges of the demand test client while a recording is set.
+     */
+    public RecordingInterceptor getRecordingInterceptor() {
+        return recordingInterceptor;
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
     public void runRequest(Runnable task) {
         requestThreadPool.execute(task);
     }
+
+    /**
+     * Sets how many requests run at the same time, further requests wait in the queue.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency > requestThreadPool.getMaximumPoolSize()) {
+            requestThreadPool.setMaximumPoolSize(concurrency);
+            requestThreadPool.setCorePoolSize(concurrency);
+        } else {
+            requestThreadPool.setCorePoolSize(concurrency);
+            requestThreadPool.setMaximumPoolSize(concurrency);
+        }
+    }
+
+    /**
+     * Runs the pacing task at a fixed rate, independent of how long the requests it starts take.
+     */
+    public ScheduledFuture<?> schedulePacing(Runnable pacingTask, long periodNanos) {
+        return pacingExecutor.scheduleAtFixedRate(pacingTask, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
 }
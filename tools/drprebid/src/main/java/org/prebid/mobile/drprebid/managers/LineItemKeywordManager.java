@@ -1,6 +1,7 @@
 package org.prebid.mobile.drprebid.managers;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.net.Uri;
 import android.text.TextUtils;
 import android.util.Log;
@@ -8,6 +9,7 @@ import android.util.Log;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.prebid.mobile.drprebid.Constants;
 import org.prebid.mobile.drprebid.model.AdFormat;
 import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.PrebidServer;
@@ -16,9 +18,17 @@ import org.prebid.mobile.drprebid.util.IOUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -50,9 +60,29 @@ public class LineItemKeywordManager {
     public static final String CREATIVE_320x480 = "{\"id\":\"7438652069000399098\",\"impid\":\"Home\",\"price\":0.5,\"adm\":\"<script type=\\\"text/javascript\\\">document.write('<a href=\\\"http://prebid.org\\\" target=\\\"_blank\\\"><img width=\\\"320\\\" height=\\\"480\\\" style=\\\"border-style: none\\\" src=\\\"https://vcdn.adnxs.com/p/creative-image/27/c0/52/67/27c05267-5a6d-4874-834e-18e218493c32.png\\\"/></a>');</script>\",\"adid\":\"29681110\",\"adomain\":[\"appnexus.com\"],\"iurl\":\"https://nym1-ib.adnxs.com/cr?id=29681110\",\"cid\":\"958\",\"crid\":\"29681110\",\"w\":320,\"h\":480}";
     public static final String CREATIVE_728x90 = "{\"id\":\"7438652069000399098\",\"impid\":\"Home\",\"price\":0.5,\"adm\":\"<script type=\\\"text/javascript\\\">document.write('<a href=\\\"http://prebid.org\\\" target=\\\"_blank\\\"><img width=\\\"7280\\\" height=\\\"90\\\" style=\\\"border-style: none\\\" src=\\\"https://vcdn.adnxs.com/p/creative-image/27/c0/52/67/27c05267-5a6d-4874-834e-18e218493c32.png\\\"/></a>');</script>\",\"adid\":\"29681110\",\"adomain\":[\"appnexus.com\"],\"iurl\":\"https://nym1-ib.adnxs.com/cr?id=29681110\",\"cid\":\"958\",\"crid\":\"29681110\",\"w\":728,\"h\":90}";
 
-    private Map<String, String> mAppNexusCacheIds;
-    private Map<String, String> mRubiconCacheIds;
-    private Map<String, String> mCustomServerCacheIds;
+    private static final String PREFERENCES_NAME = "dr_prebid_cache_ids";
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+    private static final int CACHE_TTL_SECONDS = 3600;
+    // ids are replaced once less than this is left, so that a test never runs with an id about to expire
+    private static final long REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Map<String, String> CREATIVES = new LinkedHashMap<>();
+
+    static {
+        CREATIVES.put("300x250", CREATIVE_300x250);
+        CREATIVES.put("300x600", CREATIVE_300x600);
+        CREATIVES.put("320x50", CREATIVE_320x50);
+        CREATIVES.put("320x100", CREATIVE_320x100);
+        CREATIVES.put("320x480", CREATIVE_320x480);
+        CREATIVES.put("728x90", CREATIVE_728x90);
+    }
+
+    private final OkHttpClient mHttpClient = new OkHttpClient();
+    // cache endpoint -> size -> id, written from OkHttp callbacks and read by the tests
+    private final Map<String, Map<String, CacheId>> mCacheIds = new ConcurrentHashMap<>();
+    private final Set<String> mUploadingEndpoints = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private SharedPreferences mSharedPreferences;
+    private volatile String mCustomCacheEndpoint;
 
     private static LineItemKeywordManager sInstance;
 
@@ -67,244 +97,206 @@ public class LineItemKeywordManager {
         return sInstance;
     }
 
-    public void refreshCacheIds(Context context) {
-        mAppNexusCacheIds = new HashMap<>();
-        mRubiconCacheIds = new HashMap<>();
-        mCustomServerCacheIds = new HashMap<>();
+    /**
+     * Uploads the test creatives to every cache that has no id for them or whose id is close to expiry.
+     * <p>
+     * Ids of earlier runs are kept with their expiry, so that usually nothing is uploaded and the tests can use the
+     * ids right away. Stale sizes are sent in one request per cache, the caches are updated concurrently.
+     */
+    public synchronized void refreshCacheIds(Context context) {
+        if (mSharedPreferences == null) {
+            mSharedPreferences = context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+            loadCacheIds();
+        }
 
         PrebidServerSettings serverSettings = SettingsManager.getInstance(context).getPrebidServerSettings();
-        String customServerCacheUrl = null;
-        if (TextUtils.isEmpty(serverSettings.getCustomPrebidServerUrl())) {
+        mCustomCacheEndpoint = null;
+        if (!TextUtils.isEmpty(serverSettings.getCustomPrebidServerUrl())) {
             Uri.Builder uriBuilder = Uri.parse(serverSettings.getCustomPrebidServerUrl()).buildUpon();
             uriBuilder.appendPath("cache");
 
-            customServerCacheUrl = uriBuilder.build().toString();
+            mCustomCacheEndpoint = uriBuilder.build().toString();
         }
 
-        try {
-            JSONObject creative300x250 = new JSONObject(CREATIVE_300x250);
-            JSONObject content300x250 = new JSONObject();
-            content300x250.put("type", "json");
-            content300x250.put("value", creative300x250);
-
-            JSONObject creative300x600 = new JSONObject(CREATIVE_300x600);
-            JSONObject content300x600 = new JSONObject();
-            content300x600.put("type", "json");
-            content300x600.put("value", creative300x600);
-
-            JSONObject creative320x50 = new JSONObject(CREATIVE_320x50);
-            JSONObject content320x50 = new JSONObject();
-            content320x50.put("type", "json");
-            content320x50.put("value", creative320x50);
-
-            JSONObject creative320x100 = new JSONObject(CREATIVE_320x100);
-            JSONObject content320x100 = new JSONObject();
-            content320x100.put("type", "json");
-            content320x100.put("value", creative320x100);
-
-            JSONObject creative320x480 = new JSONObject(CREATIVE_320x480);
-            JSONObject content320x480 = new JSONObject();
-            content320x480.put("type", "json");
-            content320x480.put("value", creative320x480);
-
-            JSONObject creative728x90 = new JSONObject(CREATIVE_728x90);
-            JSONObject content728x90 = new JSONObject();
-            content728x90.put("type", "json");
-            content728x90.put("value", creative728x90);
+        refreshCacheIds(CACHE_ENDPOINT_APPNEXUS);
+        refreshCacheIds(CACHE_ENDPOINT_RUBICON);
+        if (mCustomCacheEndpoint != null) {
+            refreshCacheIds(mCustomCacheEndpoint);
+        }
+    }
+
+    private void refreshCacheIds(final String endpoint) {
+        long refreshTime = System.currentTimeMillis() + REFRESH_MARGIN_MILLIS;
+        Map<String, CacheId> cacheIds = mCacheIds.get(endpoint);
 
+        final List<String> staleSizes = new ArrayList<>();
+        for (String size : CREATIVES.keySet()) {
+            CacheId cacheId = cacheIds != null ? cacheIds.get(size) : null;
+            if (cacheId == null || cacheId.expiryMillis < refreshTime) {
+                staleSizes.add(size);
+            }
+        }
+
+        // an upload already running for this cache refreshes the same sizes
+        if (staleSizes.isEmpty() || !mUploadingEndpoints.add(endpoint)) {
+            return;
+        }
+
+        String postBody;
+        try {
             JSONArray contentArray = new JSONArray();
-            contentArray.put(content300x250);
-            contentArray.put(content300x600);
-            contentArray.put(content320x50);
-            contentArray.put(content320x100);
-            contentArray.put(content320x480);
-            contentArray.put(content728x90);
+            for (String size : staleSizes) {
+                JSONObject content = new JSONObject();
+                content.put("type", "json");
+                content.put("value", new JSONObject(CREATIVES.get(size)));
+                content.put("ttlseconds", CACHE_TTL_SECONDS);
+                contentArray.put(content);
+            }
 
             JSONObject postObject = new JSONObject();
             postObject.put("puts", contentArray);
+            postBody = postObject.toString();
+        } catch (JSONException exception) {
+            Log.e(TAG, exception.getMessage());
+            mUploadingEndpoints.remove(endpoint);
+            return;
+        }
 
-            String postBody = postObject.toString();
-
-            MediaType jsonMediaType = MediaType.parse("application/json");
-            OkHttpClient client = new OkHttpClient.Builder().build();
-            RequestBody body = RequestBody.create(jsonMediaType, postBody);
-
-            Request appNexusRequest = new Request.Builder()
-                    .url(CACHE_ENDPOINT_APPNEXUS)
-                    .post(body)
-                    .build();
+        Request request = new Request.Builder()
+                .url(endpoint)
+                .post(RequestBody.create(JSON_MEDIA_TYPE, postBody))
+                .build();
 
-            Request rubiconRequest = new Request.Builder()
-                    .url(CACHE_ENDPOINT_RUBICON)
-                    .post(body)
-                    .build();
+        // expiry counts from before the upload, the cache may have stored the creatives a little later
+        final long expiryMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(CACHE_TTL_SECONDS);
 
-            client.newCall(appNexusRequest).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    Log.e(TAG, e.getMessage());
-                }
+        mHttpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.e(TAG, e.getMessage());
+                mUploadingEndpoints.remove(endpoint);
+            }
 
-                @Override
-                public void onResponse(Call call, Response response) throws IOException {
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try {
                     if (response.body() != null) {
                         InputStream inputStream = response.body().byteStream();
                         String responseText = IOUtil.getStringFromStream(inputStream);
                         inputStream.close();
 
-                        try {
-                            JSONObject responseJson = new JSONObject(responseText);
-                            JSONArray uuids = responseJson.getJSONArray("responses");
+                        JSONArray uuids = new JSONObject(responseText).getJSONArray("responses");
 
-                            mAppNexusCacheIds.put("300x250", uuids.getJSONObject(0).getString("uuid"));
-                            mAppNexusCacheIds.put("300x600", uuids.getJSONObject(1).getString("uuid"));
-                            mAppNexusCacheIds.put("320x50", uuids.getJSONObject(2).getString("uuid"));
-                            mAppNexusCacheIds.put("320x100", uuids.getJSONObject(3).getString("uuid"));
-                            mAppNexusCacheIds.put("320x480", uuids.getJSONObject(4).getString("uuid"));
-                            mAppNexusCacheIds.put("728x90", uuids.getJSONObject(5).getString("uuid"));
-
-                        } catch (JSONException exception) {
-                            Log.e(TAG, exception.getMessage());
+                        Map<String, CacheId> cacheIds = mCacheIds.get(endpoint);
+                        if (cacheIds == null) {
+                            cacheIds = new ConcurrentHashMap<>();
+                            mCacheIds.put(endpoint, cacheIds);
+                        }
+                        for (int i = 0; i < staleSizes.size() && i < uuids.length(); i++) {
+                            cacheIds.put(staleSizes.get(i), new CacheId(uuids.getJSONObject(i).getString("uuid"), expiryMillis));
                         }
-                    }
-                }
-            });
 
-            client.newCall(rubiconRequest).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    Log.e(TAG, e.getMessage());
+                        saveCacheIds();
+                    }
+                } catch (JSONException exception) {
+                    Log.e(TAG, exception.getMessage());
+                } finally {
+                    response.close();
+                    mUploadingEndpoints.remove(endpoint);
                 }
+            }
+        });
+    }
 
-                @Override
-                public void onResponse(Call call, Response response) throws IOException {
-                    if (response.body() != null) {
-                        InputStream inputStream = response.body().byteStream();
-                        String responseText = IOUtil.getStringFromStream(inputStream);
-                        inputStream.close();
-
-                        try {
-                            JSONObject responseJson = new JSONObject(responseText);
-                            JSONArray uuids = responseJson.getJSONArray("responses");
-
-                            mRubiconCacheIds.put("300x250", uuids.getJSONObject(0).getString("uuid"));
-                            mRubiconCacheIds.put("300x600", uuids.getJSONObject(1).getString("uuid"));
-                            mRubiconCacheIds.put("320x50", uuids.getJSONObject(2).getString("uuid"));
-                            mRubiconCacheIds.put("320x100", uuids.getJSONObject(3).getString("uuid"));
-                            mRubiconCacheIds.put("320x480", uuids.getJSONObject(4).getString("uuid"));
-                            mRubiconCacheIds.put("728x90", uuids.getJSONObject(5).getString("uuid"));
+    private void loadCacheIds() {
+        String stored = mSharedPreferences.getString(Constants.Preferences.LINE_ITEM_CACHE_IDS, null);
+        if (stored == null) {
+            return;
+        }
 
-                        } catch (JSONException exception) {
-                            Log.e(TAG, exception.getMessage());
-                        }
+        try {
+            long now = System.currentTimeMillis();
+            JSONObject endpoints = new JSONObject(stored);
+            Iterator<String> endpointIterator = endpoints.keys();
+            while (endpointIterator.hasNext()) {
+                String endpoint = endpointIterator.next();
+                JSONObject sizes = endpoints.getJSONObject(endpoint);
+
+                Map<String, CacheId> cacheIds = new ConcurrentHashMap<>();
+                Iterator<String> sizeIterator = sizes.keys();
+                while (sizeIterator.hasNext()) {
+                    String size = sizeIterator.next();
+                    JSONObject cacheId = sizes.getJSONObject(size);
+                    long expiryMillis = cacheId.getLong("expiry");
+                    if (expiryMillis > now) {
+                        cacheIds.put(size, new CacheId(cacheId.getString("uuid"), expiryMillis));
                     }
                 }
-            });
-
-            if (!TextUtils.isEmpty(customServerCacheUrl)) {
-                Request customRequest = new Request.Builder()
-                        .url(customServerCacheUrl)
-                        .post(body)
-                        .build();
-
-                client.newCall(customRequest).enqueue(new Callback() {
-                    @Override
-                    public void onFailure(Call call, IOException e) {
-                        Log.e(TAG, e.getMessage());
-                    }
-
-                    @Override
-                    public void onResponse(Call call, Response response) throws IOException {
-                        if (response.body() != null) {
-                            InputStream inputStream = response.body().byteStream();
-                            String responseText = IOUtil.getStringFromStream(inputStream);
-                            inputStream.close();
-
-                            try {
-                                JSONObject responseJson = new JSONObject(responseText);
-                                JSONArray uuids = responseJson.getJSONArray("responses");
-
-                                mCustomServerCacheIds.put("300x250", uuids.getJSONObject(0).getString("uuid"));
-                                mCustomServerCacheIds.put("300x600", uuids.getJSONObject(1).getString("uuid"));
-                                mCustomServerCacheIds.put("320x50", uuids.getJSONObject(2).getString("uuid"));
-                                mCustomServerCacheIds.put("320x100", uuids.getJSONObject(3).getString("uuid"));
-                                mCustomServerCacheIds.put("320x480", uuids.getJSONObject(4).getString("uuid"));
-                                mCustomServerCacheIds.put("728x90", uuids.getJSONObject(5).getString("uuid"));
-
-                            } catch (JSONException exception) {
-                                Log.e(TAG, exception.getMessage());
-                            }
-                        }
-                    }
-                });
+                mCacheIds.put(endpoint, cacheIds);
             }
-        } catch (Exception exception) {
+        } catch (JSONException exception) {
             Log.e(TAG, exception.getMessage());
         }
     }
 
-    public String getStringKeywords(float bidPrice, AdSize adSize, AdFormat adFormat, PrebidServer prebidServer) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        if (prebidServer == PrebidServer.RUBICON) {
-            if (mRubiconCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mRubiconCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
-                } else {
-                    String cacheId = mRubiconCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
+    private synchronized void saveCacheIds() {
+        try {
+            JSONObject endpoints = new JSONObject();
+            for (Map.Entry<String, Map<String, CacheId>> endpoint : mCacheIds.entrySet()) {
+                JSONObject sizes = new JSONObject();
+                for (Map.Entry<String, CacheId> size : endpoint.getValue().entrySet()) {
+                    sizes.put(size.getKey(), new JSONObject()
+                            .put("uuid", size.getValue().uuid)
+                            .put("expiry", size.getValue().expiryMillis));
                 }
-            } else {
-                stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(FAKE_CACHE_ID);
+                endpoints.put(endpoint.getKey(), sizes);
             }
+
+            mSharedPreferences.edit().putString(Constants.Preferences.LINE_ITEM_CACHE_IDS, endpoints.toString()).apply();
+        } catch (JSONException exception) {
+            Log.e(TAG, exception.getMessage());
+        }
+    }
+
+    /**
+     * @return the id of the creative for the ad size in the cache of the server, {@link #FAKE_CACHE_ID} if there is no valid one
+     */
+    private String getCacheId(AdSize adSize, AdFormat adFormat, PrebidServer prebidServer) {
+        String endpoint;
+        if (prebidServer == PrebidServer.RUBICON) {
+            endpoint = CACHE_ENDPOINT_RUBICON;
         } else if (prebidServer == PrebidServer.APPNEXUS) {
-            if (mAppNexusCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mAppNexusCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
-                } else {
-                    String cacheId = mAppNexusCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
-                }
-            } else {
-                stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(FAKE_CACHE_ID);
-            }
+            endpoint = CACHE_ENDPOINT_APPNEXUS;
         } else {
-            if (mCustomServerCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mCustomServerCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
-                } else {
-                    String cacheId = mCustomServerCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(cacheId);
-                    }
-                }
-            } else {
-                stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(FAKE_CACHE_ID);
-            }
+            endpoint = mCustomCacheEndpoint;
         }
 
-        stringBuilder.append(KEYWORD_COMMA);
-        stringBuilder.append(KEYWORD_PRICE).append(KEYWORD_DIVIDER).append(String.format(Locale.ENGLISH, "%.02f", bidPrice));
+        Map<String, CacheId> cacheIds = endpoint != null ? mCacheIds.get(endpoint) : null;
+        CacheId cacheId = cacheIds != null ? cacheIds.get(getSize(adSize, adFormat)) : null;
+        if (cacheId == null || cacheId.expiryMillis <= System.currentTimeMillis()) {
+            return FAKE_CACHE_ID;
+        }
+        return cacheId.uuid;
+    }
 
-        stringBuilder.append(KEYWORD_COMMA);
+    private static String getSize(AdSize adSize, AdFormat adFormat) {
         if (adFormat == AdFormat.INTERSTITIAL) {
-            stringBuilder.append(KEYWORD_SIZE_KEY).append(KEYWORD_DIVIDER).append("320x480");
+            return "320x480";
         } else {
-            stringBuilder.append(KEYWORD_SIZE_KEY).append(KEYWORD_DIVIDER).append(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
+            return String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight());
         }
+    }
+
+    public String getStringKeywords(float bidPrice, AdSize adSize, AdFormat adFormat, PrebidServer prebidServer) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        stringBuilder.append(KEYWORD_CACHE_ID).append(KEYWORD_DIVIDER).append(getCacheId(adSize, adFormat, prebidServer));
+
+        stringBuilder.append(KEYWORD_COMMA);
+        stringBuilder.append(KEYWORD_PRICE).append(KEYWORD_DIVIDER).append(String.format(Locale.ENGLISH, "%.02f", bidPrice));
+
+        stringBuilder.append(KEYWORD_COMMA);
+        stringBuilder.append(KEYWORD_SIZE_KEY).append(KEYWORD_DIVIDER).append(getSize(adSize, adFormat));
 
         return stringBuilder.toString();
     }
@@ -312,64 +304,20 @@ public class LineItemKeywordManager {
     public Map<String, String> getMapKeywords(float bidPrice, AdSize adSize, AdFormat adFormat, PrebidServer prebidServer) {
         Map<String, String> keywords = new HashMap<>();
 
-        if (prebidServer == PrebidServer.RUBICON) {
-            if (mRubiconCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mRubiconCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                } else {
-                    String cacheId = mRubiconCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                }
-            } else {
-                keywords.put(KEYWORD_CACHE_ID, FAKE_CACHE_ID);
-            }
-        } else if (prebidServer == PrebidServer.APPNEXUS) {
-            if (mAppNexusCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mAppNexusCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                } else {
-                    String cacheId = mAppNexusCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                }
-            } else {
-                keywords.put(KEYWORD_CACHE_ID, FAKE_CACHE_ID);
-            }
-        } else {
-            if (mCustomServerCacheIds != null) {
-                if (adFormat == AdFormat.INTERSTITIAL) {
-                    String cacheId = mCustomServerCacheIds.get("320x480");
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                } else {
-                    String cacheId = mCustomServerCacheIds.get(String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-                    if (!TextUtils.isEmpty(cacheId)) {
-                        keywords.put(KEYWORD_CACHE_ID, cacheId);
-                    }
-                }
-            } else {
-                keywords.put(KEYWORD_CACHE_ID, FAKE_CACHE_ID);
-            }
-        }
-
+        keywords.put(KEYWORD_CACHE_ID, getCacheId(adSize, adFormat, prebidServer));
         keywords.put(KEYWORD_PRICE, String.format(Locale.ENGLISH, "%.02f", bidPrice));
-
-        if (adFormat == AdFormat.INTERSTITIAL) {
-            keywords.put(KEYWORD_SIZE_KEY, "320x480");
-        } else {
-            keywords.put(KEYWORD_SIZE_KEY, String.format(Locale.ENGLISH, "%dx%d", adSize.getWidth(), adSize.getHeight()));
-        }
+        keywords.put(KEYWORD_SIZE_KEY, getSize(adSize, adFormat));
 
         return keywords;
     }
+
+    private static class CacheId {
+        private final String uuid;
+        private final long expiryMillis;
+
+        CacheId(String uuid, long expiryMillis) {
+            this.uuid = uuid;
+            this.expiryMillis = expiryMillis;
+        }
+    }
 }
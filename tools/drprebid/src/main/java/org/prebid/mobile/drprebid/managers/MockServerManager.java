@@ -0,0 +1,166 @@
+package org.prebid.mobile.drprebid.managers;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.prebid.mobile.drprebid.model.MockServerMode;
+import org.prebid.mobile.drprebid.replay.Recording;
+import org.prebid.mobile.drprebid.replay.ReplayServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the Prebid Server exchanges of the demand test, or replays the latest recording from a local
+ * server to the demand test and the SDK test instead of the live Prebid Server.
+ */
+public class MockServerManager {
+    private static final String TAG = MockServerManager.class.getSimpleName();
+
+    private static final String RECORDINGS_DIRECTORY = "mock_server_recordings";
+    private static final String FILE_PREFIX = "recording-";
+    private static final String FILE_EXTENSION = ".json";
+    private static final int MAX_RECORDINGS = 5;
+
+    private final File mRecordingsDirectory;
+    private MockServerMode mMode = MockServerMode.LIVE;
+    private Recording mRecording;
+    private ReplayServer mReplayServer;
+    private String mReplayAuctionPath;
+
+    private static volatile MockServerManager sInstance;
+    private static final Object mutex = new Object();
+
+    public static MockServerManager getInstance(Context context) {
+        MockServerManager result = sInstance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = sInstance;
+                if (result == null) {
+                    sInstance = result = new MockServerManager(context.getApplicationContext());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private MockServerManager(Context context) {
+        mRecordingsDirectory = new File(context.getFilesDir(), RECORDINGS_DIRECTORY);
+    }
+
+    /**
+     * Starts recording or replaying before the tests run.
+     *
+     * @return the mode in effect, {@link MockServerMode#LIVE} if replay was requested without a usable recording
+     */
+    public synchronized MockServerMode start(MockServerMode mode) {
+        stop();
+
+        if (mode == MockServerMode.RECORD) {
+            mRecording = new Recording();
+            DemandTestManager.getInstance().getRecordingInterceptor().setRecording(mRecording);
+        } else if (mode == MockServerMode.REPLAY) {
+            File file = getLatestRecordingFile();
+            if (file == null) {
+                Log.w(TAG, "Nothing recorded yet, using the live Prebid Server");
+                return mMode;
+            }
+
+            try {
+                Recording recording = Recording.load(file);
+                if (recording.isEmpty()) {
+                    Log.w(TAG, "Empty recording " + file + ", using the live Prebid Server");
+                    return mMode;
+                }
+                mReplayServer = new ReplayServer(recording);
+                mReplayServer.start();
+                // recordings only hold auctions, whichever server they came from
+                mReplayAuctionPath = recording.getExchanges().get(0).getPath();
+            } catch (IOException exception) {
+                Log.e(TAG, "Cannot replay " + file + ": " + exception.getMessage());
+                mReplayServer = null;
+                return mMode;
+            }
+        }
+
+        mMode = mode;
+        return mMode;
+    }
+
+    /**
+     * Saves the recording, if any, and stops the replay server.
+     */
+    public synchronized void stop() {
+        if (mRecording != null) {
+            DemandTestManager.getInstance().getRecordingInterceptor().setRecording(null);
+            final Recording recording = mRecording;
+            if (!recording.isEmpty()) {
+                DemandTestManager.getInstance().getAggregationExecutor().execute(() -> save(recording));
+            }
+            mRecording = null;
+        }
+
+        if (mReplayServer != null) {
+            mReplayServer.shutdown();
+            mReplayServer = null;
+        }
+
+        mMode = MockServerMode.LIVE;
+    }
+
+    /**
+     * @return the auction endpoint to use instead of the live one, the same URL unless replaying
+     */
+    public synchronized String getAuctionUrl(String liveUrl) {
+        return mReplayServer != null ? mReplayServer.getUrl() + mReplayAuctionPath : liveUrl;
+    }
+
+    public synchronized boolean isReplaying() {
+        return mReplayServer != null;
+    }
+
+    public File getLatestRecordingFile() {
+        List<File> recordings = listRecordings();
+        return recordings.isEmpty() ? null : recordings.get(recordings.size() - 1);
+    }
+
+    private void save(Recording recording) {
+        if (!mRecordingsDirectory.isDirectory() && !mRecordingsDirectory.mkdirs()) {
+            Log.e(TAG, "Cannot create " + mRecordingsDirectory);
+            return;
+        }
+
+        List<File> recordings = listRecordings();
+        for (int i = 0; i <= recordings.size() - MAX_RECORDINGS; i++) {
+            recordings.get(i).delete();
+        }
+
+        File file = new File(mRecordingsDirectory, FILE_PREFIX + System.currentTimeMillis() + FILE_EXTENSION);
+        try {
+            recording.save(file);
+        } catch (IOException exception) {
+            Log.e(TAG, "Cannot save the recording: " + exception.getMessage());
+            file.delete();
+        }
+    }
+
+    /**
+     * @return recordings oldest first
+     */
+    private List<File> listRecordings() {
+        File[] files = mRecordingsDirectory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_EXTENSION));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        List<File> recordings = new ArrayList<>(Arrays.asList(files));
+        // same length prefix and timestamps of the same magnitude, so names sort by time
+        Collections.sort(recordings);
+        return recordings;
+    }
+}
@@ -1,5 +1,7 @@
 package org.prebid.mobile.drprebid.managers;
 
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MutableLiveData;
 import android.content.Context;
 import android.content.SharedPreferences;
 
@@ -9,12 +11,24 @@ import org.prebid.mobile.drprebid.model.AdServer;
 import org.prebid.mobile.drprebid.model.AdServerSettings;
 import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.GeneralSettings;
+import org.prebid.mobile.drprebid.model.LoadTestSettings;
+import org.prebid.mobile.drprebid.model.MockServerMode;
 import org.prebid.mobile.drprebid.model.PrebidServer;
 import org.prebid.mobile.drprebid.model.PrebidServerSettings;
+import org.prebid.mobile.drprebid.model.SettingsSnapshot;
 
+/**
+ * Settings are read from the preferences once and kept in memory, reads don't touch the preferences again. Every change
+ * replaces the in memory settings, is written to the preferences in the background and is posted to
+ * {@link #getSettings()} observers.
+ */
 public class SettingsManager {
     private static final String PREFERENCES_NAME = "dr_prebid_settings";
+    private static final int DEFAULT_SWEEP_REQUESTS_PER_CONFIG = 10;
+    private static final int DEFAULT_SWEEP_MAX_QPS = 20;
     private final SharedPreferences mSharedPreferences;
+    private final MutableLiveData<SettingsSnapshot> mSettingsData;
+    private volatile SettingsSnapshot mSettings;
 
     private static volatile SettingsManager sInstance;
     private static final Object mutex = new Object();
@@ -35,127 +49,240 @@ public class SettingsManager {
 
     private SettingsManager(Context context) {
         mSharedPreferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        mSettings = loadSettings();
+        mSettingsData = new MutableLiveData<>();
+        // the first caller may not be on the main thread
+        mSettingsData.postValue(mSettings);
+    }
+
+    /**
+     * @return the current settings, to be used unchanged for a whole test run
+     */
+    public SettingsSnapshot getSnapshot() {
+        return mSettings;
+    }
+
+    /**
+     * @return the settings, updated after every change
+     */
+    public LiveData<SettingsSnapshot> getSettings() {
+        return mSettingsData;
     }
 
     public GeneralSettings getGeneralSettings() {
-        GeneralSettings settings = new GeneralSettings();
+        return mSettings.getGeneralSettings();
+    }
+
+    public AdServerSettings getAdServerSettings() {
+        return mSettings.getAdServerSettings();
+    }
+
+    public PrebidServerSettings getPrebidServerSettings() {
+        return mSettings.getPrebidServerSettings();
+    }
+
+    public LoadTestSettings getLoadTestSettings() {
+        return mSettings.getLoadTestSettings();
+    }
+
+    public MockServerMode getMockServerMode() {
+        return mSettings.getMockServerMode();
+    }
+
+    public String getSweepConfigs() {
+        return mSettings.getSweepConfigs();
+    }
+
+    public int getSweepRequestsPerConfig() {
+        return mSettings.getSweepRequestsPerConfig();
+    }
+
+    public int getSweepMaxQps() {
+        return mSettings.getSweepMaxQps();
+    }
+
+    public synchronized void setAdFormat(AdFormat adFormat) {
+        mSettings = mSettings.buildUpon().setAdFormat(adFormat).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.AD_FORMAT, adFormat.getCode()).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setAdSize(AdSize adSize) {
+        mSettings = mSettings.buildUpon().setAdSize(adSize).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.AD_SIZE, adSize.getCode()).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setAdServer(AdServer adServer) {
+        mSettings = mSettings.buildUpon().setAdServer(adServer).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.AD_SERVER, adServer.getCode()).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setBidPrice(float bidPrice) {
+        mSettings = mSettings.buildUpon().setBidPrice(bidPrice).build();
+        mSharedPreferences.edit().putFloat(Constants.Settings.BID_PRICE, bidPrice).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setAdUnitId(String adUnitId) {
+        mSettings = mSettings.buildUpon().setAdUnitId(adUnitId).build();
+        mSharedPreferences.edit().putString(Constants.Settings.AD_UNIT_ID, adUnitId).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setPrebidServer(PrebidServer prebidServer) {
+        mSettings = mSettings.buildUpon().setPrebidServer(prebidServer).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.PREBID_SERVER, prebidServer.getCode()).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setPrebidServerCustomUrl(String customUrl) {
+        mSettings = mSettings.buildUpon().setCustomPrebidServerUrl(customUrl).build();
+        mSharedPreferences.edit().putString(Constants.Settings.PREBID_SERVER_CUSTOM_URL, customUrl).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setAccountId(String accountId) {
+        mSettings = mSettings.buildUpon().setAccountId(accountId).build();
+        mSharedPreferences.edit().putString(Constants.Settings.ACCOUNT_ID, accountId).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setConfigId(String configId) {
+        mSettings = mSettings.buildUpon().setConfigId(configId).build();
+        mSharedPreferences.edit().putString(Constants.Settings.CONFIG_ID, configId).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setLoadTestRequestCount(int requestCount) {
+        int clampedRequestCount = clampRequestCount(requestCount);
+        mSettings = mSettings.buildUpon().setLoadTestRequestCount(clampedRequestCount).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.LOAD_TEST_REQUEST_COUNT, clampedRequestCount).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setLoadTestConcurrency(int concurrency) {
+        int clampedConcurrency = clampConcurrency(concurrency);
+        mSettings = mSettings.buildUpon().setLoadTestConcurrency(clampedConcurrency).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.LOAD_TEST_CONCURRENCY, clampedConcurrency).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setLoadTestTargetQps(int targetQps) {
+        int clampedTargetQps = Math.max(0, targetQps);
+        mSettings = mSettings.buildUpon().setLoadTestTargetQps(clampedTargetQps).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.LOAD_TEST_TARGET_QPS, clampedTargetQps).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setMockServerMode(MockServerMode mode) {
+        mSettings = mSettings.buildUpon().setMockServerMode(mode).build();
+        mSharedPreferences.edit().putInt(Constants.Settings.MOCK_SERVER_MODE, mode.getCode()).apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    public synchronized void setSweep(String configs, int requestsPerConfig, int maxQps) {
+        int clampedRequestsPerConfig = Math.max(1, requestsPerConfig);
+        int clampedMaxQps = Math.max(1, maxQps);
+        mSettings = mSettings.buildUpon()
+                .setSweepConfigs(configs)
+                .setSweepRequestsPerConfig(clampedRequestsPerConfig)
+                .setSweepMaxQps(clampedMaxQps)
+                .build();
+        mSharedPreferences.edit()
+                .putString(Constants.Settings.SWEEP_CONFIGS, configs)
+                .putInt(Constants.Settings.SWEEP_REQUESTS_PER_CONFIG, clampedRequestsPerConfig)
+                .putInt(Constants.Settings.SWEEP_MAX_QPS, clampedMaxQps)
+                .apply();
+        mSettingsData.postValue(mSettings);
+    }
+
+    private SettingsSnapshot loadSettings() {
+        SettingsSnapshot.Builder builder = new SettingsSnapshot.Builder();
 
         switch (mSharedPreferences.getInt(Constants.Settings.AD_FORMAT, Constants.Settings.AdFormatCodes.BANNER)) {
-            case Constants.Settings.AdFormatCodes.BANNER:
-                settings.setAdFormat(AdFormat.BANNER);
-                break;
             case Constants.Settings.AdFormatCodes.INTERSTITIAL:
-                settings.setAdFormat(AdFormat.INTERSTITIAL);
+                builder.setAdFormat(AdFormat.INTERSTITIAL);
                 break;
+            case Constants.Settings.AdFormatCodes.BANNER:
             default:
-                settings.setAdFormat(AdFormat.BANNER);
+                builder.setAdFormat(AdFormat.BANNER);
         }
 
         switch (mSharedPreferences.getInt(Constants.Settings.AD_SIZE, Constants.Settings.AdSizeCodes.SIZE_300x250)) {
-            case Constants.Settings.AdSizeCodes.SIZE_300x250:
-                settings.setAdSize(AdSize.BANNER_300x250);
-                break;
             case Constants.Settings.AdSizeCodes.SIZE_300x600:
-                settings.setAdSize(AdSize.BANNER_300x600);
+                builder.setAdSize(AdSize.BANNER_300x600);
                 break;
             case Constants.Settings.AdSizeCodes.SIZE_320x50:
-                settings.setAdSize(AdSize.BANNER_320x50);
+                builder.setAdSize(AdSize.BANNER_320x50);
                 break;
             case Constants.Settings.AdSizeCodes.SIZE_320x100:
-                settings.setAdSize(AdSize.BANNER_320x100);
+                builder.setAdSize(AdSize.BANNER_320x100);
                 break;
             case Constants.Settings.AdSizeCodes.SIZE_320x480:
-                settings.setAdSize(AdSize.BANNER_320x480);
+                builder.setAdSize(AdSize.BANNER_320x480);
                 break;
             case Constants.Settings.AdSizeCodes.SIZE_728x90:
-                settings.setAdSize(AdSize.BANNER_728x90);
+                builder.setAdSize(AdSize.BANNER_728x90);
                 break;
+            case Constants.Settings.AdSizeCodes.SIZE_300x250:
             default:
-                settings.setAdSize(AdSize.BANNER_300x250);
+                builder.setAdSize(AdSize.BANNER_300x250);
         }
 
-        return settings;
-    }
-
-    public AdServerSettings getAdServerSettings() {
-        AdServerSettings settings = new AdServerSettings();
-
         switch (mSharedPreferences.getInt(Constants.Settings.AD_SERVER, Constants.Settings.AdServerCodes.GOOGLE_AD_MANAGER)) {
             case Constants.Settings.AdServerCodes.GOOGLE_AD_MANAGER:
-                settings.setAdServer(AdServer.GOOGLE_AD_MANAGER);
+                builder.setAdServer(AdServer.GOOGLE_AD_MANAGER);
                 break;
             case Constants.Settings.AdServerCodes.MOPUB:
-                settings.setAdServer(AdServer.MOPUB);
-                break;
             default:
-                settings.setAdServer(AdServer.MOPUB);
+                builder.setAdServer(AdServer.MOPUB);
         }
 
-        settings.setBidPrice(mSharedPreferences.getFloat(Constants.Settings.BID_PRICE, 0.0f));
-        settings.setAdUnitId(mSharedPreferences.getString(Constants.Settings.AD_UNIT_ID, ""));
-
-        return settings;
-    }
-
-    public PrebidServerSettings getPrebidServerSettings() {
-        PrebidServerSettings settings = new PrebidServerSettings();
-
         switch (mSharedPreferences.getInt(Constants.Settings.PREBID_SERVER, Constants.Settings.PrebidServerCodes.APPNEXUS)) {
-            case Constants.Settings.PrebidServerCodes.APPNEXUS:
-                settings.setPrebidServer(PrebidServer.APPNEXUS);
-                settings.setCustomPrebidServerUrl("");
-                break;
             case Constants.Settings.PrebidServerCodes.RUBICON:
-                settings.setPrebidServer(PrebidServer.RUBICON);
-                settings.setCustomPrebidServerUrl("");
+                builder.setPrebidServer(PrebidServer.RUBICON);
                 break;
             case Constants.Settings.PrebidServerCodes.CUSTOM:
-                settings.setPrebidServer(PrebidServer.CUSTOM);
-                settings.setCustomPrebidServerUrl(mSharedPreferences.getString(Constants.Settings.PREBID_SERVER_CUSTOM_URL, ""));
+                builder.setPrebidServer(PrebidServer.CUSTOM);
                 break;
+            case Constants.Settings.PrebidServerCodes.APPNEXUS:
             default:
-                settings.setPrebidServer(PrebidServer.APPNEXUS);
+                builder.setPrebidServer(PrebidServer.APPNEXUS);
         }
 
-        settings.setAccountId(mSharedPreferences.getString(Constants.Settings.ACCOUNT_ID, ""));
-        settings.setConfigId(mSharedPreferences.getString(Constants.Settings.CONFIG_ID, ""));
-
-        return settings;
-    }
-
-    public void setAdFormat(AdFormat adFormat) {
-        mSharedPreferences.edit().putInt(Constants.Settings.AD_FORMAT, adFormat.getCode()).apply();
-    }
-
-    public void setAdSize(AdSize adSize) {
-        mSharedPreferences.edit().putInt(Constants.Settings.AD_SIZE, adSize.getCode()).apply();
-    }
-
-    public void setAdServer(AdServer adServer) {
-        mSharedPreferences.edit().putInt(Constants.Settings.AD_SERVER, adServer.getCode()).apply();
-    }
-
-    public void setBidPrice(float bidPrice) {
-        mSharedPreferences.edit().putFloat(Constants.Settings.BID_PRICE, bidPrice).apply();
-    }
-
-    public void setAdUnitId(String adUnitId) {
-        mSharedPreferences.edit().putString(Constants.Settings.AD_UNIT_ID, adUnitId).apply();
-    }
-
-    public void setPrebidServer(PrebidServer prebidServer) {
-        mSharedPreferences.edit().putInt(Constants.Settings.PREBID_SERVER, prebidServer.getCode()).apply();
-    }
+        switch (mSharedPreferences.getInt(Constants.Settings.MOCK_SERVER_MODE, Constants.Settings.MockServerModeCodes.LIVE)) {
+            case Constants.Settings.MockServerModeCodes.RECORD:
+                builder.setMockServerMode(MockServerMode.RECORD);
+                break;
+            case Constants.Settings.MockServerModeCodes.REPLAY:
+                builder.setMockServerMode(MockServerMode.REPLAY);
+                break;
+            default:
+                builder.setMockServerMode(MockServerMode.LIVE);
+        }
 
-    public void setPrebidServerCustomUrl(String customUrl) {
-        mSharedPreferences.edit().putString(Constants.Settings.PREBID_SERVER_CUSTOM_URL, customUrl).apply();
+        return builder
+                .setBidPrice(mSharedPreferences.getFloat(Constants.Settings.BID_PRICE, 0.0f))
+                .setAdUnitId(mSharedPreferences.getString(Constants.Settings.AD_UNIT_ID, ""))
+                .setCustomPrebidServerUrl(mSharedPreferences.getString(Constants.Settings.PREBID_SERVER_CUSTOM_URL, ""))
+                .setAccountId(mSharedPreferences.getString(Constants.Settings.ACCOUNT_ID, ""))
+                .setConfigId(mSharedPreferences.getString(Constants.Settings.CONFIG_ID, ""))
+                .setLoadTestRequestCount(clampRequestCount(mSharedPreferences.getInt(Constants.Settings.LOAD_TEST_REQUEST_COUNT, LoadTestSettings.DEFAULT_REQUEST_COUNT)))
+                .setLoadTestConcurrency(clampConcurrency(mSharedPreferences.getInt(Constants.Settings.LOAD_TEST_CONCURRENCY, LoadTestSettings.DEFAULT_CONCURRENCY)))
+                .setLoadTestTargetQps(Math.max(0, mSharedPreferences.getInt(Constants.Settings.LOAD_TEST_TARGET_QPS, 0)))
+                .setSweepConfigs(mSharedPreferences.getString(Constants.Settings.SWEEP_CONFIGS, ""))
+                .setSweepRequestsPerConfig(Math.max(1, mSharedPreferences.getInt(Constants.Settings.SWEEP_REQUESTS_PER_CONFIG, DEFAULT_SWEEP_REQUESTS_PER_CONFIG)))
+                .setSweepMaxQps(Math.max(1, mSharedPreferences.getInt(Constants.Settings.SWEEP_MAX_QPS, DEFAULT_SWEEP_MAX_QPS)))
+                .build();
     }
 
-    public void setAccountId(String accountId) {
-        mSharedPreferences.edit().putString(Constants.Settings.ACCOUNT_ID, accountId).apply();
+    private static int clampRequestCount(int requestCount) {
+        return Math.max(1, requestCount);
     }
 
-    public void setConfigId(String configId) {
-        mSharedPreferences.edit().putString(Constants.Settings.CONFIG_ID, configId).apply();
+    private static int clampConcurrency(int concurrency) {
+        return Math.max(1, Math.min(LoadTestSettings.MAX_CONCURRENCY, concurrency));
     }
 }
@@ -8,6 +8,7 @@ public class Bidder {
     private double cpm;
     private String serverResponse;
     private int responseTime;
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
 
     public Bidder() {
     }
@@ -67,4 +68,11 @@ public class Bidder {
     public void setResponseTime(int responseTime) {
         this.responseTime = responseTime;
     }
+
+    /**
+     * @return the response times the server reported for this bidder, one sample per auction
+     */
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
 }
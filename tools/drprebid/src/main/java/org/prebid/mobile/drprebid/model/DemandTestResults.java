@@ -1,5 +1,6 @@
 package org.prebid.mobile.drprebid.model;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,6 +12,10 @@ public class DemandTestResults {
     private int totalBids;
     private float avgEcpm;
     private long avgResponseTime;
+    private long avgColdResponseTime;
+    private long avgWarmResponseTime;
+    private LatencyHistogram responseTimes;
+    private File sampleFile;
 
     public DemandTestResults(String request) {
         this.bidders = new HashMap<>();
@@ -20,6 +25,9 @@ public class DemandTestResults {
         this.totalBids = 0;
         this.avgEcpm = 0.0f;
         this.avgResponseTime = 0;
+        this.avgColdResponseTime = 0;
+        this.avgWarmResponseTime = 0;
+        this.responseTimes = new LatencyHistogram();
     }
 
     public Map<String, Bidder> getBidders() {
@@ -73,4 +81,42 @@ public class DemandTestResults {
     public void setAvgResponseTime(long avgResponseTime) {
         this.avgResponseTime = avgResponseTime;
     }
+
+    public long getAvgColdResponseTime() {
+        return avgColdResponseTime;
+    }
+
+    public void setAvgColdResponseTime(long avgColdResponseTime) {
+        this.avgColdResponseTime = avgColdResponseTime;
+    }
+
+    public long getAvgWarmResponseTime() {
+        return avgWarmResponseTime;
+    }
+
+    public void setAvgWarmResponseTime(long avgWarmResponseTime) {
+        this.avgWarmResponseTime = avgWarmResponseTime;
+    }
+
+    /**
+     * @return the end to end response times of all requests, including failed ones
+     */
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    public void setResponseTimes(LatencyHistogram responseTimes) {
+        this.responseTimes = responseTimes;
+    }
+
+    /**
+     * @return the exported samples of the run, {@code null} if they could not be written
+     */
+    public File getSampleFile() {
+        return sampleFile;
+    }
+
+    public void setSampleFile(File sampleFile) {
+        this.sampleFile = sampleFile;
+    }
 }
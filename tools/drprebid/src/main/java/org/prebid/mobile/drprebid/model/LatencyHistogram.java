@@ -0,0 +1,128 @@
+package org.prebid.mobile.drprebid.model;
+
+/**
+ * Counts latency samples in log-linear buckets: exact below 64 ms, then 32 buckets per power of two,
+ * so any recorded value is known to within about 3%. The whole histogram is a few hundred ints no matter
+ * how many samples are recorded.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final int LINEAR_LIMIT_EXPONENT = SUB_BUCKET_BITS + 1;
+
+    /**
+     * Larger samples are counted as this value, about two minutes.
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << 17) - 1;
+
+    private final int[] counts = new int[getBucketIndex(MAX_TRACKABLE_VALUE) + 1];
+    private int totalCount;
+    private long total;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    public void record(long value) {
+        value = Math.max(0, Math.min(value, MAX_TRACKABLE_VALUE));
+
+        counts[getBucketIndex(value)]++;
+        totalCount++;
+        total += value;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        total += other.total;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount > 0 ? minValue : 0;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    public long getMean() {
+        return totalCount > 0 ? total / totalCount : 0;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the smallest value that at least the given percentage of samples do not exceed, 0 without samples
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= rank) {
+                return Math.max(minValue, Math.min(getHighestEquivalentValue(i), maxValue));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Spreads the samples over equally wide bins from 0 to the maximum, for charting.
+     */
+    public int[] getDistribution(int binCount) {
+        int[] bins = new int[binCount];
+        if (totalCount == 0) {
+            return bins;
+        }
+
+        double binWidth = (maxValue + 1) / (double) binCount;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                long value = Math.min((getLowestEquivalentValue(i) + getHighestEquivalentValue(i)) / 2, maxValue);
+                bins[Math.min((int) (value / binWidth), binCount - 1)] += counts[i];
+            }
+        }
+        return bins;
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (exponent - LINEAR_LIMIT_EXPONENT) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getLowestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_LIMIT_EXPONENT;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long getHighestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_LIMIT_EXPONENT;
+        return getLowestEquivalentValue(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
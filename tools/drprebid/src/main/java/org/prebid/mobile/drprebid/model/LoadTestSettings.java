@@ -0,0 +1,50 @@
+package org.prebid.mobile.drprebid.model;
+
+public class LoadTestSettings {
+    public static final int DEFAULT_REQUEST_COUNT = 100;
+    public static final int DEFAULT_CONCURRENCY = 5;
+    public static final int MAX_CONCURRENCY = 64;
+
+    private int requestCount;
+    private int concurrency;
+    // requests started per second regardless of responses, 0 sends all requests at once
+    private int targetQps;
+
+    public LoadTestSettings() {
+        this(DEFAULT_REQUEST_COUNT, DEFAULT_CONCURRENCY, 0);
+    }
+
+    public LoadTestSettings(int requestCount, int concurrency, int targetQps) {
+        this.requestCount = requestCount;
+        this.concurrency = concurrency;
+        this.targetQps = targetQps;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(int requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getTargetQps() {
+        return targetQps;
+    }
+
+    public void setTargetQps(int targetQps) {
+        this.targetQps = targetQps;
+    }
+
+    public boolean isPaced() {
+        return targetQps > 0;
+    }
+}
@@ -0,0 +1,19 @@
+package org.prebid.mobile.drprebid.model;
+
+import org.prebid.mobile.drprebid.Constants;
+
+public enum MockServerMode {
+    LIVE(Constants.Settings.MockServerModeCodes.LIVE),
+    RECORD(Constants.Settings.MockServerModeCodes.RECORD),
+    REPLAY(Constants.Settings.MockServerModeCodes.REPLAY);
+
+    private int code;
+
+    MockServerMode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,207 @@
+package org.prebid.mobile.drprebid.model;
+
+/**
+ * All settings at one point in time. Instances never change, a test run can hold on to one while settings are edited.
+ */
+public final class SettingsSnapshot {
+    private final AdFormat adFormat;
+    private final AdSize adSize;
+    private final AdServer adServer;
+    private final float bidPrice;
+    private final String adUnitId;
+    private final PrebidServer prebidServer;
+    private final String customPrebidServerUrl;
+    private final String accountId;
+    private final String configId;
+    private final int loadTestRequestCount;
+    private final int loadTestConcurrency;
+    private final int loadTestTargetQps;
+    private final MockServerMode mockServerMode;
+    private final String sweepConfigs;
+    private final int sweepRequestsPerConfig;
+    private final int sweepMaxQps;
+
+    private SettingsSnapshot(Builder builder) {
+        adFormat = builder.adFormat;
+        adSize = builder.adSize;
+        adServer = builder.adServer;
+        bidPrice = builder.bidPrice;
+        adUnitId = builder.adUnitId;
+        prebidServer = builder.prebidServer;
+        customPrebidServerUrl = builder.customPrebidServerUrl;
+        accountId = builder.accountId;
+        configId = builder.configId;
+        loadTestRequestCount = builder.loadTestRequestCount;
+        loadTestConcurrency = builder.loadTestConcurrency;
+        loadTestTargetQps = builder.loadTestTargetQps;
+        mockServerMode = builder.mockServerMode;
+        sweepConfigs = builder.sweepConfigs;
+        sweepRequestsPerConfig = builder.sweepRequestsPerConfig;
+        sweepMaxQps = builder.sweepMaxQps;
+    }
+
+    /**
+     * @return a builder holding these settings, to derive changed settings from
+     */
+    public Builder buildUpon() {
+        return new Builder()
+                .setAdFormat(adFormat)
+                .setAdSize(adSize)
+                .setAdServer(adServer)
+                .setBidPrice(bidPrice)
+                .setAdUnitId(adUnitId)
+                .setPrebidServer(prebidServer)
+                .setCustomPrebidServerUrl(customPrebidServerUrl)
+                .setAccountId(accountId)
+                .setConfigId(configId)
+                .setLoadTestRequestCount(loadTestRequestCount)
+                .setLoadTestConcurrency(loadTestConcurrency)
+                .setLoadTestTargetQps(loadTestTargetQps)
+                .setMockServerMode(mockServerMode)
+                .setSweepConfigs(sweepConfigs)
+                .setSweepRequestsPerConfig(sweepRequestsPerConfig)
+                .setSweepMaxQps(sweepMaxQps);
+    }
+
+    // the settings items are mutable and handed to views, so every call returns a new one
+
+    public GeneralSettings getGeneralSettings() {
+        return new GeneralSettings(adFormat, adSize);
+    }
+
+    public AdServerSettings getAdServerSettings() {
+        AdServerSettings settings = new AdServerSettings();
+        settings.setAdServer(adServer);
+        settings.setBidPrice(bidPrice);
+        settings.setAdUnitId(adUnitId);
+        return settings;
+    }
+
+    public PrebidServerSettings getPrebidServerSettings() {
+        String customUrl = prebidServer == PrebidServer.CUSTOM ? customPrebidServerUrl : "";
+        return new PrebidServerSettings(prebidServer, customUrl, accountId, configId);
+    }
+
+    public LoadTestSettings getLoadTestSettings() {
+        return new LoadTestSettings(loadTestRequestCount, loadTestConcurrency, loadTestTargetQps);
+    }
+
+    public MockServerMode getMockServerMode() {
+        return mockServerMode;
+    }
+
+    public String getSweepConfigs() {
+        return sweepConfigs;
+    }
+
+    public int getSweepRequestsPerConfig() {
+        return sweepRequestsPerConfig;
+    }
+
+    public int getSweepMaxQps() {
+        return sweepMaxQps;
+    }
+
+    public static class Builder {
+        private AdFormat adFormat = AdFormat.BANNER;
+        private AdSize adSize = AdSize.BANNER_300x250;
+        private AdServer adServer = AdServer.GOOGLE_AD_MANAGER;
+        private float bidPrice;
+        private String adUnitId = "";
+        private PrebidServer prebidServer = PrebidServer.APPNEXUS;
+        private String customPrebidServerUrl = "";
+        private String accountId = "";
+        private String configId = "";
+        private int loadTestRequestCount = LoadTestSettings.DEFAULT_REQUEST_COUNT;
+        private int loadTestConcurrency = LoadTestSettings.DEFAULT_CONCURRENCY;
+        private int loadTestTargetQps;
+        private MockServerMode mockServerMode = MockServerMode.LIVE;
+        private String sweepConfigs = "";
+        private int sweepRequestsPerConfig;
+        private int sweepMaxQps;
+
+        public Builder setAdFormat(AdFormat adFormat) {
+            this.adFormat = adFormat;
+            return this;
+        }
+
+        public Builder setAdSize(AdSize adSize) {
+            this.adSize = adSize;
+            return this;
+        }
+
+        public Builder setAdServer(AdServer adServer) {
+            this.adServer = adServer;
+            return this;
+        }
+
+        public Builder setBidPrice(float bidPrice) {
+            this.bidPrice = bidPrice;
+            return this;
+        }
+
+        public Builder setAdUnitId(String adUnitId) {
+            this.adUnitId = adUnitId;
+            return this;
+        }
+
+        public Builder setPrebidServer(PrebidServer prebidServer) {
+            this.prebidServer = prebidServer;
+            return this;
+        }
+
+        public Builder setCustomPrebidServerUrl(String customPrebidServerUrl) {
+            this.customPrebidServerUrl = customPrebidServerUrl;
+            return this;
+        }
+
+        public Builder setAccountId(String accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Builder setConfigId(String configId) {
+            this.configId = configId;
+            return this;
+        }
+
+        public Builder setLoadTestRequestCount(int loadTestRequestCount) {
+            this.loadTestRequestCount = loadTestRequestCount;
+            return this;
+        }
+
+        public Builder setLoadTestConcurrency(int loadTestConcurrency) {
+            this.loadTestConcurrency = loadTestConcurrency;
+            return this;
+        }
+
+        public Builder setLoadTestTargetQps(int loadTestTargetQps) {
+            this.loadTestTargetQps = loadTestTargetQps;
+            return this;
+        }
+
+        public Builder setMockServerMode(MockServerMode mockServerMode) {
+            this.mockServerMode = mockServerMode;
+            return this;
+        }
+
+        public Builder setSweepConfigs(String sweepConfigs) {
+            this.sweepConfigs = sweepConfigs;
+            return this;
+        }
+
+        public Builder setSweepRequestsPerConfig(int sweepRequestsPerConfig) {
+            this.sweepRequestsPerConfig = sweepRequestsPerConfig;
+            return this;
+        }
+
+        public Builder setSweepMaxQps(int sweepMaxQps) {
+            this.sweepMaxQps = sweepMaxQps;
+            return this;
+        }
+
+        public SettingsSnapshot build() {
+            return new SettingsSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.prebid.mobile.drprebid.model;
+
+/**
+ * One stored request configuration of a validation sweep.
+ */
+public class SweepConfig {
+    private final PrebidServer prebidServer;
+    private final String customPrebidServerUrl;
+    private final String accountId;
+    private final String configId;
+    private final AdSize adSize;
+
+    public SweepConfig(PrebidServer prebidServer, String customPrebidServerUrl, String accountId, String configId, AdSize adSize) {
+        this.prebidServer = prebidServer;
+        this.customPrebidServerUrl = customPrebidServerUrl;
+        this.accountId = accountId;
+        this.configId = configId;
+        this.adSize = adSize;
+    }
+
+    public PrebidServer getPrebidServer() {
+        return prebidServer;
+    }
+
+    public String getCustomPrebidServerUrl() {
+        return customPrebidServerUrl;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getConfigId() {
+        return configId;
+    }
+
+    public AdSize getAdSize() {
+        return adSize;
+    }
+}
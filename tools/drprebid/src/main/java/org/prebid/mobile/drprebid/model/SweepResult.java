@@ -0,0 +1,65 @@
+package org.prebid.mobile.drprebid.model;
+
+/**
+ * Fill, eCPM and latency of the requests sent for one {@link SweepConfig}.
+ */
+public class SweepResult {
+    private final SweepConfig config;
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private int requestCount;
+    private int errorCount;
+    private int filledCount;
+    private int bidCount;
+    private double cpmTotal;
+
+    public SweepResult(SweepConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @param bidCount the number of bids in the response
+     * @param cpm      the sum of the prices of those bids
+     */
+    public void add(int responseCode, long responseTime, int bidCount, double cpm) {
+        requestCount++;
+        responseTimes.record(responseTime);
+
+        if (responseCode != 200) {
+            errorCount++;
+        } else if (bidCount > 0) {
+            filledCount++;
+            this.bidCount += bidCount;
+            cpmTotal += cpm;
+        }
+    }
+
+    public SweepConfig getConfig() {
+        return config;
+    }
+
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return the number of requests that did not get a 200 response
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the share of requests answered with at least one bid, 0 to 1
+     */
+    public double getFillRate() {
+        return requestCount > 0 ? (double) filledCount / requestCount : 0;
+    }
+
+    public double getAvgEcpm() {
+        return bidCount > 0 ? cpmTotal / bidCount : 0;
+    }
+}
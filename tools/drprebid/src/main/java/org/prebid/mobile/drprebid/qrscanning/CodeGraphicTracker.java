@@ -1,7 +1,7 @@
 package org.prebid.mobile.drprebid.qrscanning;
 
 import android.content.Context;
-import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
 
 import com.google.android.gms.vision.Detector;
 import com.google.android.gms.vision.Tracker;
@@ -10,17 +10,25 @@ import com.google.android.gms.vision.barcode.Barcode;
 import org.prebid.mobile.drprebid.qrscanning.camera.GraphicOverlay;
 
 public class CodeGraphicTracker extends Tracker<Barcode> {
+    // consecutive frames a code must be read the same in before it is reported
+    private static final int STABLE_FRAME_COUNT = 3;
+
     private GraphicOverlay<CodeGraphic> mOverlay;
     private CodeGraphic mGraphic;
 
     private CodeUpdateListener mCodeUpdateListener;
 
+    private String mValue;
+    private int mStableFrameCount;
+
     /**
      * Consume the item instance detected from an Activity or Fragment level by implementing the
-     * CodeUpdateListener interface method onBarcodeDetected.
+     * CodeUpdateListener interface method onBarcodeDetected.  It is called on the detector thread
+     * once a code has been read the same in consecutive frames, so a partly read code is never
+     * reported.
      */
     public interface CodeUpdateListener {
-        @UiThread
+        @WorkerThread
         void onBarcodeDetected(Barcode barcode);
     }
 
@@ -41,7 +49,9 @@ public class CodeGraphicTracker extends Tracker<Barcode> {
     @Override
     public void onNewItem(int id, Barcode item) {
         mGraphic.setId(id);
-        mCodeUpdateListener.onBarcodeDetected(item);
+        mValue = item.rawValue;
+        // onUpdate() follows for the same frame and counts it
+        mStableFrameCount = 0;
     }
 
     /**
@@ -51,6 +61,17 @@ public class CodeGraphicTracker extends Tracker<Barcode> {
     public void onUpdate(Detector.Detections<Barcode> detectionResults, Barcode item) {
         mOverlay.add(mGraphic);
         mGraphic.updateItem(item);
+
+        if (item.rawValue != null && item.rawValue.equals(mValue)) {
+            mStableFrameCount++;
+        } else {
+            mValue = item.rawValue;
+            mStableFrameCount = 1;
+        }
+
+        if (mStableFrameCount == STABLE_FRAME_COUNT) {
+            mCodeUpdateListener.onBarcodeDetected(item);
+        }
     }
 
     /**
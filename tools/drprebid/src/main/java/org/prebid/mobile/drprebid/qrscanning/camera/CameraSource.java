@@ -27,6 +27,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -100,6 +101,15 @@ public class CameraSource {
     private String mFocusMode = null;
     private String mFlashMode = null;
 
+    // Fraction of the shorter preview side covered by the centered square passed to the detector,
+    // 0 passes whole frames.  The square is subsampled to at most mMaxDetectionSize a side.
+    private float mDetectionRegion = 0;
+    private int mMaxDetectionSize = 0;
+
+    // Derived from the preview size when the camera is created.
+    private int mDetectionSize;
+    private int mDetectionStep = 1;
+
     // These instances need to be held onto to avoid GC of their underlying resources.  Even though
     // these aren't used outside of the method that creates them, they still must have hard
     // references maintained to them.
@@ -200,6 +210,20 @@ public class CameraSource {
             return this;
         }
 
+        /**
+         * Only passes the centered square covering the given fraction of the shorter preview side
+         * to the detector, subsampled to at most maxSize pixels a side, e.g. the region of a
+         * reticle.  Codes outside of it are not detected.  Default: whole frames.
+         */
+        public Builder setDetectionRegion(float fraction, int maxSize) {
+            if ((fraction <= 0) || (fraction > 1) || (maxSize <= 0)) {
+                throw new IllegalArgumentException("Invalid detection region: " + fraction + ", " + maxSize);
+            }
+            mCameraSource.mDetectionRegion = fraction;
+            mCameraSource.mMaxDetectionSize = maxSize;
+            return this;
+        }
+
         /**
          * Creates an instance of the camera source.
          */
@@ -410,6 +434,22 @@ public class CameraSource {
         return mFacing;
     }
 
+    /**
+     * Returns the side in preview pixels of the centered square passed to the detector, 0 if whole
+     * frames are passed.
+     */
+    public int getDetectionSize() {
+        return mDetectionSize;
+    }
+
+    /**
+     * Returns how many preview pixels one pixel of the frames passed to the detector spans, so
+     * detections can be mapped back to preview coordinates.
+     */
+    public int getDetectionStep() {
+        return mDetectionStep;
+    }
+
     public int doZoom(float scale) {
         synchronized (mCameraLock) {
             if (mCamera == null) {
@@ -760,6 +800,16 @@ public class CameraSource {
 
         camera.setParameters(parameters);
 
+        if (mDetectionRegion > 0) {
+            // even sizes and offsets keep the subsampled rows and columns aligned with NV21 chroma
+            int regionSize = (int) (Math.min(mPreviewSize.getWidth(), mPreviewSize.getHeight()) * mDetectionRegion) & ~1;
+            mDetectionStep = Math.max(1, (int) Math.ceil((double) regionSize / mMaxDetectionSize));
+            mDetectionSize = regionSize;
+        } else {
+            mDetectionStep = 1;
+            mDetectionSize = 0;
+        }
+
         // Four frame buffers are needed for working with the camera:
         //
         //   one for the frame that is currently being executed upon in doing detection
@@ -1014,6 +1064,9 @@ public class CameraSource {
     // Frame processing
     //==============================================================================================
 
+    private static final float DETECTION_DUTY_CYCLE = 0.5f;
+    private static final float DETECTION_LATENCY_SMOOTHING = 0.2f;
+
     /**
      * Called when the camera has a new preview frame.
      */
@@ -1038,6 +1091,14 @@ public class CameraSource {
         private Detector<?> mDetector;
         private long mStartTimeMillis = SystemClock.elapsedRealtime();
 
+        // Frames are skipped until this time, so that detection takes at most DETECTION_DUTY_CYCLE
+        // of the time and the camera rate adapts to how fast the detector is on this device.
+        private long mNextDetectionMillis;
+        private float mDetectionLatencyMillis;
+
+        // Reused for the cropped frames, which only hold luminance.
+        private ByteBuffer mDetectionBuffer;
+
         // This lock guards all of the member variables below.
         private final Object mLock = new Object();
         private boolean mActive = true;
@@ -1142,18 +1203,32 @@ public class CameraSource {
                         return;
                     }
 
-                    outputFrame = new Frame.Builder()
-                            .setImageData(mPendingFrameData, mPreviewSize.getWidth(),
-                                    mPreviewSize.getHeight(), ImageFormat.NV21)
-                            .setId(mPendingFrameId)
-                            .setTimestampMillis(mPendingTimeMillis)
-                            .setRotation(mRotation)
-                            .build();
-
-                    // Hold onto the frame data locally, so that we can use this for detection
-                    // below.  We need to clear mPendingFrameData to ensure that this buffer isn't
-                    // recycled back to the camera before we are done using that data.
-                    data = mPendingFrameData;
+                    if (SystemClock.elapsedRealtime() < mNextDetectionMillis) {
+                        // The detector is still resting, drop the frame and wait for a later one.
+                        mCamera.addCallbackBuffer(mPendingFrameData.array());
+                        mPendingFrameData = null;
+                        continue;
+                    }
+
+                    if (mDetectionSize > 0) {
+                        // The crop is a copy, so the camera buffer can go back right away.
+                        outputFrame = cropFrame(mPendingFrameData, mPendingFrameId, mPendingTimeMillis);
+                        mCamera.addCallbackBuffer(mPendingFrameData.array());
+                        data = null;
+                    } else {
+                        outputFrame = new Frame.Builder()
+                                .setImageData(mPendingFrameData, mPreviewSize.getWidth(),
+                                        mPreviewSize.getHeight(), ImageFormat.NV21)
+                                .setId(mPendingFrameId)
+                                .setTimestampMillis(mPendingTimeMillis)
+                                .setRotation(mRotation)
+                                .build();
+
+                        // Hold onto the frame data locally, so that we can use this for detection
+                        // below.  We need to clear mPendingFrameData to ensure that this buffer isn't
+                        // recycled back to the camera before we are done using that data.
+                        data = mPendingFrameData;
+                    }
                     mPendingFrameData = null;
                 }
 
@@ -1161,14 +1236,64 @@ public class CameraSource {
                 // the camera to add pending frame(s) while we are running detection on the current
                 // frame.
 
+                long detectionStartMillis = SystemClock.elapsedRealtime();
                 try {
                     mDetector.receiveFrame(outputFrame);
                 } catch (Throwable t) {
                     Log.e(TAG, "Exception thrown from receiver.", t);
                 } finally {
-                    mCamera.addCallbackBuffer(data.array());
+                    if (data != null) {
+                        mCamera.addCallbackBuffer(data.array());
+                    }
                 }
+
+                long detectionEndMillis = SystemClock.elapsedRealtime();
+                long latencyMillis = detectionEndMillis - detectionStartMillis;
+                mDetectionLatencyMillis = mDetectionLatencyMillis == 0 ? latencyMillis
+                        : mDetectionLatencyMillis + DETECTION_LATENCY_SMOOTHING * (latencyMillis - mDetectionLatencyMillis);
+                mNextDetectionMillis = detectionEndMillis
+                        + (long) (mDetectionLatencyMillis * (1 - DETECTION_DUTY_CYCLE) / DETECTION_DUTY_CYCLE);
             }
         }
+
+        /**
+         * Copies the luminance of the detection region, subsampled by the detection step, into a
+         * frame of its own.  Chroma is left neutral, codes are read from luminance only.
+         */
+        private Frame cropFrame(ByteBuffer frameData, int frameId, long timeMillis) {
+            int previewWidth = mPreviewSize.getWidth();
+            int previewHeight = mPreviewSize.getHeight();
+            int left = ((previewWidth - mDetectionSize) / 2) & ~1;
+            int top = ((previewHeight - mDetectionSize) / 2) & ~1;
+            int outputSize = (mDetectionSize / mDetectionStep) & ~1;
+
+            int bufferSize = outputSize * outputSize * 3 / 2;
+            if (mDetectionBuffer == null || mDetectionBuffer.capacity() != bufferSize) {
+                byte[] bytes = new byte[bufferSize];
+                Arrays.fill(bytes, outputSize * outputSize, bufferSize, (byte) 128);
+                mDetectionBuffer = ByteBuffer.wrap(bytes);
+            }
+
+            byte[] input = frameData.array();
+            byte[] output = mDetectionBuffer.array();
+            for (int y = 0; y < outputSize; y++) {
+                int inputRow = (top + y * mDetectionStep) * previewWidth + left;
+                int outputRow = y * outputSize;
+                if (mDetectionStep == 1) {
+                    System.arraycopy(input, inputRow, output, outputRow, outputSize);
+                } else {
+                    for (int x = 0; x < outputSize; x++) {
+                        output[outputRow + x] = input[inputRow + x * mDetectionStep];
+                    }
+                }
+            }
+
+            return new Frame.Builder()
+                    .setImageData(mDetectionBuffer, outputSize, outputSize, ImageFormat.NV21)
+                    .setId(frameId)
+                    .setTimestampMillis(timeMillis)
+                    .setRotation(mRotation)
+                    .build();
+        }
     }
 }
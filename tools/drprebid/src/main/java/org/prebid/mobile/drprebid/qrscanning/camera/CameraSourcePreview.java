@@ -84,6 +84,7 @@ public class CameraSourcePreview extends ViewGroup {
                 } else {
                     mOverlay.setCameraInfo(max, min, mCameraSource.getCameraFacing());
                 }
+                mOverlay.setDetectionRegion(mCameraSource.getDetectionSize(), mCameraSource.getDetectionStep());
                 mOverlay.clear();
             }
             mStartRequested = false;
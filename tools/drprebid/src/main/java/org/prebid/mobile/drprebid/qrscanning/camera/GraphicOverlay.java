@@ -2,6 +2,8 @@ package org.prebid.mobile.drprebid.qrscanning.camera;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.View;
 
@@ -17,6 +19,11 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
     private int mPreviewHeight;
     private float mHeightScaleFactor = 1.0f;
     private int mFacing = CameraSource.CAMERA_FACING_BACK;
+    // Centered square of the preview that the detector sees, and how many preview pixels one of
+    // its pixels spans.  0 when the detector sees whole frames.
+    private int mDetectionSize;
+    private int mDetectionStep = 1;
+    private Paint mReticlePaint;
     private Set<T> mGraphics = new HashSet<>();
 
     /**
@@ -50,14 +57,14 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
          * scale.
          */
         public float scaleX(float horizontal) {
-            return horizontal * mOverlay.mWidthScaleFactor;
+            return horizontal * mOverlay.mDetectionStep * mOverlay.mWidthScaleFactor;
         }
 
         /**
          * Adjusts a vertical value of the supplied value from the preview scale to the view scale.
          */
         public float scaleY(float vertical) {
-            return vertical * mOverlay.mHeightScaleFactor;
+            return vertical * mOverlay.mDetectionStep * mOverlay.mHeightScaleFactor;
         }
 
         /**
@@ -65,10 +72,11 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
          * system.
          */
         public float translateX(float x) {
+            float viewX = mOverlay.getDetectionLeft() * mOverlay.mWidthScaleFactor + scaleX(x);
             if (mOverlay.mFacing == CameraSource.CAMERA_FACING_FRONT) {
-                return mOverlay.getWidth() - scaleX(x);
+                return mOverlay.getWidth() - viewX;
             } else {
-                return scaleX(x);
+                return viewX;
             }
         }
 
@@ -77,7 +85,7 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
          * system.
          */
         public float translateY(float y) {
-            return scaleY(y);
+            return mOverlay.getDetectionTop() * mOverlay.mHeightScaleFactor + scaleY(y);
         }
 
         public void postInvalidate() {
@@ -157,6 +165,41 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
         postInvalidate();
     }
 
+    /**
+     * Sets the region of the preview that the detector sees, see
+     * {@link CameraSource#getDetectionSize()} and {@link CameraSource#getDetectionStep()}.  The
+     * region is outlined as a reticle, and detections are mapped from it to the view.
+     */
+    public void setDetectionRegion(int detectionSize, int detectionStep) {
+        synchronized (mLock) {
+            mDetectionSize = detectionSize;
+            mDetectionStep = detectionStep;
+        }
+        postInvalidate();
+    }
+
+    /**
+     * Maps a view coordinate to the coordinate system of the frames that the detector sees.
+     */
+    public float viewToFrameX(float x) {
+        return (x / mWidthScaleFactor - getDetectionLeft()) / mDetectionStep;
+    }
+
+    /**
+     * Maps a view coordinate to the coordinate system of the frames that the detector sees.
+     */
+    public float viewToFrameY(float y) {
+        return (y / mHeightScaleFactor - getDetectionTop()) / mDetectionStep;
+    }
+
+    private float getDetectionLeft() {
+        return mDetectionSize > 0 ? (mPreviewWidth - mDetectionSize) / 2f : 0;
+    }
+
+    private float getDetectionTop() {
+        return mDetectionSize > 0 ? (mPreviewHeight - mDetectionSize) / 2f : 0;
+    }
+
     /**
      * Draws the overlay with its associated graphic objects.
      */
@@ -170,6 +213,19 @@ public class GraphicOverlay<T extends GraphicOverlay.Graphic> extends View {
                 mHeightScaleFactor = (float) canvas.getHeight() / (float) mPreviewHeight;
             }
 
+            if (mDetectionSize > 0) {
+                if (mReticlePaint == null) {
+                    mReticlePaint = new Paint();
+                    mReticlePaint.setColor(Color.WHITE);
+                    mReticlePaint.setStyle(Paint.Style.STROKE);
+                    mReticlePaint.setStrokeWidth(4.0f);
+                }
+                float left = getDetectionLeft() * mWidthScaleFactor;
+                float top = getDetectionTop() * mHeightScaleFactor;
+                canvas.drawRect(left, top, left + mDetectionSize * mWidthScaleFactor,
+                        top + mDetectionSize * mHeightScaleFactor, mReticlePaint);
+            }
+
             for (Graphic graphic : mGraphics) {
                 graphic.draw(canvas);
             }
@@ -0,0 +1,123 @@
+package org.prebid.mobile.drprebid.replay;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.prebid.mobile.drprebid.util.IOUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prebid Server exchanges captured in record mode, in the order they completed.
+ * <pre>
+ * {"version": 1, "exchanges": [{"path": "/openrtb2/auction", "status": 200, "latency": 231,
+ *                               "contentType": "application/json", "body": "..."}]}
+ * </pre>
+ * The SDK unit tests replay the same format, so a recording can be copied into their resources as is.
+ */
+public class Recording {
+    public static final int VERSION = 1;
+
+    private final List<Exchange> exchanges = new ArrayList<>();
+
+    public synchronized void add(Exchange exchange) {
+        exchanges.add(exchange);
+    }
+
+    public synchronized List<Exchange> getExchanges() {
+        return Collections.unmodifiableList(new ArrayList<>(exchanges));
+    }
+
+    public synchronized boolean isEmpty() {
+        return exchanges.isEmpty();
+    }
+
+    public static Recording load(File file) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            JSONObject json = new JSONObject(IOUtil.getStringFromStream(inputStream));
+            if (json.getInt("version") != VERSION) {
+                throw new IOException("Unsupported recording version " + json.getInt("version"));
+            }
+
+            Recording recording = new Recording();
+            JSONArray exchanges = json.getJSONArray("exchanges");
+            for (int i = 0; i < exchanges.length(); i++) {
+                JSONObject exchange = exchanges.getJSONObject(i);
+                recording.add(new Exchange(exchange.getString("path"), exchange.getInt("status"), exchange.getLong("latency"),
+                        exchange.optString("contentType", "application/json"), exchange.getString("body")));
+            }
+            return recording;
+        } catch (JSONException exception) {
+            throw new IOException("Malformed recording " + file, exception);
+        }
+    }
+
+    public void save(File file) throws IOException {
+        try {
+            JSONArray exchanges = new JSONArray();
+            for (Exchange exchange : getExchanges()) {
+                exchanges.put(new JSONObject()
+                        .put("path", exchange.getPath())
+                        .put("status", exchange.getStatus())
+                        .put("latency", exchange.getLatencyMillis())
+                        .put("contentType", exchange.getContentType())
+                        .put("body", exchange.getBody()));
+            }
+            JSONObject json = new JSONObject().put("version", VERSION).put("exchanges", exchanges);
+
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+                writer.write(json.toString());
+            }
+        } catch (JSONException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    public static class Exchange {
+        private final String path;
+        private final int status;
+        private final long latencyMillis;
+        private final String contentType;
+        private final String body;
+
+        /**
+         * @param latencyMillis from sending the request until the whole response was read
+         */
+        public Exchange(String path, int status, long latencyMillis, String contentType, String body) {
+            this.path = path;
+            this.status = status;
+            this.latencyMillis = latencyMillis;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
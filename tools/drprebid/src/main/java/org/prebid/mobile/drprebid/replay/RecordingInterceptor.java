@@ -0,0 +1,48 @@
+package org.prebid.mobile.drprebid.replay;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Adds every exchange of the client to the current recording, passes requests through while there is none.
+ */
+public class RecordingInterceptor implements Interceptor {
+    private volatile Recording recording;
+
+    public void setRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Recording recording = this.recording;
+        if (recording == null) {
+            return chain.proceed(chain.request());
+        }
+
+        long startTime = System.nanoTime();
+        Response response = chain.proceed(chain.request());
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+
+        // the body is read here to time the whole exchange, the caller gets a copy
+        MediaType contentType = body.contentType();
+        String content = body.string();
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        recording.add(new Recording.Exchange(chain.request().url().encodedPath(), response.code(), latency,
+                contentType != null ? contentType.toString() : "application/json", content));
+
+        return response.newBuilder()
+                .body(ResponseBody.create(contentType, content))
+                .build();
+    }
+}
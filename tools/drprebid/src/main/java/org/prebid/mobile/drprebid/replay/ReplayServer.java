@@ -0,0 +1,211 @@
+package org.prebid.mobile.drprebid.replay;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP/1.1 server on the loopback interface that answers with the exchanges of a {@link Recording}.
+ * <p>
+ * Requests to a path get the recorded exchanges of that path in order, starting over after the last one.
+ * Each response is sent once its recorded latency has passed since the request arrived, so tests see
+ * the timing and payload sizes of the recorded server without a network.
+ */
+public class ReplayServer {
+    private static final String TAG = ReplayServer.class.getSimpleName();
+
+    private static final String CRLF = "\r\n";
+
+    private final Map<String, List<Recording.Exchange>> exchangesByPath = new HashMap<>();
+    private final Map<String, Integer> nextExchangeByPath = new HashMap<>();
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool();
+    private final Set<Socket> openSockets = new HashSet<>();
+    private ServerSocket serverSocket;
+
+    public ReplayServer(Recording recording) {
+        for (Recording.Exchange exchange : recording.getExchanges()) {
+            List<Recording.Exchange> exchanges = exchangesByPath.get(exchange.getPath());
+            if (exchanges == null) {
+                exchanges = new ArrayList<>();
+                exchangesByPath.put(exchange.getPath(), exchanges);
+            }
+            exchanges.add(exchange);
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        connectionExecutor.execute(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    synchronized (openSockets) {
+                        openSockets.add(socket);
+                    }
+                    connectionExecutor.execute(() -> serve(socket));
+                } catch (IOException exception) {
+                    if (!serverSocket.isClosed()) {
+                        Log.e(TAG, exception.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    public synchronized void shutdown() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            // unblocks connections waiting for the next keep-alive request
+            synchronized (openSockets) {
+                for (Socket socket : openSockets) {
+                    socket.close();
+                }
+                openSockets.clear();
+            }
+        } catch (IOException exception) {
+            Log.e(TAG, exception.getMessage());
+        }
+        connectionExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the base URL of the server, e.g. http://127.0.0.1:34567
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    private synchronized Recording.Exchange nextExchange(String path) {
+        List<Recording.Exchange> exchanges = exchangesByPath.get(path);
+        if (exchanges == null) {
+            return null;
+        }
+
+        Integer next = nextExchangeByPath.get(path);
+        int index = next != null ? next : 0;
+        nextExchangeByPath.put(path, (index + 1) % exchanges.size());
+        return exchanges.get(index);
+    }
+
+    private void serve(Socket socket) {
+        try (Socket connection = socket) {
+            InputStream input = new BufferedInputStream(connection.getInputStream());
+            OutputStream output = connection.getOutputStream();
+
+            // keep-alive, serve requests until the client closes the connection
+            String requestLine;
+            while ((requestLine = readLine(input)) != null) {
+                long receivedTime = System.nanoTime();
+
+                Map<String, String> headers = new HashMap<>();
+                String line;
+                while ((line = readLine(input)) != null && !line.isEmpty()) {
+                    int separator = line.indexOf(':');
+                    if (separator > 0) {
+                        headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ENGLISH), line.substring(separator + 1).trim());
+                    }
+                }
+                skipBody(input, headers);
+
+                String[] parts = requestLine.split(" ");
+                String path = parts.length > 1 ? parts[1].split("\\?")[0] : "/";
+                Recording.Exchange exchange = nextExchange(path);
+
+                if (exchange == null) {
+                    writeResponse(output, 404, "text/plain", "No recorded exchange for " + path);
+                } else {
+                    long remaining = exchange.getLatencyMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedTime);
+                    if (remaining > 0) {
+                        Thread.sleep(remaining);
+                    }
+                    writeResponse(output, exchange.getStatus(), exchange.getContentType(), exchange.getBody());
+                }
+            }
+        } catch (SocketException exception) {
+            // closed by the client or by shutdown
+        } catch (IOException exception) {
+            Log.e(TAG, exception.getMessage());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (openSockets) {
+                openSockets.remove(socket);
+            }
+        }
+    }
+
+    private static void skipBody(InputStream input, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            String sizeLine;
+            while ((sizeLine = readLine(input)) != null) {
+                int size = Integer.parseInt(sizeLine.split(";")[0].trim(), 16);
+                skip(input, size);
+                // CRLF after the chunk, or after the trailer for the last one
+                readLine(input);
+                if (size == 0) {
+                    return;
+                }
+            }
+        } else if (headers.containsKey("content-length")) {
+            skip(input, Long.parseLong(headers.get("content-length")));
+        }
+    }
+
+    private static void skip(InputStream input, long count) throws IOException {
+        while (count > 0) {
+            long skipped = input.skip(count);
+            if (skipped <= 0) {
+                if (input.read() == -1) {
+                    throw new IOException("Unexpected end of request body");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int c;
+        while ((c = input.read()) != -1) {
+            if (c == '\n') {
+                String value = line.toString("ISO-8859-1");
+                return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+            }
+            line.write(c);
+        }
+        return line.size() > 0 ? line.toString("ISO-8859-1") : null;
+    }
+
+    private static void writeResponse(OutputStream output, int status, String contentType, String body) throws IOException {
+        byte[] content = body.getBytes("UTF-8");
+        String head = "HTTP/1.1 " + status + " " + (status < 400 ? "OK" : "Error") + CRLF
+                + "Content-Type: " + contentType + CRLF
+                + "Content-Length: " + content.length + CRLF
+                + "Connection: keep-alive" + CRLF
+                + CRLF;
+        output.write(head.getBytes("ISO-8859-1"));
+        output.write(content);
+        output.flush();
+    }
+}
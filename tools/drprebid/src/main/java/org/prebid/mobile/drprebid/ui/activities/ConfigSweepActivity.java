@@ -0,0 +1,161 @@
+package org.prebid.mobile.drprebid.ui.activities;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.v7.app.ActionBar;
+import android.support.v7.app.AppCompatActivity;
+import android.text.TextUtils;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import org.prebid.mobile.drprebid.R;
+import org.prebid.mobile.drprebid.managers.SettingsManager;
+import org.prebid.mobile.drprebid.model.SweepConfig;
+import org.prebid.mobile.drprebid.model.SweepResult;
+import org.prebid.mobile.drprebid.validation.ConfigSweep;
+import org.prebid.mobile.drprebid.validation.SweepConfigParser;
+
+import java.util.List;
+
+public class ConfigSweepActivity extends AppCompatActivity {
+
+    private EditText mConfigsField;
+    private EditText mRequestsPerConfigField;
+    private EditText mMaxQpsField;
+    private Button mStartButton;
+    private ProgressBar mProgressBar;
+    private TextView mProgressView;
+    private TextView mSummaryView;
+
+    private ConfigSweep mSweep;
+    private String mSummary;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_config_sweep);
+
+        ActionBar actionBar = getSupportActionBar();
+        if (actionBar != null) {
+            actionBar.setDisplayHomeAsUpEnabled(true);
+        }
+
+        mConfigsField = findViewById(R.id.field_sweep_configs);
+        mRequestsPerConfigField = findViewById(R.id.field_sweep_requests_per_config);
+        mMaxQpsField = findViewById(R.id.field_sweep_max_qps);
+        mStartButton = findViewById(R.id.button_start_sweep);
+        mProgressBar = findViewById(R.id.progress_sweep);
+        mProgressView = findViewById(R.id.text_sweep_progress);
+        mSummaryView = findViewById(R.id.text_sweep_summary);
+
+        SettingsManager settingsManager = SettingsManager.getInstance(this);
+        mConfigsField.setText(settingsManager.getSweepConfigs());
+        mRequestsPerConfigField.setText(String.valueOf(settingsManager.getSweepRequestsPerConfig()));
+        mMaxQpsField.setText(String.valueOf(settingsManager.getSweepMaxQps()));
+
+        mStartButton.setOnClickListener(v -> startSweep());
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.config_sweep, menu);
+        menu.findItem(R.id.action_share_summary).setVisible(mSummary != null);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case android.R.id.home:
+                onBackPressed();
+                return true;
+            case R.id.action_share_summary:
+                shareSummary();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (mSweep != null) {
+            mSweep.cancel();
+        }
+        super.onDestroy();
+    }
+
+    private void startSweep() {
+        String configsText = mConfigsField.getText().toString();
+        int requestsPerConfig = parsePositive(mRequestsPerConfigField.getText().toString());
+        int maxQps = parsePositive(mMaxQpsField.getText().toString());
+        if (requestsPerConfig == 0 || maxQps == 0) {
+            Toast.makeText(this, R.string.sweep_invalid_numbers, Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        List<SweepConfig> configs;
+        try {
+            configs = new SweepConfigParser(SettingsManager.getInstance(this).getPrebidServerSettings()).parse(configsText);
+        } catch (IllegalArgumentException exception) {
+            Toast.makeText(this, exception.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (configs.isEmpty()) {
+            Toast.makeText(this, R.string.sweep_no_configs, Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        SettingsManager.getInstance(this).setSweep(configsText, requestsPerConfig, maxQps);
+
+        mStartButton.setEnabled(false);
+        mProgressBar.setVisibility(View.VISIBLE);
+        mProgressView.setVisibility(View.VISIBLE);
+        mSummaryView.setText("");
+        mSummary = null;
+        invalidateOptionsMenu();
+
+        mSweep = new ConfigSweep(this, configs, requestsPerConfig, maxQps, new ConfigSweep.Listener() {
+            @Override
+            public void onSweepProgress(int completedCount, int requestCount) {
+                mProgressBar.setMax(requestCount);
+                mProgressBar.setProgress(completedCount);
+                mProgressView.setText(getString(R.string.bid_responses_progress_value, completedCount, requestCount));
+            }
+
+            @Override
+            public void onSweepFinished(List<SweepResult> results) {
+                mSummary = ConfigSweep.formatSummary(results);
+                mSummaryView.setText(mSummary);
+                mStartButton.setEnabled(true);
+                mSweep = null;
+                invalidateOptionsMenu();
+            }
+        });
+        mSweep.start();
+    }
+
+    private void shareSummary() {
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("text/plain");
+        intent.putExtra(Intent.EXTRA_TEXT, mSummary);
+        startActivity(Intent.createChooser(intent, getString(R.string.share_summary_title)));
+    }
+
+    private static int parsePositive(String text) {
+        if (TextUtils.isEmpty(text)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(text.trim()));
+        } catch (NumberFormatException exception) {
+            return 0;
+        }
+    }
+}
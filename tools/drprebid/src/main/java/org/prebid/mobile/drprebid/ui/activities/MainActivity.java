@@ -74,6 +74,9 @@ public class MainActivity extends AppCompatActivity {
                 Intent intent = InfoActivity.newIntent(this, aboutScreen.getTitle(), aboutScreen.getHtmlAsset());
                 startActivity(intent);
                 return true;
+            case R.id.action_config_sweep:
+                startActivity(new Intent(this, ConfigSweepActivity.class));
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
@@ -57,6 +57,10 @@ public class QrCodeCaptureActivity extends AppCompatActivity implements CodeGrap
     public static final String EXTRA_USE_FLASH = "UseFlash";
     public static final String BarcodeObject = "Barcode";
 
+    // share of the shorter preview side scanned for codes, and the size it is scaled down to
+    private static final float DETECTION_REGION = 0.7f;
+    private static final int MAX_DETECTION_SIZE = 640;
+
     private CameraSource mCameraSource;
     private CameraSourcePreview mPreview;
     private GraphicOverlay<CodeGraphic> mGraphicOverlay;
@@ -186,7 +190,8 @@ public class QrCodeCaptureActivity extends AppCompatActivity implements CodeGrap
         CameraSource.Builder builder = new CameraSource.Builder(getApplicationContext(), barcodeDetector)
                 .setFacing(CameraSource.CAMERA_FACING_BACK)
                 .setRequestedPreviewSize(1600, 1024)
-                .setRequestedFps(15.0f);
+                .setRequestedFps(15.0f)
+                .setDetectionRegion(DETECTION_REGION, MAX_DETECTION_SIZE);
 
         // make sure that auto focus is an available option
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
@@ -312,11 +317,11 @@ public class QrCodeCaptureActivity extends AppCompatActivity implements CodeGrap
      * @return true if the activity is ending.
      */
     private boolean onTap(float rawX, float rawY) {
-        // Find tap point in preview frame coordinates.
+        // Find tap point in detection frame coordinates.
         int[] location = new int[2];
         mGraphicOverlay.getLocationOnScreen(location);
-        float x = (rawX - location[0]) / mGraphicOverlay.getWidthScaleFactor();
-        float y = (rawY - location[1]) / mGraphicOverlay.getHeightScaleFactor();
+        float x = mGraphicOverlay.viewToFrameX(rawX - location[0]);
+        float y = mGraphicOverlay.viewToFrameY(rawY - location[1]);
 
         // Find the barcode whose center is closest to the tapped point.
         Barcode best = null;
@@ -338,18 +343,31 @@ public class QrCodeCaptureActivity extends AppCompatActivity implements CodeGrap
         }
 
         if (best != null) {
-            Intent data = new Intent();
-            data.putExtra(BarcodeObject, best);
-            setResult(CommonStatusCodes.SUCCESS, data);
-
-            QrCodeScanCacheManager.getInstance(this).setCache(best.displayValue);
-
-            finish();
+            returnBarcode(best);
             return true;
         }
         return false;
     }
 
+    private void returnBarcode(Barcode barcode) {
+        if (isFinishing()) {
+            return;
+        }
+
+        // no more frames once the code is read
+        if (mPreview != null) {
+            mPreview.stop();
+        }
+
+        Intent data = new Intent();
+        data.putExtra(BarcodeObject, barcode);
+        setResult(CommonStatusCodes.SUCCESS, data);
+
+        QrCodeScanCacheManager.getInstance(this).setCache(barcode.displayValue);
+
+        finish();
+    }
+
     private class CaptureGestureListener extends GestureDetector.SimpleOnGestureListener {
         @Override
         public boolean onSingleTapConfirmed(MotionEvent e) {
@@ -413,6 +431,6 @@ public class QrCodeCaptureActivity extends AppCompatActivity implements CodeGrap
 
     @Override
     public void onBarcodeDetected(Barcode barcode) {
-        //do something with barcode data returned
+        runOnUiThread(() -> returnBarcode(barcode));
     }
 }
@@ -1,20 +1,31 @@
 package org.prebid.mobile.drprebid.ui.activities;
 
 import android.arch.lifecycle.ViewModelProviders;
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.support.v4.content.FileProvider;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.DefaultItemAnimator;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.view.Menu;
+import android.view.MenuItem;
 
 import com.google.android.gms.ads.MobileAds;
 import com.mopub.common.MoPub;
 import com.mopub.common.SdkConfiguration;
 
 import org.prebid.mobile.drprebid.R;
+import org.prebid.mobile.drprebid.managers.LineItemKeywordManager;
+import org.prebid.mobile.drprebid.managers.MockServerManager;
 import org.prebid.mobile.drprebid.managers.SettingsManager;
 import org.prebid.mobile.drprebid.model.AdServer;
 import org.prebid.mobile.drprebid.model.AdServerSettings;
+import org.prebid.mobile.drprebid.model.Bidder;
+import org.prebid.mobile.drprebid.model.DemandTestResults;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+import org.prebid.mobile.drprebid.model.SettingsSnapshot;
 import org.prebid.mobile.drprebid.ui.adapters.TestResultsAdapter;
 import org.prebid.mobile.drprebid.ui.viewmodels.AdServerValidationViewModel;
 import org.prebid.mobile.drprebid.ui.viewmodels.PrebidServerValidationViewModel;
@@ -23,6 +34,10 @@ import org.prebid.mobile.drprebid.validation.AdServerTest;
 import org.prebid.mobile.drprebid.validation.RealTimeDemandTest;
 import org.prebid.mobile.drprebid.validation.SdkTest;
 
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
 public class TestResultsActivity extends AppCompatActivity {
 
     private RecyclerView mListView;
@@ -30,6 +45,11 @@ public class TestResultsActivity extends AppCompatActivity {
     private AdServerValidationViewModel mAdServerValidationViewModel;
     private PrebidServerValidationViewModel mDemandValidationViewModel;
     private SdkValidationViewModel mSdkValidationViewModel;
+    private RealTimeDemandTest mDemandValidator;
+    // one snapshot for the whole run, so that all tests use the same settings
+    private SettingsSnapshot mSettings;
+
+    private File mSampleFile;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -43,7 +63,8 @@ public class TestResultsActivity extends AppCompatActivity {
         mDemandValidationViewModel = ViewModelProviders.of(this).get(PrebidServerValidationViewModel.class);
         mSdkValidationViewModel = ViewModelProviders.of(this).get(SdkValidationViewModel.class);
 
-        AdServerSettings adServerSettings = SettingsManager.getInstance(this).getAdServerSettings();
+        mSettings = SettingsManager.getInstance(this).getSnapshot();
+        AdServerSettings adServerSettings = mSettings.getAdServerSettings();
 
         if (adServerSettings.getAdServer() == AdServer.MOPUB) {
             initMoPub(adServerSettings.getAdUnitId());
@@ -52,6 +73,34 @@ public class TestResultsActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.test_results, menu);
+        menu.findItem(R.id.action_share_samples).setVisible(mSampleFile != null);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.action_share_samples:
+                shareSamples();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
+    private void shareSamples() {
+        Uri uri = FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", mSampleFile);
+
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("text/tab-separated-values");
+        intent.putExtra(Intent.EXTRA_STREAM, uri);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(intent, getString(R.string.share_samples_title)));
+    }
+
     private void initMoPub(String adUnitId) {
         SdkConfiguration sdkConfiguration = new SdkConfiguration.Builder(adUnitId).build();
         MoPub.initializeSdk(this, sdkConfiguration, this::runTests);
@@ -70,12 +119,24 @@ public class TestResultsActivity extends AppCompatActivity {
         mListView.setAdapter(adapter);
     }
 
+    @Override
+    protected void onDestroy() {
+        if (mDemandValidator != null) {
+            mDemandValidator.cancel();
+        }
+        MockServerManager.getInstance(this).stop();
+        super.onDestroy();
+    }
+
     private void runTests() {
+        MockServerManager.getInstance(this).start(mSettings.getMockServerMode());
+        // does not wait, ids stay valid for a while after they become due for refresh
+        LineItemKeywordManager.getInstance().refreshCacheIds(this);
         runAdServerValidationTest();
     }
 
     private void runAdServerValidationTest() {
-        AdServerTest adServerTest = new AdServerTest(this, new AdServerTest.Listener() {
+        AdServerTest adServerTest = new AdServerTest(this, mSettings, new AdServerTest.Listener() {
             @Override
             public void onPrebidKeywordsFoundOnRequest() {
                 mAdServerValidationViewModel.setRequestSent(true);
@@ -106,22 +167,42 @@ public class TestResultsActivity extends AppCompatActivity {
     }
 
     private void runDemandValidationTest() {
-        RealTimeDemandTest demandValidator = new RealTimeDemandTest(this, results -> {
-            int totalBids = results.getTotalBids();
+        mDemandValidator = new RealTimeDemandTest(this, mSettings, new RealTimeDemandTest.Listener() {
+            @Override
+            public void onTestFinished(DemandTestResults results) {
+                int totalBids = results.getTotalBids();
+
+                mDemandValidationViewModel.setBidResponseReceivedCount(totalBids);
+                mDemandValidationViewModel.setAverageCpm(results.getAvgEcpm());
+                mDemandValidationViewModel.setAverageResponseTime(results.getAvgResponseTime());
+                mDemandValidationViewModel.setConnectionResponseTimes(results.getAvgColdResponseTime(), results.getAvgWarmResponseTime());
+                mDemandValidationViewModel.setResponseTimeHistogram(results.getResponseTimes());
 
-            mDemandValidationViewModel.setBidResponseReceivedCount(totalBids);
-            mDemandValidationViewModel.setAverageCpm(results.getAvgEcpm());
-            mDemandValidationViewModel.setAverageResponseTime(results.getAvgResponseTime());
+                Map<String, LatencyHistogram> bidderResponseTimes = new TreeMap<>();
+                for (Map.Entry<String, Bidder> entry : results.getBidders().entrySet()) {
+                    bidderResponseTimes.put(entry.getKey(), entry.getValue().getResponseTimes());
+                }
+                mDemandValidationViewModel.setBidderResponseTimeHistograms(bidderResponseTimes);
 
-            runSdkValidationTest();
+                mSampleFile = results.getSampleFile();
+                invalidateOptionsMenu();
+
+                runSdkValidationTest();
+            }
+
+            @Override
+            public void onTestProgress(int completedCount, int requestCount) {
+                mDemandValidationViewModel.setRequestProgress(completedCount, requestCount);
+            }
         });
 
-        demandValidator.startTest();
+        mDemandValidator.startTest();
+        mDemandValidationViewModel.setBidRequestSentCount(mSettings.getLoadTestSettings().getRequestCount());
         mDemandValidationViewModel.setBidRequestsSent(true);
     }
 
     private void runSdkValidationTest() {
-        SdkTest sdkTest = new SdkTest(this, new SdkTest.Listener() {
+        SdkTest sdkTest = new SdkTest(this, mSettings, new SdkTest.Listener() {
             @Override
             public void onAdUnitRegistered() {
                 mSdkValidationViewModel.setAdUnitRegistered(true);
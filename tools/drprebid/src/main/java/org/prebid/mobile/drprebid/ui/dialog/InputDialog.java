@@ -78,6 +78,15 @@ public class InputDialog extends DialogFragment {
                     case Constants.Params.TYPE_CONFIG_ID:
                         mInput.setText(settingsManager.getPrebidServerSettings().getConfigId());
                         break;
+                    case Constants.Params.TYPE_LOAD_TEST_REQUEST_COUNT:
+                        mInput.setText(String.valueOf(settingsManager.getLoadTestSettings().getRequestCount()));
+                        break;
+                    case Constants.Params.TYPE_LOAD_TEST_CONCURRENCY:
+                        mInput.setText(String.valueOf(settingsManager.getLoadTestSettings().getConcurrency()));
+                        break;
+                    case Constants.Params.TYPE_LOAD_TEST_TARGET_QPS:
+                        mInput.setText(String.valueOf(settingsManager.getLoadTestSettings().getTargetQps()));
+                        break;
                 }
             }
 
@@ -142,6 +151,15 @@ public class InputDialog extends DialogFragment {
                             mSettingsViewModel.setConfigId(text);
                             settingsManager.setConfigId(text);
                             break;
+                        case Constants.Params.TYPE_LOAD_TEST_REQUEST_COUNT:
+                            settingsManager.setLoadTestRequestCount(parseInt(text));
+                            break;
+                        case Constants.Params.TYPE_LOAD_TEST_CONCURRENCY:
+                            settingsManager.setLoadTestConcurrency(parseInt(text));
+                            break;
+                        case Constants.Params.TYPE_LOAD_TEST_TARGET_QPS:
+                            settingsManager.setLoadTestTargetQps(parseInt(text));
+                            break;
                     }
                 }
 
@@ -171,6 +189,14 @@ public class InputDialog extends DialogFragment {
         super.onDestroy();
     }
 
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     private void openCaptureActivity() {
         if (getContext() != null) {
             Intent intent = new Intent(getContext(), QrCodeCaptureActivity.class);
@@ -12,20 +12,30 @@ import android.view.View;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 
+import org.prebid.mobile.drprebid.Constants;
 import org.prebid.mobile.drprebid.R;
 import org.prebid.mobile.drprebid.managers.SettingsManager;
 import org.prebid.mobile.drprebid.model.AdFormat;
 import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.GeneralSettings;
 import org.prebid.mobile.drprebid.model.HelpScreen;
+import org.prebid.mobile.drprebid.model.LoadTestSettings;
+import org.prebid.mobile.drprebid.model.MockServerMode;
 import org.prebid.mobile.drprebid.ui.activities.InfoActivity;
 import org.prebid.mobile.drprebid.ui.dialog.AdSizeDialog;
+import org.prebid.mobile.drprebid.ui.dialog.InputDialog;
 import org.prebid.mobile.drprebid.ui.viewmodels.SettingsViewModel;
 import org.prebid.mobile.drprebid.util.HelpScreenUtil;
 
+import java.util.Locale;
+
 public class GeneralSettingsViewHolder extends RecyclerView.ViewHolder implements SettingsViewHolder, LifecycleOwner {
     private RadioGroup mAdFormatGroup;
+    private RadioGroup mMockServerGroup;
     private TextView mAdSizeView;
+    private TextView mRequestCountView;
+    private TextView mConcurrencyView;
+    private TextView mTargetQpsView;
     private SettingsViewModel mSettingsViewModel;
 
     public GeneralSettingsViewHolder(@NonNull final View itemView) {
@@ -56,6 +66,33 @@ public class GeneralSettingsViewHolder extends RecyclerView.ViewHolder implement
             dialog.show(fragmentManager, AdSizeDialog.TAG);
         });
 
+        mRequestCountView = itemView.findViewById(R.id.view_load_test_request_count);
+        mRequestCountView.setOnClickListener(v -> openInputDialog(itemView.getContext().getString(R.string.load_test_request_count),
+                Constants.Params.TYPE_LOAD_TEST_REQUEST_COUNT));
+
+        mConcurrencyView = itemView.findViewById(R.id.view_load_test_concurrency);
+        mConcurrencyView.setOnClickListener(v -> openInputDialog(itemView.getContext().getString(R.string.load_test_concurrency),
+                Constants.Params.TYPE_LOAD_TEST_CONCURRENCY));
+
+        mTargetQpsView = itemView.findViewById(R.id.view_load_test_target_qps);
+        mTargetQpsView.setOnClickListener(v -> openInputDialog(itemView.getContext().getString(R.string.load_test_target_qps),
+                Constants.Params.TYPE_LOAD_TEST_TARGET_QPS));
+
+        mMockServerGroup = itemView.findViewById(R.id.group_mock_server);
+        mMockServerGroup.setOnCheckedChangeListener((group, checkedId) -> {
+            switch (checkedId) {
+                case R.id.radio_mock_server_live:
+                    SettingsManager.getInstance(itemView.getContext()).setMockServerMode(MockServerMode.LIVE);
+                    break;
+                case R.id.radio_mock_server_record:
+                    SettingsManager.getInstance(itemView.getContext()).setMockServerMode(MockServerMode.RECORD);
+                    break;
+                case R.id.radio_mock_server_replay:
+                    SettingsManager.getInstance(itemView.getContext()).setMockServerMode(MockServerMode.REPLAY);
+                    break;
+            }
+        });
+
         mSettingsViewModel = ViewModelProviders.of((AppCompatActivity) itemView.getContext()).get(SettingsViewModel.class);
 
         mSettingsViewModel.getAdSize().observe(this, adSize -> {
@@ -63,6 +100,12 @@ public class GeneralSettingsViewHolder extends RecyclerView.ViewHolder implement
                 fillAdSize(adSize);
             }
         });
+
+        SettingsManager.getInstance(itemView.getContext()).getSettings().observe(this, settings -> {
+            if (settings != null) {
+                fillLoadTestSettings(settings.getLoadTestSettings());
+            }
+        });
     }
 
     @NonNull
@@ -80,6 +123,7 @@ public class GeneralSettingsViewHolder extends RecyclerView.ViewHolder implement
         GeneralSettings settings = SettingsManager.getInstance(itemView.getContext()).getGeneralSettings();
 
         fillAdSize(settings.getAdSize());
+        fillLoadTestSettings(SettingsManager.getInstance(itemView.getContext()).getLoadTestSettings());
 
         switch (settings.getAdFormat()) {
             case BANNER:
@@ -91,6 +135,33 @@ public class GeneralSettingsViewHolder extends RecyclerView.ViewHolder implement
             default:
                 mAdFormatGroup.check(R.id.radio_banner);
         }
+
+        switch (SettingsManager.getInstance(itemView.getContext()).getMockServerMode()) {
+            case RECORD:
+                mMockServerGroup.check(R.id.radio_mock_server_record);
+                break;
+            case REPLAY:
+                mMockServerGroup.check(R.id.radio_mock_server_replay);
+                break;
+            default:
+                mMockServerGroup.check(R.id.radio_mock_server_live);
+        }
+    }
+
+    private void openInputDialog(String title, int type) {
+        FragmentManager fragmentManager = ((AppCompatActivity) itemView.getContext()).getSupportFragmentManager();
+        InputDialog dialog = InputDialog.newInstance(title, type, Constants.Params.FORMAT_INT, false);
+        dialog.show(fragmentManager, InputDialog.TAG);
+    }
+
+    private void fillLoadTestSettings(LoadTestSettings settings) {
+        mRequestCountView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.load_test_request_count_value), settings.getRequestCount()));
+        mConcurrencyView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.load_test_concurrency_value), settings.getConcurrency()));
+        if (settings.isPaced()) {
+            mTargetQpsView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.load_test_target_qps_value), settings.getTargetQps()));
+        } else {
+            mTargetQpsView.setText(R.string.load_test_unpaced);
+        }
     }
 
     private void fillAdSize(AdSize adSize) {
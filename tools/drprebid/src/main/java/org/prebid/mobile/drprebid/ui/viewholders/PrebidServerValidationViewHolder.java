@@ -7,6 +7,7 @@ import android.content.Intent;
 import android.support.annotation.NonNull;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
@@ -14,11 +15,16 @@ import android.widget.TextView;
 
 import org.prebid.mobile.drprebid.R;
 import org.prebid.mobile.drprebid.model.HelpScreen;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
 import org.prebid.mobile.drprebid.ui.activities.InfoActivity;
 import org.prebid.mobile.drprebid.ui.viewmodels.PrebidServerValidationViewModel;
+import org.prebid.mobile.drprebid.ui.views.LatencyHistogramView;
 import org.prebid.mobile.drprebid.util.HelpScreenUtil;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class PrebidServerValidationViewHolder extends RecyclerView.ViewHolder implements TestResultViewHolder, LifecycleOwner {
     private ProgressBar totalProgress;
@@ -34,6 +40,10 @@ public class PrebidServerValidationViewHolder extends RecyclerView.ViewHolder im
 
     private TextView avgCpmView;
     private TextView avgResponseTimeView;
+    private TextView connectionResponseTimeView;
+    private TextView responseTimePercentilesView;
+    private LatencyHistogramView responseTimeHistogramView;
+    private TextView bidderResponseTimePercentilesView;
 
     private boolean sentPassed = false;
     private boolean sentFinished = false;
@@ -62,6 +72,10 @@ public class PrebidServerValidationViewHolder extends RecyclerView.ViewHolder im
 
         avgCpmView = itemView.findViewById(R.id.view_average_cpm);
         avgResponseTimeView = itemView.findViewById(R.id.view_average_response_time);
+        connectionResponseTimeView = itemView.findViewById(R.id.view_connection_response_time);
+        responseTimePercentilesView = itemView.findViewById(R.id.view_response_time_percentiles);
+        responseTimeHistogramView = itemView.findViewById(R.id.view_response_time_histogram);
+        bidderResponseTimePercentilesView = itemView.findViewById(R.id.view_bidder_response_time_percentiles);
 
         PrebidServerValidationViewModel viewModel = ViewModelProviders.of((AppCompatActivity) itemView.getContext()).get(PrebidServerValidationViewModel.class);
 
@@ -77,13 +91,20 @@ public class PrebidServerValidationViewHolder extends RecyclerView.ViewHolder im
                 sentPassed = false;
             }
 
-            sendRequestView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.bid_requests_sent_value), 100));
+            Integer sentCount = viewModel.getBidRequestSentCount().getValue();
+            sendRequestView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.bid_requests_sent_value), sentCount != null ? sentCount : 0));
 
             sentFinished = true;
 
             updateTotal();
         });
 
+        viewModel.getRequestProgress().observe(this, progress -> {
+            if (!receivedFinished) {
+                responseReceivedView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.bid_responses_progress_value), progress[0], progress[1]));
+            }
+        });
+
         viewModel.getBidResponsesReceived().observe(this, count -> {
             responseReceivedProgress.setVisibility(View.GONE);
             responseReceivedIcon.setVisibility(View.VISIBLE);
@@ -107,6 +128,26 @@ public class PrebidServerValidationViewHolder extends RecyclerView.ViewHolder im
             avgResponseTimeView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.average_response_time_value), averageResponseTime));
         });
 
+        viewModel.getConnectionResponseTimes().observe(this, responseTimes -> {
+            connectionResponseTimeView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.connection_response_time_value), responseTimes[0], responseTimes[1]));
+        });
+
+        viewModel.getResponseTimeHistogram().observe(this, histogram -> {
+            responseTimePercentilesView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.response_time_percentiles_value),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99), histogram.getMax()));
+            responseTimeHistogramView.setHistogram(histogram);
+        });
+
+        viewModel.getBidderResponseTimeHistograms().observe(this, histograms -> {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                lines.add(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.bidder_response_time_percentiles_value), entry.getKey(),
+                        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99), histogram.getMax()));
+            }
+            bidderResponseTimePercentilesView.setText(TextUtils.join("\n", lines));
+        });
+
         viewModel.getAverageCpm().observe(this, averageCpm -> {
             avgCpmView.setText(String.format(Locale.ENGLISH, itemView.getContext().getString(R.string.average_cpm_value), averageCpm));
         });
@@ -4,6 +4,10 @@ import android.arch.lifecycle.LiveData;
 import android.arch.lifecycle.MutableLiveData;
 import android.arch.lifecycle.ViewModel;
 
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+
+import java.util.Map;
+
 public class PrebidServerValidationViewModel extends ViewModel {
     private final MutableLiveData<Boolean> mBidRequestsSent;
     private final MutableLiveData<Integer> mBidRequestSentCount;
@@ -11,6 +15,10 @@ public class PrebidServerValidationViewModel extends ViewModel {
     private final MutableLiveData<Integer> mBidResponseReceivedCount;
     private final MutableLiveData<Float> mAverageCpm;
     private final MutableLiveData<Long> mAverageResponseTime;
+    private final MutableLiveData<long[]> mConnectionResponseTimes;
+    private final MutableLiveData<int[]> mRequestProgress;
+    private final MutableLiveData<LatencyHistogram> mResponseTimeHistogram;
+    private final MutableLiveData<Map<String, LatencyHistogram>> mBidderResponseTimeHistograms;
 
     public PrebidServerValidationViewModel() {
         mBidRequestsSent = new MutableLiveData<>();
@@ -19,6 +27,10 @@ public class PrebidServerValidationViewModel extends ViewModel {
         mBidResponseReceivedCount = new MutableLiveData<>();
         mAverageCpm = new MutableLiveData<>();
         mAverageResponseTime = new MutableLiveData<>();
+        mConnectionResponseTimes = new MutableLiveData<>();
+        mRequestProgress = new MutableLiveData<>();
+        mResponseTimeHistogram = new MutableLiveData<>();
+        mBidderResponseTimeHistograms = new MutableLiveData<>();
     }
 
     public LiveData<Boolean> getBidRequestsSent() {
@@ -60,4 +72,48 @@ public class PrebidServerValidationViewModel extends ViewModel {
     public void setAverageResponseTime(long responseTime) {
         mAverageResponseTime.setValue(responseTime);
     }
+
+    /**
+     * @return the average round trip time on a new connection and on a reused connection
+     */
+    public LiveData<long[]> getConnectionResponseTimes() {
+        return mConnectionResponseTimes;
+    }
+
+    public void setConnectionResponseTimes(long coldResponseTime, long warmResponseTime) {
+        mConnectionResponseTimes.setValue(new long[]{coldResponseTime, warmResponseTime});
+    }
+
+    /**
+     * @return the number of completed requests and the total number of requests of the running test
+     */
+    public LiveData<int[]> getRequestProgress() {
+        return mRequestProgress;
+    }
+
+    public void setRequestProgress(int completedCount, int requestCount) {
+        mRequestProgress.setValue(new int[]{completedCount, requestCount});
+    }
+
+    /**
+     * @return the end to end response times of all requests
+     */
+    public LiveData<LatencyHistogram> getResponseTimeHistogram() {
+        return mResponseTimeHistogram;
+    }
+
+    public void setResponseTimeHistogram(LatencyHistogram histogram) {
+        mResponseTimeHistogram.setValue(histogram);
+    }
+
+    /**
+     * @return the server reported response times by bidder name
+     */
+    public LiveData<Map<String, LatencyHistogram>> getBidderResponseTimeHistograms() {
+        return mBidderResponseTimeHistograms;
+    }
+
+    public void setBidderResponseTimeHistograms(Map<String, LatencyHistogram> histograms) {
+        mBidderResponseTimeHistograms.setValue(histograms);
+    }
 }
@@ -0,0 +1,112 @@
+package org.prebid.mobile.drprebid.ui.views;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.content.ContextCompat;
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.prebid.mobile.drprebid.R;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+import org.prebid.mobile.drprebid.util.DimenUtil;
+
+import java.util.Locale;
+
+/**
+ * Draws the distribution of a {@link LatencyHistogram} as bars from 0 to the maximum,
+ * with markers at p50, p90 and p99.
+ */
+public class LatencyHistogramView extends View {
+    private static final int BIN_COUNT = 40;
+    private static final double[] MARKED_PERCENTILES = {50, 90, 99};
+
+    private final Paint mBarPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mMarkerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private int[] mBins = new int[BIN_COUNT];
+    private int mMaxBinCount;
+    private long mMaxValue;
+    private long[] mMarkerValues = new long[MARKED_PERCENTILES.length];
+
+    public LatencyHistogramView(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public LatencyHistogramView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public LatencyHistogramView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public LatencyHistogramView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        init();
+    }
+
+    private void init() {
+        mBarPaint.setColor(ContextCompat.getColor(getContext(), R.color.colorAccent));
+
+        mMarkerPaint.setColor(ContextCompat.getColor(getContext(), R.color.colorPrimaryDark));
+        mMarkerPaint.setStrokeWidth(DimenUtil.convertDpToPx(getContext(), 1));
+
+        mLabelPaint.setColor(ContextCompat.getColor(getContext(), R.color.colorPrimaryDark));
+        mLabelPaint.setTextSize(DimenUtil.convertDpToPx(getContext(), 10));
+    }
+
+    public void setHistogram(@NonNull LatencyHistogram histogram) {
+        mBins = histogram.getDistribution(BIN_COUNT);
+        mMaxBinCount = 0;
+        for (int count : mBins) {
+            mMaxBinCount = Math.max(mMaxBinCount, count);
+        }
+        mMaxValue = histogram.getMax();
+        for (int i = 0; i < MARKED_PERCENTILES.length; i++) {
+            mMarkerValues[i] = histogram.getValueAtPercentile(MARKED_PERCENTILES[i]);
+        }
+
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mMaxBinCount == 0) {
+            return;
+        }
+
+        float left = getPaddingLeft();
+        float top = getPaddingTop() + mLabelPaint.getTextSize();
+        float width = getWidth() - getPaddingLeft() - getPaddingRight();
+        float bottom = getHeight() - getPaddingBottom() - mLabelPaint.getTextSize();
+        float barWidth = width / BIN_COUNT;
+
+        for (int i = 0; i < BIN_COUNT; i++) {
+            if (mBins[i] > 0) {
+                float barTop = bottom - (bottom - top) * mBins[i] / mMaxBinCount;
+                canvas.drawRect(left + i * barWidth + 1, barTop, left + (i + 1) * barWidth - 1, bottom, mBarPaint);
+            }
+        }
+
+        for (int i = 0; i < MARKED_PERCENTILES.length; i++) {
+            float x = left + width * mMarkerValues[i] / (mMaxValue + 1);
+            canvas.drawLine(x, top, x, bottom, mMarkerPaint);
+            // staggered, close percentiles would overlap otherwise
+            canvas.drawText(String.format(Locale.ENGLISH, "p%d", (int) MARKED_PERCENTILES[i]), x + 2, top + i * mLabelPaint.getTextSize(), mLabelPaint);
+        }
+
+        canvas.drawText("0", left, getHeight() - getPaddingBottom(), mLabelPaint);
+        String maxLabel = String.format(Locale.ENGLISH, "%d ms", mMaxValue);
+        canvas.drawText(maxLabel, left + width - mLabelPaint.measureText(maxLabel), getHeight() - getPaddingBottom(), mLabelPaint);
+    }
+}
@@ -18,7 +18,6 @@ import com.mopub.volley.Request;
 import com.mopub.volley.RequestQueue;
 
 import org.prebid.mobile.drprebid.managers.LineItemKeywordManager;
-import org.prebid.mobile.drprebid.managers.SettingsManager;
 import org.prebid.mobile.drprebid.model.AdFormat;
 import org.prebid.mobile.drprebid.model.AdServer;
 import org.prebid.mobile.drprebid.model.AdServerSettings;
@@ -27,6 +26,7 @@ import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.GeneralSettings;
 import org.prebid.mobile.drprebid.model.PrebidServer;
 import org.prebid.mobile.drprebid.model.PrebidServerSettings;
+import org.prebid.mobile.drprebid.model.SettingsSnapshot;
 import org.prebid.mobile.drprebid.util.DimenUtil;
 import org.prebid.mobile.drprebid.util.IOUtil;
 
@@ -62,6 +62,7 @@ public class AdServerTest implements MoPubView.BannerAdListener, MoPubInterstiti
 
     private final Listener mListener;
     private final Activity mContext;
+    private final SettingsSnapshot mSettings;
 
     private MoPubView mMoPubAd;
     private MoPubInterstitial mMoPubInterstitial;
@@ -72,15 +73,16 @@ public class AdServerTest implements MoPubView.BannerAdListener, MoPubInterstiti
     private String mRequestId;
     private Map<String, String> mKeywords;
 
-    public AdServerTest(Activity context, Listener listener) {
+    public AdServerTest(Activity context, SettingsSnapshot settings, Listener listener) {
         mContext = context;
+        mSettings = settings;
         mListener = listener;
     }
 
     public void startTest() {
-        GeneralSettings generalSettings = SettingsManager.getInstance(mContext).getGeneralSettings();
-        AdServerSettings adServerSettings = SettingsManager.getInstance(mContext).getAdServerSettings();
-        PrebidServerSettings prebidServerSettings = SettingsManager.getInstance(mContext).getPrebidServerSettings();
+        GeneralSettings generalSettings = mSettings.getGeneralSettings();
+        AdServerSettings adServerSettings = mSettings.getAdServerSettings();
+        PrebidServerSettings prebidServerSettings = mSettings.getPrebidServerSettings();
 
         switch (generalSettings.getAdSize()) {
             case BANNER_300x250:
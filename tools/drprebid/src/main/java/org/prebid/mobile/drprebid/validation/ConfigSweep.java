@@ -0,0 +1,231 @@
+package org.prebid.mobile.drprebid.validation;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.prebid.mobile.AdUnit;
+import org.prebid.mobile.BannerAdUnit;
+import org.prebid.mobile.drprebid.Constants;
+import org.prebid.mobile.drprebid.async.DemandTestResultTask;
+import org.prebid.mobile.drprebid.async.DemandTestTask;
+import org.prebid.mobile.drprebid.managers.DemandTestManager;
+import org.prebid.mobile.drprebid.managers.SettingsManager;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+import org.prebid.mobile.drprebid.model.PrebidServer;
+import org.prebid.mobile.drprebid.model.SweepConfig;
+import org.prebid.mobile.drprebid.model.SweepResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates many stored request configurations in one run.
+ * <p>
+ * Requests for all configurations share the request threads of {@link DemandTestManager} and are started at no more
+ * than the given rate in total, taking the configurations in turn so that every one of them progresses from the start.
+ * Responses are aggregated per configuration on the aggregation executor.
+ */
+public class ConfigSweep {
+    private static final String TAG = ConfigSweep.class.getSimpleName();
+
+    private static final int PROGRESS_INTERVAL_MILLIS = 250;
+
+    public interface Listener {
+        void onSweepProgress(int completedCount, int requestCount);
+
+        void onSweepFinished(List<SweepResult> results);
+    }
+
+    private final Context mContext;
+    private final Listener mListener;
+    private final List<SweepConfig> configs;
+    private final int requestsPerConfig;
+    private final int maxQps;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final List<SweepResult> results = new ArrayList<>();
+    private int requestCount;
+    private volatile ScheduledFuture<?> pacing;
+    private volatile boolean cancelled;
+
+    /**
+     * @param context an activity, the request body describes its display
+     * @param maxQps  requests started per second for all configurations together
+     */
+    public ConfigSweep(Context context, List<SweepConfig> configs, int requestsPerConfig, int maxQps, Listener listener) {
+        mContext = context;
+        mListener = listener;
+        this.configs = configs;
+        this.requestsPerConfig = requestsPerConfig;
+        this.maxQps = maxQps;
+    }
+
+    public void start() {
+        final List<String> urls = new ArrayList<>();
+        final List<String> requests = new ArrayList<>();
+        for (SweepConfig config : configs) {
+            urls.add(getAuctionUrl(config));
+
+            List<AdUnit> adUnits = Collections.singletonList(new BannerAdUnit(config.getConfigId(), config.getAdSize().getWidth(), config.getAdSize().getHeight()));
+            DemandRequestBuilder builder = new DemandRequestBuilder(mContext, config.getConfigId(), config.getAdSize());
+            requests.add(builder.buildRequest(adUnits, config.getAccountId(), true));
+
+            results.add(new SweepResult(config));
+        }
+
+        requestCount = configs.size() * requestsPerConfig;
+        completedCount.set(0);
+        cancelled = false;
+        DemandTestManager.getInstance().setConcurrency(SettingsManager.getInstance(mContext).getLoadTestSettings().getConcurrency());
+
+        if (requestCount == 0) {
+            mainHandler.post(this::finish);
+            return;
+        }
+
+        mainHandler.postDelayed(progressUpdate, PROGRESS_INTERVAL_MILLIS);
+
+        // latency is measured from the scheduled start like in the load test, so both are comparable
+        final long periodNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / maxQps);
+        final long startTime = System.nanoTime();
+        final AtomicInteger startedCount = new AtomicInteger();
+        pacing = DemandTestManager.getInstance().schedulePacing(() -> {
+            int index = startedCount.getAndIncrement();
+            if (index < requestCount && !cancelled) {
+                int configIndex = index % configs.size();
+                runRequest(urls.get(configIndex), requests.get(configIndex), results.get(configIndex), startTime + index * periodNanos);
+            } else if (pacing != null) {
+                pacing.cancel(false);
+            }
+        }, periodNanos);
+    }
+
+    /**
+     * Stops starting requests, requests already sent complete without being reported.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (pacing != null) {
+            pacing.cancel(false);
+        }
+        mainHandler.removeCallbacks(progressUpdate);
+    }
+
+    private String getAuctionUrl(SweepConfig config) {
+        switch (config.getPrebidServer()) {
+            case RUBICON:
+                return Constants.EndpointUrls.RUBICON_PREBID_SERVER;
+            case CUSTOM:
+                return RealTimeDemandTest.buildCustomServerEndpoint(config.getCustomPrebidServerUrl());
+            case APPNEXUS:
+            default:
+                return Constants.EndpointUrls.APPNEXUS_PREBID_SERVER;
+        }
+    }
+
+    private final Runnable progressUpdate = new Runnable() {
+        @Override
+        public void run() {
+            if (mListener != null) {
+                mListener.onSweepProgress(completedCount.get(), requestCount);
+            }
+            mainHandler.postDelayed(this, PROGRESS_INTERVAL_MILLIS);
+        }
+    };
+
+    private void runRequest(String url, String requestBody, final SweepResult result, long scheduledTime) {
+        // runs on the aggregation executor, one response at a time
+        DemandTestResultTask resultTask = new DemandTestResultTask((response, responseCode, responseTime, newConnection) -> {
+            if (cancelled) {
+                return;
+            }
+
+            int bidCount = 0;
+            double cpm = 0;
+            if (responseCode == 200) {
+                try {
+                    JSONArray seatbids = new JSONObject(response).optJSONArray("seatbid");
+                    if (seatbids != null) {
+                        for (int i = 0; i < seatbids.length(); i++) {
+                            JSONArray bids = seatbids.getJSONObject(i).optJSONArray("bid");
+                            if (bids != null) {
+                                for (int j = 0; j < bids.length(); j++) {
+                                    bidCount++;
+                                    cpm += bids.getJSONObject(j).optDouble("price", 0);
+                                }
+                            }
+                        }
+                    }
+                } catch (JSONException exception) {
+                    Log.e(TAG, exception.getMessage());
+                }
+            }
+            result.add(responseCode, responseTime, bidCount, cpm);
+
+            if (completedCount.incrementAndGet() == requestCount) {
+                mainHandler.post(this::finish);
+            }
+        });
+
+        DemandTestManager.getInstance().runRequest(new DemandTestTask(url, requestBody, resultTask, scheduledTime, DemandTestManager.getInstance().getAggregationExecutor()));
+    }
+
+    private void finish() {
+        mainHandler.removeCallbacks(progressUpdate);
+        if (mListener != null && !cancelled) {
+            mListener.onSweepProgress(requestCount, requestCount);
+            mListener.onSweepFinished(results);
+        }
+    }
+
+    /**
+     * @return the results as a plain text table, one row per configuration
+     */
+    public static String formatSummary(List<SweepResult> results) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"config", "size", "server", "requests", "errors", "fill", "eCPM", "p50", "p90", "max ms"});
+        for (SweepResult result : results) {
+            SweepConfig config = result.getConfig();
+            LatencyHistogram responseTimes = result.getResponseTimes();
+            rows.add(new String[]{
+                    config.getConfigId(),
+                    config.getAdSize().getWidth() + "x" + config.getAdSize().getHeight(),
+                    config.getPrebidServer() == PrebidServer.CUSTOM ? config.getCustomPrebidServerUrl() : config.getPrebidServer().name().toLowerCase(Locale.ENGLISH),
+                    String.valueOf(result.getRequestCount()),
+                    String.valueOf(result.getErrorCount()),
+                    String.format(Locale.ENGLISH, "%.1f%%", result.getFillRate() * 100),
+                    String.format(Locale.ENGLISH, "%.2f", result.getAvgEcpm()),
+                    String.valueOf(responseTimes.getValueAtPercentile(50)),
+                    String.valueOf(responseTimes.getValueAtPercentile(90)),
+                    String.valueOf(responseTimes.getMax())
+            });
+        }
+
+        int[] widths = new int[rows.get(0).length];
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                widths[i] = Math.max(widths[i], row[i].length());
+            }
+        }
+
+        StringBuilder table = new StringBuilder();
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                table.append(String.format(Locale.ENGLISH, "%-" + (widths[i] + 2) + "s", row[i]));
+            }
+            table.append('\n');
+        }
+        return table.toString();
+    }
+}
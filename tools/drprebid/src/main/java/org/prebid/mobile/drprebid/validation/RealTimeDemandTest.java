@@ -2,6 +2,8 @@ package org.prebid.mobile.drprebid.validation;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -15,44 +17,83 @@ import org.prebid.mobile.PrebidMobile;
 import org.prebid.mobile.drprebid.Constants;
 import org.prebid.mobile.drprebid.async.DemandTestResultTask;
 import org.prebid.mobile.drprebid.async.DemandTestTask;
+import org.prebid.mobile.drprebid.export.RunStatistics;
+import org.prebid.mobile.drprebid.export.Sample;
+import org.prebid.mobile.drprebid.export.SampleWriter;
 import org.prebid.mobile.drprebid.managers.DemandTestManager;
-import org.prebid.mobile.drprebid.managers.SettingsManager;
+import org.prebid.mobile.drprebid.managers.MockServerManager;
 import org.prebid.mobile.drprebid.model.AdFormat;
 import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.Bidder;
 import org.prebid.mobile.drprebid.model.DemandTestResults;
 import org.prebid.mobile.drprebid.model.GeneralSettings;
+import org.prebid.mobile.drprebid.model.LatencyHistogram;
+import org.prebid.mobile.drprebid.model.LoadTestSettings;
 import org.prebid.mobile.drprebid.model.PrebidServer;
 import org.prebid.mobile.drprebid.model.PrebidServerSettings;
+import org.prebid.mobile.drprebid.model.SettingsSnapshot;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the configured number of bid requests to Prebid Server and aggregates the responses.
+ * <p>
+ * Responses are parsed and counted one at a time on the aggregation executor of {@link DemandTestManager},
+ * the main thread only receives a progress snapshot every {@link #PROGRESS_INTERVAL_MILLIS} and the final results.
+ */
 public class RealTimeDemandTest {
     private static final String TAG = RealTimeDemandTest.class.getSimpleName();
-    private static final int REQUEST_MAX = 100;
+
+    private static final int PROGRESS_INTERVAL_MILLIS = 250;
+    private static final String SAMPLES_DIRECTORY = "demand_test_runs";
 
     public interface Listener {
         void onTestFinished(DemandTestResults results);
+
+        default void onTestProgress(int completedCount, int requestCount) {
+        }
     }
 
-    private Listener mListener;
+    private volatile Listener mListener;
     private Context mContext;
+    private final SettingsSnapshot mSettings;
 
-    private int testResponseCount = 0;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private int requestCount = LoadTestSettings.DEFAULT_REQUEST_COUNT;
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private volatile ScheduledFuture<?> pacing;
+    private volatile boolean cancelled;
+    // started from the main thread or the pacing thread, cancelled from the main thread
+    private final List<DemandTestTask> testTasks = Collections.synchronizedList(new ArrayList<>());
+    private PrebidServer prebidServer;
+
+    // only touched on the aggregation executor once the test is running
     private DemandTestResults testResults;
+    private RunStatistics statistics;
+    private long startedMillis;
+    private SampleWriter sampleWriter;
 
-    public RealTimeDemandTest(Context context, Listener listener) {
+    public RealTimeDemandTest(Context context, SettingsSnapshot settings, Listener listener) {
         mContext = context;
+        mSettings = settings;
         mListener = listener;
     }
 
     public void startTest() {
-        GeneralSettings generalSettings = SettingsManager.getInstance(mContext).getGeneralSettings();
-        PrebidServerSettings prebidServerSettings = SettingsManager.getInstance(mContext).getPrebidServerSettings();
+        GeneralSettings generalSettings = mSettings.getGeneralSettings();
+        PrebidServerSettings prebidServerSettings = mSettings.getPrebidServerSettings();
 
         AdUnit adUnit = null;
         if (generalSettings.getAdFormat() == AdFormat.BANNER) {
@@ -83,19 +124,98 @@ public class RealTimeDemandTest {
                 PrebidMobile.setPrebidServerHost(Host.APPNEXUS);
                 hostUrl = Constants.EndpointUrls.APPNEXUS_PREBID_SERVER;
         }
+        hostUrl = MockServerManager.getInstance(mContext).getAuctionUrl(hostUrl);
 
         DemandRequestBuilder builder = new DemandRequestBuilder(mContext, prebidServerSettings.getConfigId(), generalSettings.getAdSize());
         String request = builder.buildRequest(adUnits, prebidServerSettings.getAccountId(), true);
 
-        testResponseCount = 0;
+        LoadTestSettings loadTestSettings = mSettings.getLoadTestSettings();
+        requestCount = loadTestSettings.getRequestCount();
+        DemandTestManager.getInstance().setConcurrency(loadTestSettings.getConcurrency());
+
+        prebidServer = prebidServerSettings.getPrebidServer();
+        completedCount.set(0);
+        cancelled = false;
+        testTasks.clear();
         testResults = new DemandTestResults(request);
+        statistics = new RunStatistics();
+        startedMillis = System.currentTimeMillis();
+
+        Map<String, String> header = new LinkedHashMap<>();
+        header.put("started", String.valueOf(startedMillis));
+        header.put("server", prebidServer.name());
+        header.put("config", prebidServerSettings.getConfigId());
+        header.put("requests", String.valueOf(requestCount));
+        header.put("concurrency", String.valueOf(loadTestSettings.getConcurrency()));
+        header.put("qps", String.valueOf(loadTestSettings.getTargetQps()));
+        // queued ahead of all responses
+        DemandTestManager.getInstance().getAggregationExecutor().execute(() -> openSampleWriter(header));
+
+        mainHandler.postDelayed(progressUpdate, PROGRESS_INTERVAL_MILLIS);
+
+        if (loadTestSettings.isPaced()) {
+            startPacedTest(hostUrl, request, loadTestSettings.getTargetQps());
+        } else {
+            for (int i = 0; i < requestCount; i++) {
+                runTest(hostUrl, request, requestCompletionListener, -1);
+            }
+        }
+    }
 
-        for (int i = 0; i < REQUEST_MAX; i++) {
-            runTest(hostUrl, request, requestCompletionListener);
+    /**
+     * Starts requests at the target rate whether or not earlier requests have completed (open loop),
+     * so a slow server shows up as growing response times instead of a lower request rate.
+     */
+    private void startPacedTest(String hostUrl, String request, int targetQps) {
+        final long periodNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / targetQps);
+        final long startTime = System.nanoTime();
+        final AtomicInteger startedCount = new AtomicInteger();
+
+        pacing = DemandTestManager.getInstance().schedulePacing(() -> {
+            int index = startedCount.getAndIncrement();
+            if (index < requestCount && !cancelled) {
+                runTest(hostUrl, request, requestCompletionListener, startTime + index * periodNanos);
+            } else if (pacing != null) {
+                pacing.cancel(false);
+            }
+        }, periodNanos);
+    }
+
+    /**
+     * Stops starting requests, also those still waiting for a request thread, and drops the listener.
+     * Requests already sent complete without being reported.
+     */
+    public void cancel() {
+        cancelled = true;
+        mListener = null;
+        if (pacing != null) {
+            pacing.cancel(false);
+        }
+        synchronized (testTasks) {
+            for (DemandTestTask testTask : testTasks) {
+                testTask.cancel();
+            }
+            testTasks.clear();
         }
+        mainHandler.removeCallbacks(progressUpdate);
+        // after any response still queued on the aggregation executor
+        DemandTestManager.getInstance().getAggregationExecutor().execute(this::closeSampleWriter);
     }
 
-    private String buildCustomServerEndpoint(String url) {
+    private final Runnable progressUpdate = new Runnable() {
+        @Override
+        public void run() {
+            int completed = completedCount.get();
+            if (mListener != null) {
+                mListener.onTestProgress(completed, requestCount);
+            }
+            if (completed < requestCount) {
+                mainHandler.postDelayed(this, PROGRESS_INTERVAL_MILLIS);
+            }
+        }
+    };
+
+    static String buildCustomServerEndpoint(String url) {
         if (!TextUtils.isEmpty(url)) {
             Uri.Builder uriBuilder = Uri.parse(url).buildUpon();
             uriBuilder.appendPath("openrtb2");
@@ -107,12 +227,53 @@ public class RealTimeDemandTest {
         }
     }
 
-    private final DemandTestResultTask.RequestCompletionListener requestCompletionListener = (response, responseCode) -> {
+    private void openSampleWriter(Map<String, String> header) {
+        try {
+            sampleWriter = new SampleWriter(new File(mContext.getFilesDir(), SAMPLES_DIRECTORY), startedMillis, header);
+        } catch (IOException exception) {
+            Log.e(TAG, "Samples of this run are not exported: " + exception.getMessage());
+            sampleWriter = null;
+        }
+    }
+
+    private void writeSample(Sample sample) {
+        if (sampleWriter != null) {
+            try {
+                sampleWriter.write(sample);
+            } catch (IOException exception) {
+                Log.e(TAG, "Samples of this run are not exported: " + exception.getMessage());
+                closeSampleWriter();
+            }
+        }
+    }
+
+    private File closeSampleWriter() {
+        if (sampleWriter == null) {
+            return null;
+        }
+
+        File file = sampleWriter.getFile();
+        try {
+            sampleWriter.close();
+        } catch (IOException exception) {
+            Log.e(TAG, exception.getMessage());
+            file = null;
+        }
+        sampleWriter = null;
+        return file;
+    }
+
+    private final DemandTestResultTask.RequestCompletionListener requestCompletionListener = (response, responseCode, responseTime, newConnection) -> {
+        if (cancelled) {
+            return;
+        }
+
+        boolean containsBids = false;
+        Map<String, Long> sampleBidderResponseTimes = new LinkedHashMap<>();
+
         if (responseCode == 200) {
             try {
                 JSONObject responseJson = new JSONObject(response);
-                boolean containsBids = false;
-                testResponseCount++;
 
                 Map<String, String> bidderResponseStatuses = new HashMap<>();
 
@@ -135,11 +296,14 @@ public class RealTimeDemandTest {
                         bidderDetails.setTimeout(0);
                         bidderDetails.setError(0);
                         bidderDetails.setCpm(0);
-                        bidderDetails.setServerResponse("");
-                        bidderDetails.setResponseTime(responseMillis.getInt(key));
+                        // kept until a response with a bid from this bidder replaces it
+                        bidderDetails.setServerResponse(response);
 
                         testResults.getBidders().put(key, bidderDetails);
                     }
+
+                    bidderDetails.getResponseTimes().record(responseMillis.getLong(key));
+                    sampleBidderResponseTimes.put(key, responseMillis.getLong(key));
                 }
 
                 if (responseJson.has("seatbid")) {
@@ -166,8 +330,11 @@ public class RealTimeDemandTest {
                                                 if (extPrebid != null) {
                                                     JSONObject prebidTargeting = extPrebid.getJSONObject("targeting");
                                                     if (prebidTargeting != null) {
+                                                        if (bidderDetails.getBid() == 0) {
+                                                            // one sample response per bidder, not every response of the run
+                                                            bidderDetails.setServerResponse(response);
+                                                        }
                                                         bidderDetails.setBid(bidderDetails.getBid() + 1);
-                                                        bidderDetails.setServerResponse(response);
                                                     }
                                                 }
                                             }
@@ -190,7 +357,7 @@ public class RealTimeDemandTest {
                 if (ext.has("errors")) {
                     JSONObject bidderErrors = ext.getJSONObject("errors");
                     if (bidderErrors != null) {
-                        if (SettingsManager.getInstance(mContext).getPrebidServerSettings().getPrebidServer() == PrebidServer.RUBICON) {
+                        if (prebidServer == PrebidServer.RUBICON) {
                             Iterator<String> keyIterator = bidderErrors.keys();
                             while (keyIterator.hasNext()) {
                                 String key = keyIterator.next();
@@ -226,15 +393,6 @@ public class RealTimeDemandTest {
                     }
                 }
 
-                if (testResponseCount == REQUEST_MAX) {
-                    for (String key : bidderResponseStatuses.keySet()) {
-                        Bidder bidderDetails = testResults.getBidders().get(key);
-                        if (bidderDetails != null && TextUtils.isEmpty(bidderDetails.getServerResponse())) {
-                            bidderDetails.setServerResponse(response);
-                        }
-                    }
-                }
-
             } catch (Exception exception) {
                 Log.e(TAG, exception.getMessage());
             }
@@ -243,10 +401,14 @@ public class RealTimeDemandTest {
             testResults.setError(new Exception(response));
         }
 
-        if (testResponseCount == REQUEST_MAX) {
+        Sample sample = new Sample(System.currentTimeMillis() - startedMillis, responseTime, responseCode, newConnection, containsBids, sampleBidderResponseTimes);
+        statistics.add(sample);
+        writeSample(sample);
+
+        if (completedCount.incrementAndGet() == requestCount) {
             int totalBids = 0;
             float totalCpm = 0.0f;
-            int averageResponseTime = 0;
+            LatencyHistogram bidderResponseTimes = new LatencyHistogram();
 
             for (String key : testResults.getBidders().keySet()) {
                 Bidder bidder = testResults.getBidders().get(key);
@@ -254,11 +416,8 @@ public class RealTimeDemandTest {
                 int bids = bidder.getBid();
                 totalBids += bids;
                 totalCpm += totalPrice;
-                averageResponseTime += bidder.getResponseTime();
-            }
-
-            if (testResults.getBidders().size() > 0) {
-                averageResponseTime = averageResponseTime / testResults.getBidders().size();
+                bidder.setResponseTime((int) bidder.getResponseTimes().getMean());
+                bidderResponseTimes.add(bidder.getResponseTimes());
             }
 
             if (totalBids > 0) {
@@ -267,17 +426,32 @@ public class RealTimeDemandTest {
                 testResults.setAvgEcpm(0);
             }
 
-            testResults.setAvgResponseTime(averageResponseTime);
-            if (mListener != null) {
-                mListener.onTestFinished(testResults);
-            }
+            testResults.setAvgResponseTime(bidderResponseTimes.getMean());
+            testResults.setAvgColdResponseTime(statistics.getAvgColdResponseTime());
+            testResults.setAvgWarmResponseTime(statistics.getAvgWarmResponseTime());
+            testResults.setResponseTimes(statistics.getResponseTimes());
+            testResults.setSampleFile(closeSampleWriter());
+
+            final DemandTestResults results = testResults;
+            mainHandler.post(() -> {
+                mainHandler.removeCallbacks(progressUpdate);
+                if (mListener != null) {
+                    mListener.onTestProgress(requestCount, requestCount);
+                    mListener.onTestFinished(results);
+                }
+            });
         }
     };
 
-    private void runTest(String url, String requestBody, DemandTestResultTask.RequestCompletionListener listener) {
+    private void runTest(String url, String requestBody, DemandTestResultTask.RequestCompletionListener listener, long scheduledTime) {
         DemandTestResultTask testResultTask = new DemandTestResultTask(listener);
 
-        DemandTestTask testTask = new DemandTestTask(url, requestBody, testResultTask);
+        DemandTestTask testTask = new DemandTestTask(url, requestBody, testResultTask, scheduledTime, DemandTestManager.getInstance().getAggregationExecutor());
+        testTasks.add(testTask);
+        if (cancelled) {
+            // cancel() may have run between the caller's check and the add
+            testTask.cancel();
+        }
         DemandTestManager.getInstance().runRequest(testTask);
     }
 }
@@ -25,13 +25,14 @@ import org.prebid.mobile.Host;
 import org.prebid.mobile.InterstitialAdUnit;
 import org.prebid.mobile.PrebidMobile;
 import org.prebid.mobile.TargetingParams;
-import org.prebid.mobile.drprebid.managers.SettingsManager;
+import org.prebid.mobile.drprebid.managers.MockServerManager;
 import org.prebid.mobile.drprebid.model.AdFormat;
 import org.prebid.mobile.drprebid.model.AdServer;
 import org.prebid.mobile.drprebid.model.AdServerSettings;
 import org.prebid.mobile.drprebid.model.AdSize;
 import org.prebid.mobile.drprebid.model.GeneralSettings;
 import org.prebid.mobile.drprebid.model.PrebidServerSettings;
+import org.prebid.mobile.drprebid.model.SettingsSnapshot;
 import org.prebid.mobile.drprebid.util.DimenUtil;
 import org.prebid.mobile.drprebid.util.IOUtil;
 
@@ -69,6 +70,7 @@ public class SdkTest implements MoPubView.BannerAdListener, MoPubInterstitial.In
 
     private Listener mListener;
     private Activity mContext;
+    private final SettingsSnapshot mSettings;
 
     private AdUnit mAdUnit;
     private boolean mInitialPrebidServerResponseReceived;
@@ -83,17 +85,21 @@ public class SdkTest implements MoPubView.BannerAdListener, MoPubInterstitial.In
 
     private MoPubRequestQueue mMoPubRequestQueue;
 
-    public SdkTest(Activity context, Listener listener) {
+    /**
+     * @param settings settings of the test run, setup and the ad server request must agree even if settings change in between
+     */
+    public SdkTest(Activity context, SettingsSnapshot settings, Listener listener) {
         mContext = context;
         mListener = listener;
+        mSettings = settings;
 
         mMoPubRequestQueue = Networking.getRequestQueue(context);
         setupPrebid();
     }
 
     private void setupPrebid() {
-        GeneralSettings generalSettings = SettingsManager.getInstance(mContext).getGeneralSettings();
-        PrebidServerSettings prebidServerSettings = SettingsManager.getInstance(mContext).getPrebidServerSettings();
+        GeneralSettings generalSettings = mSettings.getGeneralSettings();
+        PrebidServerSettings prebidServerSettings = mSettings.getPrebidServerSettings();
 
         setPrebidTargetingParams();
 
@@ -119,6 +125,12 @@ public class SdkTest implements MoPubView.BannerAdListener, MoPubInterstitial.In
                 break;
         }
 
+        MockServerManager mockServerManager = MockServerManager.getInstance(mContext);
+        if (mockServerManager.isReplaying()) {
+            Host.CUSTOM.setHostUrl(mockServerManager.getAuctionUrl(PrebidMobile.getPrebidServerHost().getHostUrl()));
+            PrebidMobile.setPrebidServerHost(Host.CUSTOM);
+        }
+
         if (mListener != null) {
             mListener.onAdUnitRegistered();
         }
@@ -146,8 +158,8 @@ public class SdkTest implements MoPubView.BannerAdListener, MoPubInterstitial.In
     }
 
     public void startTest() {
-        GeneralSettings generalSettings = SettingsManager.getInstance(mContext).getGeneralSettings();
-        AdServerSettings adServerSettings = SettingsManager.getInstance(mContext).getAdServerSettings();
+        GeneralSettings generalSettings = mSettings.getGeneralSettings();
+        AdServerSettings adServerSettings = mSettings.getAdServerSettings();
 
         if (adServerSettings.getAdServer() == AdServer.MOPUB) {
             if (generalSettings.getAdFormat() == AdFormat.BANNER) {
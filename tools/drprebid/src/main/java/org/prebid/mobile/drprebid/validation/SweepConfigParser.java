@@ -0,0 +1,87 @@
+package org.prebid.mobile.drprebid.validation;
+
+import android.text.TextUtils;
+
+import org.prebid.mobile.drprebid.model.AdSize;
+import org.prebid.mobile.drprebid.model.PrebidServer;
+import org.prebid.mobile.drprebid.model.PrebidServerSettings;
+import org.prebid.mobile.drprebid.model.SweepConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the configurations of a validation sweep, one per line:
+ * <pre>
+ * # account id, config id, size, optional server (appnexus, rubicon or a custom server URL)
+ * bfa84af2-bd16-4d35-96ad-31c6bb888df0, 6ace8c7d-88c0-4623-8117-75bc3f0a2e45, 300x250
+ * bfa84af2-bd16-4d35-96ad-31c6bb888df0, 625c6125-f19e-4d5b-95c5-55501526b2a4, 320x50, rubicon
+ * </pre>
+ * Fields are separated by commas or whitespace, lines starting with # are ignored.
+ * Lines without a server use the one of the Prebid Server settings.
+ */
+public class SweepConfigParser {
+    private final PrebidServerSettings defaultServer;
+
+    public SweepConfigParser(PrebidServerSettings defaultServer) {
+        this.defaultServer = defaultServer;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first line that cannot be read
+     */
+    public List<SweepConfig> parse(String text) {
+        List<SweepConfig> configs = new ArrayList<>();
+
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("[,\\s]+");
+            if (fields.length < 3 || fields.length > 4) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Line %d: expected account id, config id, size and optional server", i + 1));
+            }
+
+            AdSize adSize = parseAdSize(fields[2]);
+            if (adSize == null) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Line %d: unsupported size %s", i + 1, fields[2]));
+            }
+
+            PrebidServer prebidServer = defaultServer.getPrebidServer();
+            String customUrl = defaultServer.getCustomPrebidServerUrl();
+            if (fields.length == 4) {
+                if ("appnexus".equalsIgnoreCase(fields[3])) {
+                    prebidServer = PrebidServer.APPNEXUS;
+                } else if ("rubicon".equalsIgnoreCase(fields[3])) {
+                    prebidServer = PrebidServer.RUBICON;
+                } else if (fields[3].startsWith("http://") || fields[3].startsWith("https://")) {
+                    prebidServer = PrebidServer.CUSTOM;
+                    customUrl = fields[3];
+                } else {
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Line %d: unknown server %s", i + 1, fields[3]));
+                }
+            }
+
+            if (prebidServer == PrebidServer.CUSTOM && TextUtils.isEmpty(customUrl)) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Line %d: no custom server URL", i + 1));
+            }
+
+            configs.add(new SweepConfig(prebidServer, customUrl, fields[0], fields[1], adSize));
+        }
+
+        return configs;
+    }
+
+    private static AdSize parseAdSize(String size) {
+        for (AdSize adSize : AdSize.values()) {
+            if (size.equalsIgnoreCase(adSize.getWidth() + "x" + adSize.getHeight())) {
+                return adSize;
+            }
+        }
+        return null;
+    }
+}